@@ -0,0 +1,50 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.web.request.create.BookRequest;
+import com.edu.ulab.app.web.request.create.UserBookRequest;
+import com.edu.ulab.app.web.request.create.UserRequest;
+import com.edu.ulab.app.web.response.UserBookResponse;
+
+import java.util.stream.IntStream;
+
+/**
+ * Общие данные бенчмарков: запрос на создание и ответ с заданным числом книг.
+ */
+final class BenchmarkData {
+    private BenchmarkData() {
+    }
+
+    static UserBookRequest userBookRequest(int bookCount) {
+        UserRequest userRequest = new UserRequest();
+        userRequest.setFullName("Benchmark reader");
+        userRequest.setTitle("reader");
+        userRequest.setAge(33);
+        UserBookRequest request = new UserBookRequest();
+        request.setUserRequest(userRequest);
+        request.setBookRequests(IntStream.range(0, bookCount)
+                .mapToObj(BenchmarkData::bookRequest)
+                .toList());
+        return request;
+    }
+
+    static BookRequest bookRequest(int i) {
+        BookRequest bookRequest = new BookRequest();
+        bookRequest.setTitle("book " + i);
+        bookRequest.setAuthor("author " + i % 10);
+        bookRequest.setPageCount(100 + i);
+        return bookRequest;
+    }
+
+    static UserBookResponse userBookResponse(int bookCount) {
+        return UserBookResponse.builder()
+                .userId(1001L)
+                .fullName("Benchmark reader")
+                .title("reader")
+                .age(33)
+                .bookList(IntStream.range(0, bookCount)
+                        .mapToObj(i -> new BookDto(2000L + i, 1001L, "book " + i, "author " + i % 10, 100 + i))
+                        .toList())
+                .build();
+    }
+}
@@ -0,0 +1,102 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.AppApplication;
+import com.edu.ulab.app.config.TestConfigurationExcludeFilter;
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.BookLoadResult;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.service.impl.BookCopyLoaderTemplate;
+import com.edu.ulab.app.service.impl.BookServiceImplTemplate;
+import com.edu.ulab.app.service.impl.UserServiceImplTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Загрузка bookCount книг одного владельца через COPY ({@link BookCopyLoaderTemplate})
+ * против batch insert ({@link BookServiceImplTemplate#createBooks}). Нужен запущенный PostgreSQL из spring.datasource.
+ * <p>
+ * Реализация записи (источник id) - параметр backend; загруженные книги удаляются после каждой итерации.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(2)
+public class BookCopyLoaderBenchmark {
+    @Param({"template"})
+    private String backend;
+
+    @Param({"10000"})
+    private int bookCount;
+
+    private ConfigurableApplicationContext context;
+    private BookCopyLoaderTemplate bookLoader;
+    private BookServiceImplTemplate bookService;
+    private JdbcTemplate jdbcTemplate;
+    private Long ownerId;
+    private List<BookDto> books;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(AppApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("ulab.backend.read=" + backend,
+                        "ulab.backend.write=" + backend,
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level.com.edu.ulab=WARN")
+                .initializers(TestConfigurationExcludeFilter::register)
+                .run();
+        bookLoader = context.getBean(BookCopyLoaderTemplate.class);
+        bookService = context.getBean(BookServiceImplTemplate.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        ownerId = context.getBean(UserServiceImplTemplate.class)
+                .createUser(new UserDto(null, "Benchmark reader", "reader", 33))
+                .getId();
+        // Строки с кавычками и запятыми: COPY экранирует их в CSV
+        books = IntStream.range(0, bookCount)
+                .mapToObj(i -> new BookDto(null, ownerId, "book \"" + i + "\", vol. " + i, "author " + i % 10, 100 + i))
+                .toList();
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteBooks() {
+        jdbcTemplate.update("DELETE FROM ULAB_EDU.BOOK WHERE PERSON_ID = ?", ownerId);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jdbcTemplate.update("DELETE FROM ULAB_EDU.PERSON WHERE ID = ?", ownerId);
+        context.close();
+    }
+
+    @Benchmark
+    public BookLoadResult copy() {
+        return bookLoader.load(books.iterator());
+    }
+
+    @Benchmark
+    public List<BookDto> batchInsert() {
+        return bookService.createBooks(books);
+    }
+}
@@ -0,0 +1,47 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.web.response.UserBookResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация ответа {@link UserBookResponse} в JSON с настройками ObjectMapper как у Spring MVC.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+    @Param({"0", "10", "100"})
+    private int bookCount;
+
+    private ObjectWriter responseWriter;
+    private UserBookResponse response;
+
+    @Setup
+    public void setUp() {
+        responseWriter = Jackson2ObjectMapperBuilder.json().build().writerFor(UserBookResponse.class);
+        response = BenchmarkData.userBookResponse(bookCount);
+    }
+
+    @Benchmark
+    public byte[] writeUserBookResponse() throws JsonProcessingException {
+        return responseWriter.writeValueAsBytes(response);
+    }
+}
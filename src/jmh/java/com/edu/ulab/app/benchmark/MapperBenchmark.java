@@ -0,0 +1,88 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.mapper.BookMapper;
+import com.edu.ulab.app.mapper.BookMapperImpl;
+import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.mapper.UserMapperImpl;
+import com.edu.ulab.app.web.request.create.BookRequest;
+import com.edu.ulab.app.web.request.create.UserRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Преобразования MapStruct {@link UserMapper} и {@link BookMapper} на пути создания и чтения пользователя с книгами.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+    private final UserMapper userMapper = new UserMapperImpl();
+    private final BookMapper bookMapper = new BookMapperImpl();
+
+    private UserRequest userRequest;
+    private BookRequest bookRequest;
+    private UserDto userDto;
+    private BookDto bookDto;
+    private Person person;
+    private Book book;
+
+    @Setup
+    public void setUp() {
+        userRequest = BenchmarkData.userBookRequest(0).getUserRequest();
+        bookRequest = BenchmarkData.bookRequest(1);
+        userDto = userMapper.userRequestToUserDto(userRequest);
+        userDto.setId(1001L);
+        bookDto = bookMapper.bookRequestToBookDto(bookRequest);
+        bookDto.setId(2002L);
+        bookDto.setUserId(1001L);
+        person = userMapper.userDtoToPerson(userDto);
+        book = bookMapper.bookDtoToBook(bookDto);
+    }
+
+    @Benchmark
+    public UserDto userRequestToUserDto() {
+        return userMapper.userRequestToUserDto(userRequest);
+    }
+
+    @Benchmark
+    public Person userDtoToPerson() {
+        return userMapper.userDtoToPerson(userDto);
+    }
+
+    @Benchmark
+    public UserDto personToUserDto() {
+        return userMapper.personToUserDto(person);
+    }
+
+    @Benchmark
+    public BookDto bookRequestToBookDto() {
+        return bookMapper.bookRequestToBookDto(bookRequest);
+    }
+
+    @Benchmark
+    public Book bookDtoToBook() {
+        return bookMapper.bookDtoToBook(bookDto);
+    }
+
+    @Benchmark
+    public BookDto bookToBookDto() {
+        return bookMapper.bookToBookDto(book);
+    }
+}
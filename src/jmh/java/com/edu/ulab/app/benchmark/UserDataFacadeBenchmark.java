@@ -0,0 +1,111 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.AppApplication;
+import com.edu.ulab.app.config.TestConfigurationExcludeFilter;
+import com.edu.ulab.app.facade.UserDataFacade;
+import com.edu.ulab.app.storage.Storage;
+import com.edu.ulab.app.web.request.create.UserBookRequest;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Создание и чтение пользователя с книгами через {@link UserDataFacade} на каждой реализации сервисов:
+ * storage - хранилище в памяти, jpa и template - БД из spring.datasource (для них нужен запущенный PostgreSQL).
+ * <p>
+ * Контекст поднимается без веб-сервера, с {@code ulab.backend.read/write} из параметра backend.
+ * Логи по умолчанию выключены (WARN); стоимость логирования - с {@code -p logLevel=INFO},
+ * дополнительные профили (например prod) - через {@code -p profiles=prod}.
+ * <p>
+ * Созданные за итерацию пользователи удаляются после нее: хранилище и таблицы не растут от итерации к итерации,
+ * длинный прогон не упирается в память storage.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserDataFacadeBenchmark {
+    @Param({"storage", "jpa", "template"})
+    private String backend;
+
+    @Param({"10"})
+    private int bookCount;
+
+    @Param({"WARN"})
+    private String logLevel;
+
+    @Param({""})
+    private String profiles;
+
+    private ConfigurableApplicationContext context;
+    private UserDataFacade userDataFacade;
+    private UserBookRequest request;
+    private Long userId;
+    private final Queue<Long> createdUserIds = new ConcurrentLinkedQueue<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SpringApplicationBuilder application = new SpringApplicationBuilder(AppApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("ulab.backend.read=" + backend,
+                        "ulab.backend.write=" + backend,
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=" + logLevel,
+                        "logging.level.com.edu.ulab=" + logLevel)
+                .initializers(TestConfigurationExcludeFilter::register);
+        if (Storage.PROFILE.equals(backend)) {
+            application.profiles(Storage.PROFILE);
+        }
+        if (!profiles.isBlank()) {
+            application.profiles(profiles.split(","));
+        }
+        context = application.run();
+        userDataFacade = context.getBean(UserDataFacade.class);
+        request = BenchmarkData.userBookRequest(bookCount);
+        userId = userDataFacade.createUserWithBooks(BenchmarkData.userBookRequest(bookCount)).getUserId();
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteCreatedUsers() {
+        for (Long createdUserId = createdUserIds.poll(); createdUserId != null; createdUserId = createdUserIds.poll()) {
+            userDataFacade.deleteUserWithBooks(createdUserId);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserBookResponse createUserWithBooks() {
+        UserBookResponse response = userDataFacade.createUserWithBooks(request);
+        createdUserIds.add(response.getUserId());
+        return response;
+    }
+
+    @Benchmark
+    public UserBookResponse getUserWithBooks() {
+        return userDataFacade.getUserWithBooks(userId);
+    }
+}
@@ -0,0 +1,84 @@
+package com.edu.ulab.app.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Задержки (HdrHistogram, микросекунды) и ошибки по операциям одной фазы теста.
+ * Задержка считается от запланированного момента отправки, а не от фактического: очередь в клиенте
+ * (сервер не успевает) входит в задержку, а не снижает нагрузку.
+ */
+final class LatencyStats {
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final double MICROS_IN_MILLI = 1000.0;
+
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+
+    LatencyStats() {
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(SIGNIFICANT_DIGITS));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    void record(Operation operation, long latencyNanos, boolean failed) {
+        latencies.get(operation).recordValue(TimeUnit.NANOSECONDS.toMicros(Math.max(0, latencyNanos)));
+        if (failed) {
+            errors.get(operation).increment();
+        }
+    }
+
+    long count() {
+        return latencies.values().stream().mapToLong(Histogram::getTotalCount).sum();
+    }
+
+    void print(PrintStream out, String backend, Duration duration) {
+        out.printf("%-16s %-7s %9s %7s %9s %9s %9s %9s %9s%n",
+                "backend", "op", "count", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (Operation operation : Operation.values()) {
+            Histogram latency = latencies.get(operation);
+            if (latency.getTotalCount() == 0) {
+                continue;
+            }
+            out.printf("%-16s %-7s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    backend, operation, latency.getTotalCount(), errors.get(operation).sum(),
+                    latency.getTotalCount() / (double) duration.toSeconds(),
+                    millis(latency.getValueAtPercentile(50)),
+                    millis(latency.getValueAtPercentile(99)),
+                    millis(latency.getValueAtPercentile(99.9)),
+                    millis(latency.getMaxValue()));
+        }
+    }
+
+    /**
+     * Полные распределения в формате .hgrm (HdrHistogram plotter), в миллисекундах: {@code dir/<backend>-<op>.hgrm}.
+     */
+    void writeHistograms(Path dir, String backend) throws IOException {
+        Files.createDirectories(dir);
+        for (Operation operation : Operation.values()) {
+            Histogram latency = latencies.get(operation);
+            if (latency.getTotalCount() == 0) {
+                continue;
+            }
+            try (PrintStream out = new PrintStream(
+                    Files.newOutputStream(dir.resolve(backend + "-" + operation + ".hgrm")))) {
+                latency.outputPercentileDistribution(out, MICROS_IN_MILLI);
+            }
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / MICROS_IN_MILLI;
+    }
+}
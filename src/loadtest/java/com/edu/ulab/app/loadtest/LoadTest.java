@@ -0,0 +1,204 @@
+package com.edu.ulab.app.loadtest;
+
+import com.edu.ulab.app.AppApplication;
+import com.edu.ulab.app.config.TestConfigurationExcludeFilter;
+import com.edu.ulab.app.storage.Storage;
+import com.edu.ulab.app.web.constant.WebConstant;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Нагрузочный тест {@code /api/v1/user/*}: mvn -P loadtest test -Dloadtest.args="backend=jpa,template rate=300".
+ * <p>
+ * Для каждой реализации сервисов (backend) и режима потоков Tomcat (server-threads: platform или virtual,
+ * {@code ulab.web.virtual-threads.enabled}) поднимается приложение на случайном порту с чистой БД
+ * (PostgreSQL в Testcontainers или url из параметров; для storage - память), создаются preload пользователей,
+ * затем прогрев и замер. Запросы отправляются с постоянной частотой rate независимо от ответов (открытая модель):
+ * медленный сервер не снижает нагрузку, а копит очередь, и она видна в задержках.
+ * <p>
+ * Итог - таблица p50/p99/p999 по операциям для каждой реализации и гистограммы .hgrm в каталоге out.
+ * Параметры - {@link LoadTestOptions}.
+ */
+public final class LoadTest {
+    private static final String POSTGRES_IMAGE = "postgres:13-alpine";
+    private static final Duration PHASE_COMPLETION_TIMEOUT = Duration.ofMinutes(1);
+
+    private final LoadTestOptions options;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private LoadTest(LoadTestOptions options) {
+        this.options = options;
+        // HTTP/1.1 без попытки upgrade до h2c: как у обычного клиента REST
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        System.out.println("Load test: " + options);
+        new LoadTest(options).run();
+    }
+
+    private void run() throws Exception {
+        Map<String, LatencyStats> results = new LinkedHashMap<>();
+        for (String backend : options.getBackends()) {
+            for (String serverThreads : options.getServerThreads()) {
+                results.put(backend + "-" + serverThreads, runBackend(backend, serverThreads));
+            }
+        }
+        System.out.println();
+        System.out.println("Results, " + options.getDuration().toSeconds() + "s at " + options.getRate() + " req/s:");
+        results.forEach((backend, stats) -> stats.print(System.out, backend, options.getDuration()));
+        System.out.println("Histograms: " + options.getOut().toAbsolutePath());
+    }
+
+    private LatencyStats runBackend(String backend, String serverThreads) throws Exception {
+        String run = backend + "-" + serverThreads;
+        PostgreSQLContainer<?> postgres = startDatabase(backend);
+        try (ConfigurableApplicationContext context = startApplication(backend, serverThreads, postgres)) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String contextPath = context.getEnvironment().getProperty("server.servlet.context-path", "");
+            UserWorkload workload = new UserWorkload(httpClient, objectMapper,
+                    URI.create("http://localhost:" + port + contextPath + WebConstant.VERSION_URL + "/user/"));
+            SplittableRandom random = new SplittableRandom(options.getSeed());
+
+            preload(workload, random);
+            System.out.printf("[%s] warmup %ds%n", run, options.getWarmup().toSeconds());
+            runPhase(workload, random, options.getWarmup(), new LatencyStats());
+            System.out.printf("[%s] measure %ds%n", run, options.getDuration().toSeconds());
+            LatencyStats stats = new LatencyStats();
+            runPhase(workload, random, options.getDuration(), stats);
+            stats.print(System.out, run, options.getDuration());
+            stats.writeHistograms(options.getOut(), run);
+            return stats;
+        } finally {
+            if (Objects.nonNull(postgres)) {
+                postgres.stop();
+            }
+        }
+    }
+
+    private PostgreSQLContainer<?> startDatabase(String backend) {
+        if (Storage.PROFILE.equals(backend) || Objects.nonNull(options.getUrl())) {
+            return null;
+        }
+        PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(
+                DockerImageName.parse(POSTGRES_IMAGE).asCompatibleSubstituteFor("postgres"));
+        postgres.start();
+        return postgres;
+    }
+
+    private ConfigurableApplicationContext startApplication(String backend, String serverThreads,
+                                                            PostgreSQLContainer<?> postgres) {
+        List<String> properties = new ArrayList<>(List.of(
+                "server.port=0",
+                "ulab.backend.read=" + backend,
+                "ulab.backend.write=" + backend,
+                "ulab.web.virtual-threads.enabled=" + LoadTestOptions.VIRTUAL_THREADS.equals(serverThreads),
+                "spring.jpa.show-sql=false",
+                "spring.jpa.properties.hibernate.format_sql=false",
+                "spring.jpa.properties.hibernate.generate_statistics=false",
+                "logging.level.root=WARN"));
+        if (Objects.nonNull(postgres)) {
+            properties.add("spring.datasource.url=" + postgres.getJdbcUrl());
+            properties.add("spring.datasource.username=" + postgres.getUsername());
+            properties.add("spring.datasource.password=" + postgres.getPassword());
+        } else if (Objects.nonNull(options.getUrl())) {
+            properties.add("spring.datasource.url=" + options.getUrl());
+            properties.add("spring.datasource.username=" + options.getUsername());
+            properties.add("spring.datasource.password=" + options.getPassword());
+        }
+        SpringApplicationBuilder application = new SpringApplicationBuilder(AppApplication.class)
+                .properties(properties.toArray(String[]::new))
+                .initializers(TestConfigurationExcludeFilter::register);
+        if (Storage.PROFILE.equals(backend)) {
+            application.profiles(Storage.PROFILE);
+        }
+        return application.run();
+    }
+
+    private void preload(UserWorkload workload, SplittableRandom random) throws InterruptedException {
+        ExecutorService clients = Executors.newFixedThreadPool(Math.min(options.getThreads(), 16));
+        LongAdder failed = new LongAdder();
+        for (int i = 0; i < options.getPreload(); i++) {
+            int bookCount = options.getBooks().next(random);
+            clients.execute(() -> {
+                try {
+                    workload.execute(Operation.CREATE, bookCount);
+                } catch (IOException e) {
+                    failed.increment();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        awaitCompletion(clients);
+        System.out.printf("Preloaded users: %d, failed: %d%n", workload.userCount(), failed.sum());
+    }
+
+    private void runPhase(UserWorkload workload, SplittableRandom random, Duration duration, LatencyStats stats)
+            throws InterruptedException {
+        if (duration.isZero()) {
+            return;
+        }
+        ExecutorService clients = Executors.newFixedThreadPool(options.getThreads());
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.getRate();
+        long started = System.nanoTime();
+        long requests = duration.toNanos() / intervalNanos;
+        for (long i = 0; i < requests; i++) {
+            // Момент отправки по расписанию, а не после ответа на предыдущий запрос
+            long intendedStart = started + i * intervalNanos;
+            long waitNanos = intendedStart - System.nanoTime();
+            if (waitNanos > 0) {
+                LockSupport.parkNanos(waitNanos);
+            }
+            Operation operation = options.getMix().next(random);
+            int bookCount = options.getBooks().next(random);
+            clients.execute(() -> {
+                Operation executed = operation;
+                boolean failed = false;
+                try {
+                    executed = workload.execute(operation, bookCount);
+                } catch (IOException e) {
+                    failed = true;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                stats.record(executed, System.nanoTime() - intendedStart, failed);
+            });
+        }
+        awaitCompletion(clients);
+    }
+
+    private static void awaitCompletion(ExecutorService clients) throws InterruptedException {
+        clients.shutdown();
+        if (!clients.awaitTermination(PHASE_COMPLETION_TIMEOUT.toSeconds(), TimeUnit.SECONDS)) {
+            clients.shutdownNow();
+            throw new IllegalStateException("Requests did not complete in " + PHASE_COMPLETION_TIMEOUT);
+        }
+    }
+}
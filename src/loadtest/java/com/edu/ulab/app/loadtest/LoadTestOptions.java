@@ -0,0 +1,114 @@
+package com.edu.ulab.app.loadtest;
+
+import com.edu.ulab.app.config.VirtualThreads;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Параметры нагрузочного теста из аргументов {@code ключ=значение}:
+ * <ul>
+ *     <li>backend - реализации сервисов через запятую: jpa, template, storage (по умолчанию {@value #DEFAULT_BACKENDS});</li>
+ *     <li>server-threads - потоки Tomcat через запятую: platform, virtual (JDK 21+), по умолчанию platform;</li>
+ *     <li>rate - запросов в секунду, поступающих независимо от ответов (открытая модель);</li>
+ *     <li>warmup, duration - прогрев и замер, секунды;</li>
+ *     <li>mix - доли операций, {@code create:20,update:10,get:60,delete:10};</li>
+ *     <li>books - распределение числа книг у создаваемого пользователя, {@code книг:вес};</li>
+ *     <li>preload - пользователей, созданных до прогрева;</li>
+ *     <li>threads - потоков клиента, ограничивает одновременные запросы (очередь к ним входит в задержку);</li>
+ *     <li>url, username, password - БД для jpa и template, без url поднимается PostgreSQL в Testcontainers;</li>
+ *     <li>out - каталог гистограмм .hgrm;</li>
+ *     <li>seed - начальное значение генератора случайных чисел.</li>
+ * </ul>
+ */
+@Getter
+final class LoadTestOptions {
+    static final String DEFAULT_BACKENDS = "jpa,template";
+    static final String PLATFORM_THREADS = "platform";
+    static final String VIRTUAL_THREADS = "virtual";
+    private static final Set<String> KEYS = Set.of("backend", "server-threads", "rate", "warmup", "duration", "mix", "books",
+            "preload", "threads", "url", "username", "password", "out", "seed");
+
+    private final List<String> backends;
+    private final List<String> serverThreads;
+    private final int rate;
+    private final Duration warmup;
+    private final Duration duration;
+    private final WeightedChoice<Operation> mix;
+    private final WeightedChoice<Integer> books;
+    private final int preload;
+    private final int threads;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final Path out;
+    private final long seed;
+
+    private LoadTestOptions(Map<String, String> options) {
+        this.backends = Arrays.stream(options.getOrDefault("backend", DEFAULT_BACKENDS).split(","))
+                .map(String::trim)
+                .toList();
+        this.serverThreads = Arrays.stream(options.getOrDefault("server-threads", PLATFORM_THREADS).split(","))
+                .map(String::trim)
+                .toList();
+        serverThreads.forEach(LoadTestOptions::checkServerThreads);
+        this.rate = positive(options, "rate", "200");
+        this.warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "10")));
+        this.duration = Duration.ofSeconds(positive(options, "duration", "30"));
+        this.mix = WeightedChoice.parse(options.getOrDefault("mix", "create:20,update:10,get:60,delete:10"),
+                operation -> Operation.valueOf(operation.toUpperCase(Locale.ROOT)));
+        this.books = WeightedChoice.parse(options.getOrDefault("books", "0:10,1:30,5:40,20:20"), Integer::valueOf);
+        this.preload = Integer.parseInt(options.getOrDefault("preload", "500"));
+        this.threads = positive(options, "threads", "200");
+        this.url = options.get("url");
+        this.username = options.getOrDefault("username", "postgres");
+        this.password = options.getOrDefault("password", "postgres");
+        this.out = Path.of(options.getOrDefault("out", "target/loadtest"));
+        this.seed = Long.parseLong(options.getOrDefault("seed", "42"));
+    }
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {throw new IllegalArgumentException("Expected key=value, got " + arg);}
+            String key = arg.substring(0, separator).trim();
+            if (!KEYS.contains(key)) {throw new IllegalArgumentException("Unknown option " + key + ", expected one of " + KEYS);}
+            options.put(key, arg.substring(separator + 1).trim());
+        }
+        return new LoadTestOptions(options);
+    }
+
+    // Режим virtual на JDK без виртуальных потоков молча работал бы на пуле Tomcat: сравнение было бы ложным
+    private static void checkServerThreads(String mode) {
+        if (PLATFORM_THREADS.equals(mode)) {
+            return;
+        }
+        if (!VIRTUAL_THREADS.equals(mode)) {throw new IllegalArgumentException("Unknown server-threads " + mode);}
+        ExecutorService probe = VirtualThreads.newPerTaskExecutor().orElseThrow(() -> new IllegalArgumentException(
+                "server-threads=virtual needs JDK 21+, running on " + Runtime.version()));
+        probe.shutdown();
+    }
+
+    private static int positive(Map<String, String> options, String key, String defaultValue) {
+        int value = Integer.parseInt(options.getOrDefault(key, defaultValue));
+        if (value <= 0) {throw new IllegalArgumentException(key + " must be positive");}
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return "backend=" + String.join(",", backends) + " server-threads=" + String.join(",", serverThreads)
+                + " rate=" + rate + "/s warmup=" + warmup.toSeconds()
+                + "s duration=" + duration.toSeconds() + "s mix=" + mix + " books=" + books
+                + " preload=" + preload + " threads=" + threads + " seed=" + seed;
+    }
+}
@@ -0,0 +1,13 @@
+package com.edu.ulab.app.loadtest;
+
+/**
+ * Операции нагрузки на {@code /api/v1/user/*}.
+ */
+enum Operation {
+    CREATE, UPDATE, GET, DELETE;
+
+    @Override
+    public String toString() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,169 @@
+package com.edu.ulab.app.loadtest;
+
+import com.edu.ulab.app.web.constant.WebConstant;
+import com.edu.ulab.app.web.request.create.BookRequest;
+import com.edu.ulab.app.web.request.create.UserBookRequest;
+import com.edu.ulab.app.web.request.create.UserRequest;
+import com.edu.ulab.app.web.request.update.BookRequestUpdate;
+import com.edu.ulab.app.web.request.update.UserBookRequestUpdate;
+import com.edu.ulab.app.web.request.update.UserRequestUpdate;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Операции над {@code /api/v1/user/*} по HTTP и пул созданных пользователей.
+ * <p>
+ * Пользователь берется из пула на время update, get и delete, поэтому операции не пересекаются на одном
+ * пользователе и не дают ложных ошибок (удален, пока читался). Пока пул пуст, вместо них выполняется create.
+ */
+final class UserWorkload {
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final URI userUri;
+    // Пользователи, свободные для update, get и delete
+    private final List<UserBookResponse> users = new ArrayList<>();
+
+    UserWorkload(HttpClient httpClient, ObjectMapper objectMapper, URI userUri) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.userUri = userUri;
+    }
+
+    /**
+     * Выполняет операцию, а при пустом пуле - create.
+     *
+     * @return выполненная операция
+     * @throws IOException ошибка запроса или ответ не 2xx
+     */
+    Operation execute(Operation operation, int bookCount) throws IOException, InterruptedException {
+        if (operation == Operation.CREATE) {
+            release(create(bookCount));
+            return Operation.CREATE;
+        }
+        UserBookResponse user = take();
+        if (Objects.isNull(user)) {
+            release(create(bookCount));
+            return Operation.CREATE;
+        }
+        switch (operation) {
+            case UPDATE -> release(update(user));
+            case GET -> {
+                try {
+                    send(HttpRequest.newBuilder(userUri.resolve("get/" + user.getUserId())).GET());
+                } finally {
+                    release(user);
+                }
+            }
+            case DELETE -> send(HttpRequest.newBuilder(userUri.resolve("delete/" + user.getUserId())).DELETE());
+            default -> throw new IllegalArgumentException("Unsupported operation " + operation);
+        }
+        return operation;
+    }
+
+    int userCount() {
+        synchronized (users) {
+            return users.size();
+        }
+    }
+
+    private UserBookResponse create(int bookCount) throws IOException, InterruptedException {
+        UserRequest userRequest = new UserRequest();
+        userRequest.setFullName("load user");
+        userRequest.setTitle("reader");
+        userRequest.setAge(30);
+        UserBookRequest request = new UserBookRequest();
+        request.setUserRequest(userRequest);
+        request.setBookRequests(IntStream.range(0, bookCount)
+                .mapToObj(i -> {
+                    BookRequest bookRequest = new BookRequest();
+                    bookRequest.setTitle("load book " + i);
+                    bookRequest.setAuthor("load author " + i % 10);
+                    bookRequest.setPageCount(100 + i);
+                    return bookRequest;
+                })
+                .toList());
+        return sendJson(HttpRequest.newBuilder(userUri.resolve("create"))
+                .header(WebConstant.RQID, "load")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(request))));
+    }
+
+    // Переименовывает пользователя и его книги, состав книг не меняется
+    private UserBookResponse update(UserBookResponse user) throws IOException, InterruptedException {
+        int version = ThreadLocalRandom.current().nextInt(1000);
+        UserRequestUpdate userRequest = new UserRequestUpdate();
+        userRequest.setId(user.getUserId());
+        userRequest.setFullName("load user " + version);
+        userRequest.setTitle(user.getTitle());
+        userRequest.setAge(user.getAge());
+        UserBookRequestUpdate request = new UserBookRequestUpdate();
+        request.setUserRequest(userRequest);
+        request.setBookRequests(user.getBookList().stream()
+                .map(bookDto -> {
+                    BookRequestUpdate bookRequest = new BookRequestUpdate();
+                    bookRequest.setId(bookDto.getId());
+                    bookRequest.setTitle("load book " + version);
+                    bookRequest.setAuthor(bookDto.getAuthor());
+                    bookRequest.setPageCount(bookDto.getPageCount());
+                    return bookRequest;
+                })
+                .toList());
+        try {
+            return sendJson(HttpRequest.newBuilder(userUri.resolve("update"))
+                    .PUT(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(request))));
+        } catch (IOException e) {
+            release(user);
+            throw e;
+        }
+    }
+
+    private UserBookResponse sendJson(HttpRequest.Builder request) throws IOException, InterruptedException {
+        UserBookResponse response = objectMapper.readValue(
+                send(request.header("Content-Type", "application/json")), UserBookResponse.class);
+        if (Objects.isNull(response.getBookList())) {
+            response.setBookList(List.of());
+        }
+        return response;
+    }
+
+    private byte[] send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = httpClient.send(request.timeout(REQUEST_TIMEOUT).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException(response.request().method() + " " + response.uri() + ": HTTP " + response.statusCode());
+        }
+        return response.body();
+    }
+
+    private UserBookResponse take() {
+        synchronized (users) {
+            if (users.isEmpty()) {
+                return null;
+            }
+            int index = ThreadLocalRandom.current().nextInt(users.size());
+            UserBookResponse user = users.get(index);
+            users.set(index, users.get(users.size() - 1));
+            users.remove(users.size() - 1);
+            return user;
+        }
+    }
+
+    private void release(UserBookResponse user) {
+        synchronized (users) {
+            users.add(user);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.edu.ulab.app.loadtest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.random.RandomGenerator;
+
+/**
+ * Случайный выбор значения по весам из строки вида {@code "create:20,get:60"}.
+ */
+final class WeightedChoice<T> {
+    private final List<T> values = new ArrayList<>();
+    private final List<Integer> cumulativeWeights = new ArrayList<>();
+    private final int totalWeight;
+
+    private WeightedChoice(Map<T, Integer> weights) {
+        int total = 0;
+        for (Map.Entry<T, Integer> weight : weights.entrySet()) {
+            if (weight.getValue() <= 0) {
+                continue;
+            }
+            total += weight.getValue();
+            values.add(weight.getKey());
+            cumulativeWeights.add(total);
+        }
+        if (total == 0) {throw new IllegalArgumentException("No positive weights: " + weights);}
+        this.totalWeight = total;
+    }
+
+    static <T> WeightedChoice<T> parse(String weights, Function<String, T> valueParser) {
+        Map<T, Integer> parsed = new LinkedHashMap<>();
+        for (String weight : weights.split(",")) {
+            String[] valueAndWeight = weight.trim().split(":");
+            if (valueAndWeight.length != 2) {throw new IllegalArgumentException("Expected value:weight, got " + weight);}
+            parsed.merge(valueParser.apply(valueAndWeight[0].trim()), Integer.parseInt(valueAndWeight[1].trim()),
+                    Integer::sum);
+        }
+        return new WeightedChoice<>(parsed);
+    }
+
+    T next(RandomGenerator random) {
+        int point = random.nextInt(totalWeight);
+        for (int i = 0; i < values.size(); i++) {
+            if (point < cumulativeWeights.get(i)) {
+                return values.get(i);
+            }
+        }
+        throw new IllegalStateException("Point outside of weights: " + point);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder weights = new StringBuilder();
+        int previous = 0;
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                weights.append(',');
+            }
+            weights.append(values.get(i)).append(':').append(cumulativeWeights.get(i) - previous);
+            previous = cumulativeWeights.get(i);
+        }
+        return weights.toString();
+    }
+}
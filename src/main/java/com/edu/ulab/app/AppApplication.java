@@ -2,8 +2,10 @@ package com.edu.ulab.app;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 
-@SpringBootApplication
+// Бин ConnectionFactory отключил бы JDBC DataSource, пул R2DBC создается внутри UserBookReaderR2dbc
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 public class AppApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,52 @@
+package com.edu.ulab.app.config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Кэш второго уровня Hibernate на Caffeine (JCache).
+ * Размеры и время жизни регионов задаются в application.conf.
+ */
+@Configuration
+public class CacheConfig {
+    public static final String PERSON_REGION = "person";
+    public static final String BOOK_REGION = "book";
+    public static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    public static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    private static final List<String> REGIONS =
+            List.of(PERSON_REGION, BOOK_REGION, QUERY_RESULTS_REGION, UPDATE_TIMESTAMPS_REGION);
+
+    @Bean(destroyMethod = "close")
+    public CacheManager jCacheManager() {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        return provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+    }
+
+    // Hibernate работает с тем же CacheManager, с которого снимаются метрики
+    @Bean
+    public HibernatePropertiesCustomizer jCacheHibernatePropertiesCustomizer(CacheManager jCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, jCacheManager);
+    }
+
+    // cache.gets (hit/miss), cache.puts, cache.evictions, cache.removals по каждому региону
+    @Bean
+    public MeterBinder jCacheMetrics(CacheManager jCacheManager) {
+        return registry -> REGIONS.stream()
+                .map(jCacheManager::getCache)
+                .filter(Objects::nonNull)
+                .forEach(cache -> new JCacheMetrics<>(cache, Tags.empty()).bindTo(registry));
+    }
+}
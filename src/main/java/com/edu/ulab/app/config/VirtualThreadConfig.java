@@ -0,0 +1,30 @@
+package com.edu.ulab.app.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Обработка запросов Tomcat на виртуальных потоках ({@code ulab.web.virtual-threads.enabled: true}, JDK 21+).
+ * Поток, ждущий JDBC, не занимает поток ОС, поэтому число одновременных запросов ограничено
+ * не server.tomcat.threads.max, а server.tomcat.max-connections и пулом соединений Hikari,
+ * который настраивается отдельно (spring.datasource.hikari.maximum-pool-size).
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "ulab.web.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> VirtualThreads.newPerTaskExecutor().ifPresentOrElse(
+                executor -> {
+                    protocolHandler.setExecutor(executor);
+                    log.info("Tomcat requests run on virtual threads");
+                },
+                () -> log.warn("Virtual threads need JDK 21+, running on {}: Tomcat keeps its platform thread pool",
+                        Runtime.version()));
+    }
+}
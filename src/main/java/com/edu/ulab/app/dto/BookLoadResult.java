@@ -0,0 +1,23 @@
+package com.edu.ulab.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Итог загрузки книг: загружено, отброшено (не прошла проверку или нет владельца), скорость загрузки.
+ * rejects - причины отказа первых отброшенных книг с номером книги в источнике, начиная с 1.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookLoadResult {
+    private long loaded;
+    private long rejected;
+    private long withoutOwner;
+    private List<String> rejects;
+    private long elapsedMillis;
+    private long rowsPerSecond;
+}
@@ -1,5 +1,8 @@
 package com.edu.ulab.app.entity;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 
 @Getter
@@ -8,6 +11,8 @@ import javax.persistence.*;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "book")
 @Table(name = "book", schema = "ulab_edu")
 public class Book {
     @Id
@@ -25,6 +30,7 @@ public class Book {
     private long pageCount;
 
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "person_id", nullable = false)
+    @JoinColumn(name = "person_id", nullable = false,
+            foreignKey = @ForeignKey(name = "fk_ulab_edu_book_person_id"))
     private Person person;
 }
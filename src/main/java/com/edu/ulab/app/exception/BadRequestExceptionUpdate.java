@@ -12,4 +12,8 @@ public class BadRequestExceptionUpdate extends RuntimeException{
     public BadRequestExceptionUpdate(UserDto userDto) {
         super("userDto or userDto.id is null: "+ userDto);
     }
+
+    public BadRequestExceptionUpdate(Long duplicateBookId) {
+        super("bookDto.id is repeated in one request: "+ duplicateBookId);
+    }
 }
@@ -0,0 +1,8 @@
+package com.edu.ulab.app.exception;
+
+public class SqlBudgetExceededException extends RuntimeException {
+
+    public SqlBudgetExceededException(String endpoint, int statementBudget) {
+        super("SQL statement budget exceeded: " + endpoint + " allows " + statementBudget + " statements");
+    }
+}
@@ -0,0 +1,87 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.metrics.RequestDbStats;
+import com.edu.ulab.app.web.request.create.UserBookRequest;
+import com.edu.ulab.app.web.request.update.UserBookRequestUpdate;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Асинхронные варианты операций {@link UserDataFacade} на отдельном ограниченном пуле.
+ * Когда потоки заняты и очередь заполнена, задача отклоняется {@link RejectedExecutionException}
+ * (ответ 503), а не ждет в очереди без ограничения. Обращения задачи к БД считаются в ее HTTP запрос
+ * ({@link RequestDbStats}).
+ */
+@Component
+public class AsyncUserDataFacade implements DisposableBean {
+    private static final String EXECUTOR_NAME = "userData";
+
+    private final UserDataFacade userDataFacade;
+    private final ThreadPoolExecutor executor;
+    private final LongAdder rejected = new LongAdder();
+
+    public AsyncUserDataFacade(UserDataFacade userDataFacade,
+                               MeterRegistry meterRegistry,
+                               @Value("${ulab.async.pool-size:16}") int poolSize,
+                               @Value("${ulab.async.queue-capacity:100}") int queueCapacity) {
+        this.userDataFacade = userDataFacade;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("user-data-"),
+                (task, pool) -> {
+                    rejected.increment();
+                    throw new RejectedExecutionException("User data executor is saturated");
+                });
+        // Не MeterBinder: фасад зависит от сервисов, а те от реестра метрик
+        new ExecutorServiceMetrics(executor, EXECUTOR_NAME, Tags.empty()).bindTo(meterRegistry);
+        FunctionCounter.builder("executor.rejected.tasks", rejected, LongAdder::sum)
+                .description("Tasks rejected because the pool and its queue are full")
+                .tag("name", EXECUTOR_NAME)
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<UserBookResponse> createUserWithBooks(UserBookRequest userBookRequest) {
+        return CompletableFuture.supplyAsync(
+                RequestDbStats.propagate(() -> userDataFacade.createUserWithBooks(userBookRequest)), executor);
+    }
+
+    public CompletableFuture<UserBookResponse> updateUserWithBooks(UserBookRequestUpdate userBookRequestUpdate) {
+        return CompletableFuture.supplyAsync(
+                RequestDbStats.propagate(() -> userDataFacade.updateUserWithBooks(userBookRequestUpdate)), executor);
+    }
+
+    /**
+     * То же чтение, что у синхронного фасада: кэш ответов атомарно загружает промах один раз,
+     * пользователь и книги читаются в одной read-only транзакции, ответ совпадает с /get/{userId}.
+     */
+    public CompletableFuture<UserBookResponse> getUserWithBooks(Long userId) {
+        return CompletableFuture.supplyAsync(
+                RequestDbStats.propagate(() -> userDataFacade.getUserWithBooks(userId)), executor);
+    }
+
+    public CompletableFuture<Void> deleteUserWithBooks(Long userId) {
+        return CompletableFuture.supplyAsync(RequestDbStats.propagate(() -> {
+            userDataFacade.deleteUserWithBooks(userId);
+            return null;
+        }), executor);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,261 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.BookLoadResult;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.mapper.BookMapper;
+import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.service.impl.BookCopyLoaderTemplate;
+import com.edu.ulab.app.service.impl.SequenceIdAllocator;
+import com.edu.ulab.app.service.impl.UserBulkWriterTemplate;
+import com.edu.ulab.app.web.request.create.BookRequest;
+import com.edu.ulab.app.web.request.create.UserBookRequest;
+import com.edu.ulab.app.web.response.UserBookBulkResult;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Пакетное создание пользователей с книгами из потока: JSON массив или NDJSON.
+ * <p>
+ * Вход читается по одному элементу, в памяти только текущая пачка ({@code ulab.bulk.chunk-size}),
+ * результат каждого элемента пишется в выход сразу после записи пачки. Пачка вставляется одной транзакцией
+ * batch'ами с id из sequence реализации записи {@code ulab.backend.write}; если пачка не записалась, ее элементы повторяются по одному,
+ * чтобы ошибка досталась только плохим элементам.
+ * <p>
+ * Без БД (профиль storage) элементы создаются по одному через {@link UserDataFacade}.
+ * <p>
+ * Здесь же загрузка книг существующих пользователей через COPY ({@link BookCopyLoaderTemplate}).
+ */
+@Slf4j
+@Component
+public class BulkUserDataFacade {
+    private final UserDataFacade userDataFacade;
+    // Нет без БД (профиль storage)
+    private final UserBulkWriterTemplate bulkWriter;
+    private final BookCopyLoaderTemplate bookLoader;
+    private final UserBookResponseCache responseCache;
+    private final UserMapper userMapper;
+    private final BookMapper bookMapper;
+    private final ObjectReader requestReader;
+    private final ObjectReader bookReader;
+    private final ObjectWriter resultWriter;
+    private final int chunkSize;
+
+    public BulkUserDataFacade(UserDataFacade userDataFacade,
+                              ObjectProvider<UserBulkWriterTemplate> bulkWriter,
+                              ObjectProvider<BookCopyLoaderTemplate> bookLoader,
+                              UserBookResponseCache responseCache,
+                              UserMapper userMapper,
+                              BookMapper bookMapper,
+                              ObjectMapper objectMapper,
+                              @Value("${ulab.bulk.chunk-size:100}") int chunkSize) {
+        if (chunkSize <= 0) {throw new IllegalArgumentException("ulab.bulk.chunk-size must be positive");}
+        this.userDataFacade = userDataFacade;
+        this.bulkWriter = bulkWriter.getIfAvailable();
+        this.bookLoader = bookLoader.getIfAvailable();
+        this.responseCache = responseCache;
+        this.userMapper = userMapper;
+        this.bookMapper = bookMapper;
+        this.requestReader = objectMapper.readerFor(UserBookRequest.class);
+        this.bookReader = objectMapper.readerFor(BookDto.class);
+        // Поток ответа закрывает контейнер
+        this.resultWriter = objectMapper.writerFor(UserBookBulkResult.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Создает пользователей из in и пишет в out результат по каждому элементу:
+     * NDJSON при {@code ndjson}, иначе JSON массив. Неразбираемый элемент завершает импорт с ошибкой на его номере.
+     *
+     * @return число прочитанных элементов
+     */
+    public long createUsersWithBooks(InputStream in, OutputStream out, boolean ndjson) throws IOException {
+        IdAllocators idAllocators = Objects.isNull(bulkWriter) ? null
+                : new IdAllocators(bulkWriter.personIdAllocator(), bulkWriter.bookIdAllocator());
+        long index = 0;
+        try (MappingIterator<UserBookRequest> requests = requestReader.readValues(in);
+             SequenceWriter results = ndjson
+                     ? resultWriter.withRootValueSeparator("\n").writeValues(out)
+                     : resultWriter.writeValuesAsArray(out)) {
+            List<UserBookRequest> chunk = new ArrayList<>(chunkSize);
+            while (true) {
+                UserBookRequest request;
+                try {
+                    if (!requests.hasNextValue()) {
+                        break;
+                    }
+                    request = requests.nextValue();
+                } catch (JsonProcessingException e) {
+                    log.info("Bulk create stopped, malformed request {}: {}", index, e.getOriginalMessage());
+                    writeChunk(results, index - chunk.size(), chunk, idAllocators);
+                    results.write(UserBookBulkResult.failed(index, "Malformed request: " + e.getOriginalMessage()));
+                    return index;
+                }
+                chunk.add(request);
+                index++;
+                if (chunk.size() == chunkSize) {
+                    writeChunk(results, index - chunk.size(), chunk, idAllocators);
+                    chunk.clear();
+                }
+            }
+            writeChunk(results, index - chunk.size(), chunk, idAllocators);
+        }
+        log.info("Bulk create finished: {} requests", index);
+        return index;
+    }
+
+    /**
+     * Загрузка книг существующих пользователей из JSON массива или NDJSON через COPY.
+     * Книги читаются из in по мере загрузки.
+     */
+    public BookLoadResult loadBooks(InputStream in) throws IOException {
+        if (Objects.isNull(bookLoader)){throw new NotFoundException("Books load is not available without database");}
+        try (MappingIterator<BookDto> books = bookReader.readValues(in)) {
+            return bookLoader.load(books);
+        } finally {
+            responseCache.evictAll();
+        }
+    }
+
+    private void writeChunk(SequenceWriter results, long firstIndex, List<UserBookRequest> chunk,
+                            IdAllocators idAllocators) throws IOException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<UserBookBulkResult> chunkResults = Objects.isNull(idAllocators)
+                ? createOneByOne(firstIndex, chunk)
+                : createInBatches(firstIndex, chunk, idAllocators);
+        for (UserBookBulkResult result : chunkResults) {
+            results.write(result);
+        }
+        results.flush();
+    }
+
+    private List<UserBookBulkResult> createOneByOne(long firstIndex, List<UserBookRequest> chunk) {
+        List<UserBookBulkResult> results = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            UserBookRequest request = chunk.get(i);
+            if (Objects.isNull(request) || Objects.isNull(request.getUserRequest())) {
+                results.add(UserBookBulkResult.failed(firstIndex + i, "userRequest is null"));
+                continue;
+            }
+            if (Objects.isNull(request.getBookRequests())) {
+                request.setBookRequests(List.of());
+            }
+            try {
+                UserBookResponse response = userDataFacade.createUserWithBooks(request);
+                results.add(new UserBookBulkResult(firstIndex + i, response.getUserId(),
+                        response.getBookList().stream().map(BookDto::getId).toList(), null));
+            } catch (RuntimeException e) {
+                results.add(UserBookBulkResult.failed(firstIndex + i, e.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    private List<UserBookBulkResult> createInBatches(long firstIndex, List<UserBookRequest> chunk,
+                                                     IdAllocators idAllocators) {
+        List<UserBookBulkResult> results = new ArrayList<>(chunk.size());
+        List<UserDto> userDtos = new ArrayList<>(chunk.size());
+        List<List<BookDto>> booksByUser = new ArrayList<>(chunk.size());
+        int userCount = 0;
+        int bookCount = 0;
+        for (int i = 0; i < chunk.size(); i++) {
+            UserBookRequest request = chunk.get(i);
+            if (Objects.isNull(request) || Objects.isNull(request.getUserRequest())) {
+                results.add(UserBookBulkResult.failed(firstIndex + i, "userRequest is null"));
+                userDtos.add(null);
+                booksByUser.add(null);
+                continue;
+            }
+            List<BookDto> bookDtos = Objects.isNull(request.getBookRequests()) ? List.of() : request.getBookRequests()
+                    .stream()
+                    .filter(Objects::nonNull)
+                    .filter(bookRequest -> !bookIsEmpty(bookRequest))
+                    .map(bookMapper::bookRequestToBookDto)
+                    .toList();
+            results.add(null);
+            userDtos.add(userMapper.userRequestToUserDto(request.getUserRequest()));
+            booksByUser.add(bookDtos);
+            userCount++;
+            bookCount += bookDtos.size();
+        }
+        if (userCount == 0) {
+            return results;
+        }
+
+        // Id всей пачки одним запросом к sequence каждой таблицы
+        idAllocators.persons().reserve(userCount);
+        if (bookCount > 0) {
+            idAllocators.books().reserve(bookCount);
+        }
+        List<UserDto> users = new ArrayList<>(chunk.size());
+        List<BookDto> books = new ArrayList<>();
+        for (int i = 0; i < userDtos.size(); i++) {
+            UserDto userDto = userDtos.get(i);
+            if (Objects.isNull(userDto)) {continue;}
+            userDto.setId(idAllocators.persons().next());
+            users.add(userDto);
+            for (BookDto bookDto : booksByUser.get(i)) {
+                bookDto.setId(idAllocators.books().next());
+                bookDto.setUserId(userDto.getId());
+                books.add(bookDto);
+            }
+        }
+
+        try {
+            bulkWriter.insertUsersWithBooks(users, books);
+            for (int i = 0; i < userDtos.size(); i++) {
+                if (Objects.nonNull(userDtos.get(i))) {
+                    results.set(i, created(firstIndex + i, userDtos.get(i), booksByUser.get(i)));
+                }
+            }
+        } catch (DataAccessException e) {
+            log.info("Bulk chunk from {} failed, retrying one by one: {}", firstIndex, e.getMostSpecificCause().getMessage());
+            for (int i = 0; i < userDtos.size(); i++) {
+                UserDto userDto = userDtos.get(i);
+                if (Objects.isNull(userDto)) {continue;}
+                try {
+                    bulkWriter.insertUsersWithBooks(List.of(userDto), booksByUser.get(i));
+                    results.set(i, created(firstIndex + i, userDto, booksByUser.get(i)));
+                } catch (DataAccessException itemException) {
+                    results.set(i, UserBookBulkResult.failed(firstIndex + i,
+                            itemException.getMostSpecificCause().getMessage()));
+                }
+            }
+        }
+        return results;
+    }
+
+    private record IdAllocators(SequenceIdAllocator persons, SequenceIdAllocator books) {
+    }
+
+    private static UserBookBulkResult created(long index, UserDto userDto, List<BookDto> bookDtos) {
+        return new UserBookBulkResult(index, userDto.getId(), bookDtos.stream().map(BookDto::getId).toList(), null);
+    }
+
+    // Пустая книга не создается, как и в BookService.createBooks
+    private static boolean bookIsEmpty(BookRequest bookRequest) {
+        return bookRequest.getTitle() == null && bookRequest.getAuthor() == null && bookRequest.getPageCount() == 0;
+    }
+}
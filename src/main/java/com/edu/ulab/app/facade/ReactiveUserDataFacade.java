@@ -0,0 +1,34 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.service.impl.UserBookReaderR2dbc;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Objects;
+
+/**
+ * Чтение пользователя с книгами без блокировки потоков (профиль reactive).
+ * Пользователь и книги читаются одним запросом на одном соединении R2DBC.
+ */
+@Slf4j
+@Component
+@Profile(UserBookReaderR2dbc.PROFILE)
+public class ReactiveUserDataFacade {
+    private final UserBookReaderR2dbc userBookReader;
+
+    public ReactiveUserDataFacade(UserBookReaderR2dbc userBookReader) {
+        this.userBookReader = userBookReader;
+    }
+
+    public Mono<UserBookResponse> getUserWithBooks(Long userId) {
+        if (Objects.isNull(userId)){return Mono.error(new NotFoundException("id is null"));}
+        log.debug("Got user id (reactive): {}", userId);
+        return userBookReader.getUserWithBooks(userId)
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("User not found")))
+                .map(userWithBooks -> UserDataFacade.mapUserBookResponse(userWithBooks.getT1(), userWithBooks.getT2()));
+    }
+}
@@ -0,0 +1,138 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Кэш собранных ответов {@link UserBookResponse} по userId.
+ * Попадание в кэш не затрагивает сервисы, мапперы и репозитории.
+ * Вес записи - число книг пользователя + 1, поэтому пользователи с большими полками вытесняются раньше.
+ * В кэше лежит неизменяемый снимок ответа, каждый вызов получает свою копию.
+ */
+@Slf4j
+@Component
+public class UserBookResponseCache implements MeterBinder {
+    private static final String CACHE_NAME = "userBookResponse";
+
+    private final boolean enabled;
+    // Загрузка идет вне блокировки Caffeine: в кэш сразу кладется future, остальные читатели ключа ждут ее
+    private final AsyncCache<Long, CachedResponse> cache;
+
+    public UserBookResponseCache(@Value("${ulab.cache.user-book-response.enabled:false}") boolean enabled,
+                                 @Value("${ulab.cache.user-book-response.max-weight:100000}") long maxWeight,
+                                 @Value("${ulab.cache.user-book-response.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Long userId, CachedResponse response) -> 1 + response.bookCount())
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .buildAsync();
+    }
+
+    public UserBookResponse get(Long userId, Function<Long, UserBookResponse> loader) {
+        if (!enabled) {
+            return loader.apply(userId);
+        }
+        CompletableFuture<CachedResponse> loading = new CompletableFuture<>();
+        CompletableFuture<CachedResponse> cached = cache.get(userId, (id, executor) -> loading);
+        if (cached == loading) {
+            // Промах: загружаем в текущем потоке (в его транзакции). Если запись вытеснили во время загрузки,
+            // Caffeine не вернет ее в кэш, результат получат только уже ждущие читатели
+            try {
+                UserBookResponse response = loader.apply(userId);
+                loading.complete(CachedResponse.of(response));
+                return response;
+            } catch (RuntimeException | Error e) {
+                loading.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return cached.join().toResponse();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public void evict(Long userId) {
+        if (enabled && Objects.nonNull(userId)) {
+            cache.synchronous().invalidate(userId);
+            log.info("Evict cached user book response: userId {}", userId);
+            // Повторно после коммита: параллельное чтение могло закэшировать еще не закоммиченное состояние
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        cache.synchronous().invalidate(userId);
+                    }
+                });
+            }
+        }
+    }
+
+    // Изменения затронули неизвестное множество пользователей, например загрузка книг через COPY
+    public void evictAll() {
+        if (enabled) {
+            cache.synchronous().invalidateAll();
+            log.info("Evict all cached user book responses");
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache.synchronous(), CACHE_NAME);
+    }
+
+    private record CachedBook(Long id, Long userId, String title, String author, long pageCount) {
+        static CachedBook of(BookDto bookDto) {
+            return new CachedBook(bookDto.getId(), bookDto.getUserId(), bookDto.getTitle(), bookDto.getAuthor(),
+                    bookDto.getPageCount());
+        }
+
+        BookDto toBookDto() {
+            return new BookDto(id, userId, title, author, pageCount);
+        }
+    }
+
+    private record CachedResponse(Long userId, String fullName, String title, int age, List<CachedBook> books) {
+        static CachedResponse of(UserBookResponse response) {
+            List<CachedBook> books = Objects.isNull(response.getBookList()) ? null : response.getBookList().stream()
+                    .map(CachedBook::of)
+                    .toList();
+            return new CachedResponse(response.getUserId(), response.getFullName(), response.getTitle(),
+                    response.getAge(), books);
+        }
+
+        int bookCount() {
+            return Objects.isNull(books) ? 0 : books.size();
+        }
+
+        UserBookResponse toResponse() {
+            List<BookDto> bookList = Objects.isNull(books) ? null : books.stream()
+                    .map(CachedBook::toBookDto)
+                    .toList();
+            return new UserBookResponse(userId, fullName, title, age, bookList);
+        }
+    }
+}
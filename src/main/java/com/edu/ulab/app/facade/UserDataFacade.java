@@ -5,15 +5,17 @@ import com.edu.ulab.app.dto.UserDto;
 import com.edu.ulab.app.mapper.BookMapper;
 import com.edu.ulab.app.mapper.UserMapper;
 
-import com.edu.ulab.app.service.impl.BookServiceImpl;
-import com.edu.ulab.app.service.impl.BookServiceImplTemplate;
-import com.edu.ulab.app.service.impl.UserServiceImpl;
-import com.edu.ulab.app.service.impl.UserServiceImplTemplate;
+import com.edu.ulab.app.service.BookService;
+import com.edu.ulab.app.service.UserService;
 import com.edu.ulab.app.web.request.create.UserBookRequest;
 import com.edu.ulab.app.web.request.update.UserBookRequestUpdate;
 import com.edu.ulab.app.web.response.UserBookResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.Objects;
@@ -21,25 +23,33 @@ import java.util.Objects;
 @Slf4j
 @Component
 public class UserDataFacade {
-    //private final UserServiceImplTemplate userService;
-    //private final BookServiceImplTemplate bookService;
-    private final UserServiceImpl userService;
-    private final BookServiceImpl bookService;
+    // Маршрутизация чтения и записи по реализациям: ulab.backend.read / ulab.backend.write
+    private final UserService userService;
+    private final BookService bookService;
     private final UserMapper userMapper;
     private final BookMapper bookMapper;
+    private final UserBookResponseCache responseCache;
+    private final TransactionTemplate readOnlyTransaction;
 
-    public UserDataFacade(//UserServiceImplTemplate userService,
-                          //BookServiceImplTemplate bookService,
-                          BookServiceImpl bookService,
-                          UserServiceImpl userService,
+    public UserDataFacade(BookService bookService,
+                          UserService userService,
                           UserMapper userMapper,
-                          BookMapper bookMapper) {
+                          BookMapper bookMapper,
+                          UserBookResponseCache responseCache,
+                          ObjectProvider<PlatformTransactionManager> transactionManager) {
         this.userService = userService;
         this.bookService = bookService;
         this.userMapper = userMapper;
         this.bookMapper = bookMapper;
+        this.responseCache = responseCache;
+        // Без БД (профиль storage) менеджера транзакций нет, чтение идет без транзакции
+        this.readOnlyTransaction = transactionManager.stream()
+                .map(TransactionTemplate::new)
+                .peek(template -> template.setReadOnly(true))
+                .findFirst()
+                .orElse(null);
     }
-    private UserBookResponse mapUserBookResponse (UserDto userDto, List<BookDto> bookDtos){
+    static UserBookResponse mapUserBookResponse (UserDto userDto, List<BookDto> bookDtos){
         UserBookResponse userBookResponse = new UserBookResponse();
         userBookResponse.setUserId(userDto.getId());
         userBookResponse.setFullName(userDto.getFullName());
@@ -48,71 +58,80 @@ public class UserDataFacade {
         userBookResponse.setBookList(bookDtos);
         return userBookResponse;
     }
+    @Transactional
     public UserBookResponse createUserWithBooks(UserBookRequest userBookRequest) {
-        log.info("Got user book create request: {}", userBookRequest);
+        // Объекты целиком - только в debug: toString DTO на каждый запрос дороже самой операции
+        log.debug("Got user book create request: {}", userBookRequest);
         UserDto userDto = userMapper.userRequestToUserDto(userBookRequest.getUserRequest());
-        log.info("Mapped user request: {}", userDto);
 
         UserDto createdUser = userService.createUser(userDto);
-        log.info("Created user: {}", createdUser);
 
-        List<BookDto> bookList = userBookRequest.getBookRequests()
+        List<BookDto> mappedBooks = userBookRequest.getBookRequests()
                 .stream()
                 .filter(Objects::nonNull)
                 .map(bookMapper::bookRequestToBookDto)
                 .peek(bookDto -> bookDto.setUserId(createdUser.getId()))
-                .peek(mappedBookDto -> log.info("mapped book: {}", mappedBookDto))
-                .map(bookService::createBook)
-                .filter(Objects::nonNull)
+                .toList();
+
+        List<BookDto> bookList = bookService.createBooks(createdUser, mappedBooks)
+                .stream()
                 .peek(bookDto -> bookDto.setUserId(createdUser.getId()))
-                .peek(createdBook -> log.info("Created book: {}", createdBook))
                 .toList();
 
-        log.info("Collected book : {}", bookList);
+        log.info("Created user {} with {} books", createdUser.getId(), bookList.size());
+        responseCache.evict(createdUser.getId());
 
         return mapUserBookResponse(createdUser,bookList);
     }
 
+    @Transactional
     public UserBookResponse updateUserWithBooks(UserBookRequestUpdate userBookRequestUpdate) {
-        log.info("Got user book create request: {}", userBookRequestUpdate);
+        log.debug("Got user book update request: {}", userBookRequestUpdate);
         UserDto userDto = userMapper.userRequestUpdateToUserDto(userBookRequestUpdate.getUserRequest());
-        log.info("Mapped user request: {}", userDto);
         UserDto updatedUser = userService.updateUser(userDto);
-        log.info("Updated user: {}", updatedUser);
-        List<BookDto> bookList = userBookRequestUpdate.getBookRequests()
+        List<BookDto> mappedBooks = userBookRequestUpdate.getBookRequests()
                 .stream()
                 .filter(Objects::nonNull)
                 .map(bookMapper::bookRequestUpdateToBookDto)
                 .peek(bookDto -> bookDto.setUserId(updatedUser.getId()))
-                .peek(mappedBookDto -> log.info("mapped book: {}", mappedBookDto))
-                .map(bookService::updateBook)
-                .filter(Objects::nonNull)
-                .peek(bookDto -> bookDto.setUserId(updatedUser.getId()))
-                .peek(mappedBookDto -> log.info("updated book (list): {}", mappedBookDto))
                 .toList();
 
+        List<BookDto> bookList = bookService.updateBooks(updatedUser, mappedBooks);
+        log.info("Updated user {} with {} books", updatedUser.getId(), bookList.size());
+        responseCache.evict(updatedUser.getId());
+
         return mapUserBookResponse(updatedUser,bookList);
     }
 
     public UserBookResponse getUserWithBooks(Long userId) {
-        log.info("Got user id: {}", userId);
+        log.debug("Got user id: {}", userId);
+        // Транзакция (и соединение) открывается только при промахе кэша
+        if (Objects.isNull(readOnlyTransaction)) {
+            return responseCache.get(userId, this::loadUserWithBooks);
+        }
+        return responseCache.get(userId,
+                id -> readOnlyTransaction.execute(status -> loadUserWithBooks(id)));
+    }
+
+    private UserBookResponse loadUserWithBooks(Long userId) {
         UserDto getUser = userService.getUserById(userId);
-        log.info("Get user: {}", getUser);
         List<BookDto> bookList = bookService.getBookById(userId)
                 .stream()
                 .filter(Objects::nonNull)
                 .peek(bookDto -> bookDto.setUserId(getUser.getId()))
-                .peek(getBook -> log.info("Get book: {}", getBook))
                 .toList();
+        log.info("Loaded user {} with {} books", userId, bookList.size());
 
         return mapUserBookResponse(getUser,bookList);
     }
 
+    // Два DELETE: книги пользователя и сам пользователь
+    @Transactional
     public void deleteUserWithBooks(Long userId) {
         bookService.deleteBookById(userId);
-        log.info("Delete books by user id: {}", userId);
         userService.deleteUserById(userId);
-        log.info("Delete user id: {}", userId);
+        log.info("Deleted user {} with books", userId);
+        responseCache.evict(userId);
     }
 
 }
@@ -0,0 +1,94 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.repository.BookRepository;
+import com.edu.ulab.app.repository.UserRepository;
+import com.edu.ulab.app.storage.Storage;
+import com.edu.ulab.app.web.response.KeysetPage;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Постраничные выборки по ключу (keyset): пользователи по должности с книгами, книги по автору.
+ * Страница - это {@code id > afterId order by id limit size} по составному индексу, без OFFSET,
+ * поэтому стоимость не растет с номером страницы.
+ */
+@Slf4j
+@Component
+@Profile("!" + Storage.PROFILE)
+public class UserPageFacade {
+    private final UserRepository userRepository;
+    private final BookRepository bookRepository;
+    private final int maxPageSize;
+
+    public UserPageFacade(UserRepository userRepository,
+                          BookRepository bookRepository,
+                          @Value("${ulab.page.max-size:100}") int maxPageSize) {
+        this.userRepository = userRepository;
+        this.bookRepository = bookRepository;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * Пользователи с должностью title после afterId и их книги: два запроса на страницу при любом ее размере.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<UserBookResponse> getUsersWithBooksByTitle(String title, Long afterId, int size) {
+        log.info("Got users page: title {}, after id {}, size {}", title, afterId, size);
+        int pageSize = pageSize(size);
+        List<UserDto> users = userRepository.findUserDtosByTitleAfter(title, afterId(afterId),
+                PageRequest.ofSize(pageSize + 1));
+        KeysetPage<UserDto> page = page(users, pageSize, UserDto::getId);
+        if (page.getItems().isEmpty()) {
+            return new KeysetPage<>(List.of(), null);
+        }
+
+        Map<Long, List<BookDto>> booksByUserId = bookRepository.findBookDtosByPersonIdIn(
+                        page.getItems().stream().map(UserDto::getId).toList())
+                .stream()
+                .collect(Collectors.groupingBy(BookDto::getUserId));
+        List<UserBookResponse> responses = page.getItems().stream()
+                .map(userDto -> UserDataFacade.mapUserBookResponse(userDto,
+                        booksByUserId.getOrDefault(userDto.getId(), List.of())))
+                .toList();
+        return new KeysetPage<>(responses, page.getNextAfterId());
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPage<BookDto> getBooksByAuthor(String author, Long afterId, int size) {
+        log.info("Got books page: author {}, after id {}, size {}", author, afterId, size);
+        int pageSize = pageSize(size);
+        List<BookDto> books = bookRepository.findBookDtosByAuthorAfter(author, afterId(afterId),
+                PageRequest.ofSize(pageSize + 1));
+        return page(books, pageSize, BookDto::getId);
+    }
+
+    private int pageSize(int size) {
+        return Math.max(1, Math.min(size, maxPageSize));
+    }
+
+    private static Long afterId(Long afterId) {
+        return Objects.isNull(afterId) ? 0L : afterId;
+    }
+
+    // Запрошено на одну строку больше страницы: если она пришла, есть следующая страница
+    private static <T> KeysetPage<T> page(List<T> rows, int pageSize, ToLongFunction<T> id) {
+        if (rows.size() <= pageSize) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, pageSize);
+        return new KeysetPage<>(items, id.applyAsLong(items.get(pageSize - 1)));
+    }
+}
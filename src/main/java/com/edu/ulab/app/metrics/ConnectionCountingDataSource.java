@@ -0,0 +1,41 @@
+package com.edu.ulab.app.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Считает выдачу соединений из пула для {@link RequestDbStats} текущего запроса.
+ * Закрывается вместе с пулом: Spring вызывает close() у бина при остановке контекста.
+ */
+public class ConnectionCountingDataSource extends DelegatingDataSource implements Closeable {
+
+    public ConnectionCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection connection = super.getConnection();
+        RequestDbStats.connectionAcquired();
+        return connection;
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Connection connection = super.getConnection(username, password);
+        RequestDbStats.connectionAcquired();
+        return connection;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (obtainTargetDataSource() instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+}
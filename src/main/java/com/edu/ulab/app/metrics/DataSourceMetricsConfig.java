@@ -0,0 +1,35 @@
+package com.edu.ulab.app.metrics;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class DataSourceMetricsConfig {
+    // Пул приложения, который создает автоконфигурация Spring Boot
+    static final String PRIMARY_DATA_SOURCE = "dataSource";
+
+    // Оборачиваем пул, чтобы видеть число соединений и SQL запросов на один HTTP запрос.
+    // Только основной пул: обертка закрывает его при остановке контекста через ProxyDataSource
+    @Bean
+    public static BeanPostProcessor connectionCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (PRIMARY_DATA_SOURCE.equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof ConnectionCountingDataSource)) {
+                    ProxyDataSource proxy = ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(new StatementCountingListener())
+                            .build();
+                    return new ConnectionCountingDataSource(proxy);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,128 @@
+package com.edu.ulab.app.metrics;
+
+import com.edu.ulab.app.exception.SqlBudgetExceededException;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Счетчики обращений к БД в рамках текущего HTTP запроса: соединения из пула, SQL запросы и их суммарное время.
+ * Привязаны к потоку запроса: открываются и закрываются в {@code HttpRequestFilter}, на асинхронный dispatch
+ * переходят через атрибут запроса, на потоки пула асинхронного фасада - через {@link #propagate}.
+ * <p>
+ * Бюджет запросов эндпоинта задает {@code SqlBudgetInterceptor}: при {@code reject} запрос сверх бюджета
+ * не выполняется, а завершается {@link SqlBudgetExceededException}.
+ */
+public final class RequestDbStats {
+    private static final ThreadLocal<RequestDbStats> CURRENT = new ThreadLocal<>();
+    private static final int NO_BUDGET = 0;
+
+    private int connections;
+    private int statements;
+    private long statementNanos;
+    private String endpoint;
+    private int statementBudget = NO_BUDGET;
+    private boolean rejectOverBudget;
+
+    private RequestDbStats() {
+    }
+
+    public static RequestDbStats start() {
+        RequestDbStats stats = new RequestDbStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static void finish() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Продолжает счетчики уже начатого запроса на текущем потоке (асинхронный dispatch).
+     */
+    public static void resume(RequestDbStats stats) {
+        CURRENT.set(stats);
+    }
+
+    // Пусто вне HTTP запроса
+    public static RequestDbStats current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * call со счетчиками текущего запроса, чтобы его обращения к БД на потоке пула попали в этот запрос.
+     * Счетчики не потокобезопасны: пока задача выполняется, поток запроса к ним не обращается.
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> call) {
+        RequestDbStats stats = CURRENT.get();
+        if (Objects.isNull(stats)) {
+            return call;
+        }
+        return () -> {
+            CURRENT.set(stats);
+            try {
+                return call.get();
+            } finally {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    static void connectionAcquired() {
+        RequestDbStats stats = CURRENT.get();
+        if (Objects.nonNull(stats)) {
+            stats.connections++;
+        }
+    }
+
+    static void statementStarting() {
+        RequestDbStats stats = CURRENT.get();
+        if (Objects.isNull(stats)) {
+            return;
+        }
+        if (stats.rejectOverBudget && stats.statementBudget != NO_BUDGET && stats.statements >= stats.statementBudget) {
+            throw new SqlBudgetExceededException(stats.endpoint, stats.statementBudget);
+        }
+        stats.statements++;
+    }
+
+    static void statementFinished(long elapsedNanos) {
+        RequestDbStats stats = CURRENT.get();
+        if (Objects.nonNull(stats)) {
+            stats.statementNanos += elapsedNanos;
+        }
+    }
+
+    /**
+     * Бюджет SQL запросов эндпоинта; 0 - без ограничения.
+     */
+    public void limit(String endpoint, int statementBudget, boolean rejectOverBudget) {
+        this.endpoint = endpoint;
+        this.statementBudget = statementBudget;
+        this.rejectOverBudget = rejectOverBudget;
+    }
+
+    public boolean isOverBudget() {
+        return statementBudget != NO_BUDGET && statements > statementBudget;
+    }
+
+    public int getConnections() {
+        return connections;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getStatementNanos() {
+        return statementNanos;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public int getStatementBudget() {
+        return statementBudget;
+    }
+}
@@ -0,0 +1,36 @@
+package com.edu.ulab.app.metrics;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Бюджет SQL запросов на один HTTP запрос ({@code ulab.sql-budget}): ловит N+1, например выборку владельца
+ * на каждую книгу.
+ */
+@Data
+@ConfigurationProperties(prefix = "ulab.sql-budget")
+public class SqlBudgetProperties {
+    /**
+     * off - не проверять, log - предупреждение в лог, reject - запрос сверх бюджета не выполняется (ответ 500).
+     */
+    private Mode mode = Mode.LOG;
+    /**
+     * Бюджет эндпоинтов без своей настройки, 0 - без ограничения.
+     */
+    private int defaultStatements = 0;
+    /**
+     * Бюджеты по эндпоинтам: ключ - метод и шаблон пути без context-path, {@code "[GET /api/v1/user/get/{userId}]"}.
+     */
+    private Map<String, Integer> endpoints = new HashMap<>();
+
+    public int budgetFor(String endpoint) {
+        return endpoints.getOrDefault(endpoint, defaultStatements);
+    }
+
+    public enum Mode {
+        OFF, LOG, REJECT
+    }
+}
@@ -0,0 +1,30 @@
+package com.edu.ulab.app.metrics;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Считает SQL запросы и их время для {@link RequestDbStats} текущего запроса.
+ * Запрос - одно обращение к БД: batch из N строк считается одним, как и один select.
+ */
+public class StatementCountingListener implements QueryExecutionListener {
+    private static final String STARTED_NANOS = StatementCountingListener.class.getName() + ".started";
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        RequestDbStats.statementStarting();
+        execInfo.addCustomValue(STARTED_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long started = execInfo.getCustomValue(STARTED_NANOS, Long.class);
+        if (Objects.nonNull(started)) {
+            RequestDbStats.statementFinished(System.nanoTime() - started);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.edu.ulab.app.metrics;
+
+import com.edu.ulab.app.facade.UserDataFacade;
+import com.edu.ulab.app.service.impl.ServiceBackend;
+import com.edu.ulab.app.service.impl.ServiceBackends;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+
+/**
+ * Метрики операций {@link UserDataFacade} с тегами backend (реализация чтения для get, записи для остальных)
+ * и operation (метод фасада): таймер {@code ulab.facade.calls}, книги пользователя в ответе
+ * {@code ulab.facade.books} и счетчик ошибок {@code ulab.facade.errors} с тегом exception.
+ * <p>
+ * Аспект снаружи транзакции фасада, поэтому в таймер входит и commit.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class UserDataFacadeMetricsAspect {
+    private final MeterRegistry meterRegistry;
+    private final ServiceBackends backends;
+
+    public UserDataFacadeMetricsAspect(MeterRegistry meterRegistry, ServiceBackends backends) {
+        this.meterRegistry = meterRegistry;
+        this.backends = backends;
+    }
+
+    @Around("execution(public * com.edu.ulab.app.facade.UserDataFacade.*(..))")
+    public Object timeFacadeCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        String operation = joinPoint.getSignature().getName();
+        ServiceBackend backend = operation.startsWith("get") ? backends.getRead() : backends.getWrite();
+        Tags tags = Tags.of("backend", backend.tag(), "operation", operation);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            Object result = joinPoint.proceed();
+            if (result instanceof UserBookResponse response && Objects.nonNull(response.getBookList())) {
+                DistributionSummary.builder("ulab.facade.books")
+                        .description("Books of the user in a facade response")
+                        .baseUnit("books")
+                        .tags(tags)
+                        .register(meterRegistry)
+                        .record(response.getBookList().size());
+            }
+            return result;
+        } catch (Throwable e) {
+            meterRegistry.counter("ulab.facade.errors", tags.and("exception", e.getClass().getSimpleName()))
+                    .increment();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("ulab.facade.calls")
+                    .description("User data facade calls")
+                    .tags(tags)
+                    .register(meterRegistry));
+        }
+    }
+}
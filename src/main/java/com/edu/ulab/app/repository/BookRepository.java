@@ -1,30 +1,57 @@
 package com.edu.ulab.app.repository;
 
+import com.edu.ulab.app.dto.BookDto;
 import com.edu.ulab.app.entity.Book;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
 import javax.transaction.Transactional;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 @Repository
-public interface BookRepository extends CrudRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long> {
 
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("select b from Book b where b.id = :id")
     Optional<Book> findByIdForUpdate(long id);
 
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     List<Book> findByPersonId (Long userId);
 
+    // Проекция сразу в DTO: только нужные колонки, без управляемых сущностей в контексте персистентности
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query("select new com.edu.ulab.app.dto.BookDto(b.id, b.person.id, b.title, b.author, b.pageCount) " +
+            "from Book b where b.person.id = :userId order by b.id")
+    List<BookDto> findBookDtosByPersonId (Long userId);
+
+    // Книги страницы пользователей одним запросом вместо запроса на каждого
+    @Query("select new com.edu.ulab.app.dto.BookDto(b.id, b.person.id, b.title, b.author, b.pageCount) " +
+            "from Book b where b.person.id in :userIds order by b.person.id, b.id")
+    List<BookDto> findBookDtosByPersonIdIn (Collection<Long> userIds);
+
+    // Постраничная выборка по ключу (keyset), как UserRepository.findUserDtosByTitleAfter
+    @Query("select new com.edu.ulab.app.dto.BookDto(b.id, b.person.id, b.title, b.author, b.pageCount) " +
+            "from Book b where b.author = :author and b.id > :afterId order by b.id")
+    List<BookDto> findBookDtosByAuthorAfter (String author, Long afterId, Pageable pageable);
+
     Book findByIdAndPersonId (Long id, Long userId);
 
+    // Один DELETE вместо загрузки и удаления каждой книги
     @Transactional
-    void deleteByPersonId (Long userId);
+    @Modifying
+    @Query("delete from Book b where b.person.id = :userId")
+    int deleteByPersonId (Long userId);
     @Transactional
     void deleteByIdAndPersonId (Long id, Long userId);
 }
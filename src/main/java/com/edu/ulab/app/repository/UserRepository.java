@@ -1,17 +1,25 @@
 package com.edu.ulab.app.repository;
 
+import com.edu.ulab.app.dto.UserDto;
 import com.edu.ulab.app.entity.Person;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import javax.transaction.Transactional;
+import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 @Repository
-public interface UserRepository extends CrudRepository<Person, Long> {
+public interface UserRepository extends JpaRepository<Person, Long> {
 
     /*
     User has books - book - started - comited status - other logic
@@ -22,4 +30,21 @@ public interface UserRepository extends CrudRepository<Person, Long> {
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("select p from Person p where p.id = :id")
     Optional<Person> findByIdForUpdate(long id);
+
+    // Проекция сразу в DTO: только нужные колонки, без управляемых сущностей в контексте персистентности
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query("select new com.edu.ulab.app.dto.UserDto(p.id, p.fullName, p.title, p.age) from Person p where p.id = :id")
+    Optional<UserDto> findUserDtoById(Long id);
+
+    // Постраничная выборка по ключу (keyset): следующая страница начинается после afterId, без OFFSET.
+    // Размер страницы - pageable.getPageSize(), номер страницы всегда 0
+    @Query("select new com.edu.ulab.app.dto.UserDto(p.id, p.fullName, p.title, p.age) from Person p " +
+            "where p.title = :title and p.id > :afterId order by p.id")
+    List<UserDto> findUserDtosByTitleAfter(String title, Long afterId, Pageable pageable);
+
+    // Один DELETE без предварительной загрузки юзера, возвращает число удаленных строк
+    @Transactional
+    @Modifying
+    @Query("delete from Person p where p.id = :id")
+    int deletePersonById(Long id);
 }
@@ -2,12 +2,34 @@ package com.edu.ulab.app.service;
 
 import java.util.List;
 import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
 
 public interface BookService {
     BookDto createBook(BookDto bookDto);
 
+    List<BookDto> createBooks(List<BookDto> bookDtos);
+
+    /**
+     * Создание книг для владельца, которого вызывающий уже создал или загрузил.
+     * Повторно владелец из БД не загружается.
+     */
+    List<BookDto> createBooks(UserDto owner, List<BookDto> bookDtos);
+
     BookDto updateBook(BookDto bookDto);
 
+    /**
+     * Обновление книги владельца, которого вызывающий уже создал или загрузил.
+     * Повторно владелец из БД не загружается.
+     */
+    BookDto updateBook(UserDto owner, BookDto bookDto);
+
+    /**
+     * Обновление всех книг владельца из запроса: книги владельца загружаются одним запросом,
+     * создание, изменение и удаление выполняются пакетами.
+     * Возвращает созданные и обновленные книги в порядке запроса.
+     */
+    List<BookDto> updateBooks(UserDto owner, List<BookDto> bookDtos);
+
     List<BookDto> getBookById(Long id);
 
     void deleteBookById(Long id);
@@ -0,0 +1,263 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.BookLoadResult;
+import com.edu.ulab.app.storage.Storage;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Загрузка большого числа книг через {@code COPY ... FROM STDIN} (CopyManager драйвера PostgreSQL)
+ * вместо batch insert из {@link BookServiceImplTemplate#createBooks}.
+ * <p>
+ * Книги читаются из источника пачками по {@code ulab.copy.chunk-size}: владельцы пачки проверяются и блокируются
+ * от удаления одним запросом, id выдаются из sequence реализации записи {@code ulab.backend.write}
+ * ({@link SequenceIdAllocator}), строки уходят
+ * в COPY в формате CSV кусками по {@value #COPY_BUFFER_SIZE} символов. Книги без владельца и не подходящие
+ * под колонки book отбрасываются до COPY, причины отказа попадают в {@link BookLoadResult}.
+ * <p>
+ * Каждая пачка - своя транзакция: блокировки владельцев держатся только на время пачки. При ошибке
+ * уже закоммиченные пачки остаются в БД.
+ */
+@Slf4j
+@Service
+@Profile("!" + Storage.PROFILE)
+public class BookCopyLoaderTemplate {
+    private static final String COPY_SQL =
+            "COPY ULAB_EDU.BOOK (ID, PERSON_ID, TITLE, AUTHOR, PAGE_COUNT) FROM STDIN WITH (FORMAT csv)";
+    // FOR KEY SHARE: владелец не удалится до конца пачки, внешний ключ не сломает COPY
+    private static final String LOCK_OWNERS_SQL = "SELECT ID FROM ULAB_EDU.PERSON WHERE ID = ANY(?) FOR KEY SHARE";
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    // Колонки title, author - varchar(50)
+    private static final int MAX_STRING_LENGTH = 50;
+    private static final int MAX_REPORTED_REJECTS = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate chunkTransaction;
+    private final SecondLevelCacheInvalidator cacheInvalidator;
+    private final ServiceBackends backends;
+    private final int chunkSize;
+
+    public BookCopyLoaderTemplate(JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  SecondLevelCacheInvalidator cacheInvalidator,
+                                  ServiceBackends backends,
+                                  @Value("${ulab.copy.chunk-size:10000}") int chunkSize) {
+        if (chunkSize <= 0) {throw new IllegalArgumentException("ulab.copy.chunk-size must be positive");}
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.cacheInvalidator = cacheInvalidator;
+        this.backends = backends;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Загружает книги из books по мере чтения: в памяти только текущая пачка.
+     * id книг из источника не используются, userId обязателен.
+     */
+    public BookLoadResult load(Iterator<BookDto> books) {
+        long started = System.nanoTime();
+        SequenceIdAllocator idAllocator = SequenceIdAllocator.of(jdbcTemplate, backends.getWrite(), SequenceIdAllocator.BOOK_TABLE);
+        Rejects rejects = new Rejects();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        long read = 0;
+        long loaded = 0;
+        try {
+            while (books.hasNext()) {
+                BookDto bookDto = books.next();
+                read++;
+                String reason = rejectReason(bookDto);
+                if (Objects.nonNull(reason)) {
+                    rejects.add(read, reason);
+                    continue;
+                }
+                chunk.add(new Row(read, bookDto));
+                if (chunk.size() == chunkSize) {
+                    loaded += copyInTransaction(chunk, idAllocator, rejects);
+                    chunk.clear();
+                    log.info("Loaded books: {} of {}, {} rows/sec", loaded, read, rowsPerSecond(loaded, started));
+                }
+            }
+            loaded += copyInTransaction(chunk, idAllocator, rejects);
+        } catch (RuntimeException e) {
+            log.error("Books load failed, committed before failure: {} of {}", loaded, read);
+            throw e;
+        }
+
+        long elapsedNanos = System.nanoTime() - started;
+        BookLoadResult result = new BookLoadResult(loaded, rejects.count, rejects.withoutOwner, rejects.reasons,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), rowsPerSecond(loaded, started));
+        log.info("Books load finished: loaded {}, rejected {}, without owner {}, {} ms, {} rows/sec",
+                result.getLoaded(), result.getRejected(), result.getWithoutOwner(),
+                result.getElapsedMillis(), result.getRowsPerSecond());
+        return result;
+    }
+
+    /**
+     * Причина отказа или null. Пустая книга не создается, как и в createBooks; остальные проверки -
+     * ограничения колонок book, одна неподходящая строка иначе откатила бы всю пачку COPY.
+     */
+    private static String rejectReason(BookDto bookDto) {
+        if (Objects.isNull(bookDto)) {
+            return "book is empty";
+        }
+        if (Objects.isNull(bookDto.getUserId())) {
+            return "userId is null";
+        }
+        if (Objects.isNull(bookDto.getTitle()) || Objects.isNull(bookDto.getAuthor())) {
+            return "title and author are required";
+        }
+        if (isTooLong(bookDto.getTitle())) {
+            return "title is longer than " + MAX_STRING_LENGTH;
+        }
+        if (isTooLong(bookDto.getAuthor())) {
+            return "author is longer than " + MAX_STRING_LENGTH;
+        }
+        if (bookDto.getPageCount() < Integer.MIN_VALUE || bookDto.getPageCount() > Integer.MAX_VALUE) {
+            return "pageCount is out of integer range";
+        }
+        return null;
+    }
+
+    // varchar(n) в PostgreSQL считает символы, а не UTF-16 char
+    private static boolean isTooLong(String value) {
+        return value.length() > MAX_STRING_LENGTH && value.codePointCount(0, value.length()) > MAX_STRING_LENGTH;
+    }
+
+    private int copyInTransaction(List<Row> chunk, SequenceIdAllocator idAllocator, Rejects rejects) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        Integer copied = chunkTransaction.execute(status -> copy(chunk, idAllocator, rejects));
+        return Objects.requireNonNull(copied);
+    }
+
+    private int copy(List<Row> chunk, SequenceIdAllocator idAllocator, Rejects rejects) {
+        Set<Long> owners = lockOwners(chunk);
+        List<BookDto> owned = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            if (owners.contains(row.book().getUserId())) {
+                owned.add(row.book());
+            } else {
+                rejects.addWithoutOwner(row.number(), row.book().getUserId());
+            }
+        }
+        if (owned.size() < chunk.size()) {
+            log.info("Books without owner skipped: {}", chunk.size() - owned.size());
+        }
+        if (owned.isEmpty()) {
+            return 0;
+        }
+        idAllocator.reserve(owned.size());
+        owned.forEach(bookDto -> bookDto.setId(idAllocator.next()));
+        Long copied = jdbcTemplate.execute((Connection connection) -> copy(connection, owned));
+        // Книги вставлены в обход Hibernate: коллекции книг владельцев вычищаются после коммита пачки
+        cacheInvalidator.booksAdded(owned.stream().map(BookDto::getUserId).distinct().toList());
+        return Math.toIntExact(Objects.requireNonNull(copied));
+    }
+
+    private Set<Long> lockOwners(List<Row> chunk) {
+        Long[] ownerIds = chunk.stream()
+                .map(row -> row.book().getUserId())
+                .distinct()
+                .toArray(Long[]::new);
+        Set<Long> owners = new HashSet<>();
+        jdbcTemplate.query(LOCK_OWNERS_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ownerIds)),
+                resultSet -> {
+                    owners.add(resultSet.getLong(1));
+                });
+        return owners;
+    }
+
+    private static long copy(Connection connection, List<BookDto> bookDtos) throws SQLException {
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+        try {
+            StringBuilder csv = new StringBuilder(COPY_BUFFER_SIZE + 1024);
+            for (BookDto bookDto : bookDtos) {
+                csv.append(bookDto.getId()).append(',')
+                        .append(bookDto.getUserId()).append(',');
+                appendQuoted(csv, bookDto.getTitle()).append(',');
+                appendQuoted(csv, bookDto.getAuthor()).append(',')
+                        .append(bookDto.getPageCount()).append('\n');
+                if (csv.length() >= COPY_BUFFER_SIZE) {
+                    writeToCopy(copyIn, csv);
+                }
+            }
+            writeToCopy(copyIn, csv);
+            return copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    // Строка CSV всегда в кавычках, кавычки внутри удваиваются
+    private static StringBuilder appendQuoted(StringBuilder csv, String value) {
+        csv.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                csv.append('"');
+            }
+            csv.append(c);
+        }
+        return csv.append('"');
+    }
+
+    private static void writeToCopy(CopyIn copyIn, StringBuilder csv) throws SQLException {
+        if (csv.length() == 0) {
+            return;
+        }
+        byte[] bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        csv.setLength(0);
+    }
+
+    private static long rowsPerSecond(long rows, long startedNanos) {
+        long elapsedNanos = Math.max(1, System.nanoTime() - startedNanos);
+        return rows * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    // Книга с номером в источнике, для отчета об отказе
+    private record Row(long number, BookDto book) {
+    }
+
+    // Отброшенные книги: число и первые причины
+    private static final class Rejects {
+        private final List<String> reasons = new ArrayList<>();
+        private long count;
+        private long withoutOwner;
+
+        void add(long number, String reason) {
+            count++;
+            if (reasons.size() < MAX_REPORTED_REJECTS) {
+                reasons.add("book " + number + ": " + reason);
+            }
+        }
+
+        void addWithoutOwner(long number, Long userId) {
+            withoutOwner++;
+            add(number, "user " + userId + " not found");
+        }
+    }
+}
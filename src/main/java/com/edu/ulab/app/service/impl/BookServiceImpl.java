@@ -1,6 +1,7 @@
 package com.edu.ulab.app.service.impl;
 
 import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
 import com.edu.ulab.app.entity.Book;
 import com.edu.ulab.app.entity.Person;
 import com.edu.ulab.app.exception.BadRequestExceptionUpdate;
@@ -9,15 +10,25 @@ import com.edu.ulab.app.mapper.BookMapper;
 import com.edu.ulab.app.repository.BookRepository;
 import com.edu.ulab.app.repository.UserRepository;
 import com.edu.ulab.app.service.BookService;
+import com.edu.ulab.app.storage.Storage;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 
 @Slf4j
 @Service
+@Profile("!" + Storage.PROFILE)
 public class BookServiceImpl implements BookService {
 
     private final BookRepository bookRepository;
@@ -41,61 +52,176 @@ public class BookServiceImpl implements BookService {
         return userRepository.findById(bookDto.getUserId()).orElseThrow(()->new NotFoundException("Users not found"));
     }
 
+    // Владелец уже создан/загружен вызывающим, поэтому берем прокси по id без SELECT
+    public Person getPersonReference (UserDto owner){
+        if (Objects.isNull(owner) || Objects.isNull(owner.getId())){throw new NotFoundException("owner is null");}
+        return userRepository.getReferenceById(owner.getId());
+    }
+
     @Override
     public BookDto createBook(BookDto bookDto) {
         if (Objects.isNull(bookDto)){throw new NotFoundException("bookDto is null");}
         if (bookIsEmpty(bookDto)) {return null;}
+        return saveBook(bookDto, getPersonFromBookDto(bookDto));
+    }
+
+    private BookDto saveBook(BookDto bookDto, Person person) {
         Book book = bookMapper.bookDtoToBook(bookDto);
-        book.setPerson(getPersonFromBookDto(bookDto));
-        log.info("Mapped book: {}", book);
+        book.setPerson(person);
+        log.debug("Mapped book: {}", bookDto);
         Book savedBook = bookRepository.save(book);
-        log.info("Saved book: {}", savedBook);
-        return bookMapper.bookToBookDto(savedBook);
+        log.debug("Saved book: id {}", savedBook.getId());
+        return withUserId(bookMapper.bookToBookDto(savedBook), bookDto.getUserId());
+    }
+
+    // Маппер не заполняет userId: берем его из запроса, а не из прокси владельца, чтобы не загружать его
+    private static BookDto withUserId(BookDto bookDto, Long userId) {
+        if (Objects.nonNull(bookDto)) {
+            bookDto.setUserId(userId);
+        }
+        return bookDto;
+    }
+
+    @Override
+    public List<BookDto> createBooks(List<BookDto> bookDtos) {
+        if (Objects.isNull(bookDtos)){throw new NotFoundException("bookDtos is null");}
+        // Владельца загружаем один раз на userId, а не на каждую книгу
+        Map<Long, Person> persons = new HashMap<>();
+        return saveBooks(bookDtos, bookDto -> persons.computeIfAbsent(bookDto.getUserId(),
+                userId -> getPersonFromBookDto(bookDto)));
+    }
+
+    @Override
+    public List<BookDto> createBooks(UserDto owner, List<BookDto> bookDtos) {
+        if (Objects.isNull(bookDtos)){throw new NotFoundException("bookDtos is null");}
+        Person person = getPersonReference(owner);
+        return saveBooks(bookDtos, bookDto -> {
+            bookDto.setUserId(owner.getId());
+            return person;
+        });
+    }
+
+    private List<BookDto> saveBooks(List<BookDto> bookDtos, Function<BookDto, Person> personResolver) {
+        List<BookDto> booksToSave = bookDtos.stream()
+                .filter(Objects::nonNull)
+                .filter(bookDto -> !bookIsEmpty(bookDto))
+                .toList();
+        List<Book> books = booksToSave.stream()
+                .map(bookDto -> {
+                    Book book = bookMapper.bookDtoToBook(bookDto);
+                    book.setPerson(personResolver.apply(bookDto));
+                    return book;
+                })
+                .toList();
+        // saveAll выполняется в одной транзакции, INSERT'ы уходят пачками (hibernate.jdbc.batch_size)
+        List<Book> savedBooks = bookRepository.saveAll(books);
+        log.debug("Saved books: {}", savedBooks.size());
+        return IntStream.range(0, savedBooks.size())
+                .mapToObj(i -> withUserId(bookMapper.bookToBookDto(savedBooks.get(i)),
+                        booksToSave.get(i).getUserId()))
+                .toList();
     }
 
     @Override
     public BookDto updateBook(BookDto bookDto) {
         if (Objects.isNull(bookDto) || Objects.isNull(bookDto.getId())){
             throw new BadRequestExceptionUpdate(bookDto);}
+        return updateBook(bookDto, () -> getPersonFromBookDto(bookDto));
+    }
 
+    @Override
+    public BookDto updateBook(UserDto owner, BookDto bookDto) {
+        if (Objects.isNull(bookDto) || Objects.isNull(bookDto.getId())){
+            throw new BadRequestExceptionUpdate(bookDto);}
+        Person person = getPersonReference(owner);
+        bookDto.setUserId(owner.getId());
+        return updateBook(bookDto, () -> person);
+    }
+
+    private BookDto updateBook(BookDto bookDto, Supplier<Person> personResolver) {
         if (bookDto.getId()==0) {
             // Если книга пустая и не указан id, то ничего не делаем,
             if (bookIsEmpty(bookDto))  {
-                log.info("Don't update/saved book, book is empty: {}", bookDto);
+                log.debug("Don't update/saved book, book is empty: {}", bookDto);
                 return null;
             }
             // ,иначе (если не пуста) создаем новую книгу
-            return createBook(bookDto);
+            return saveBook(bookDto, personResolver.get());
         }
 
         Book book = bookMapper.bookDtoToBook(bookDto);
-        book.setPerson(getPersonFromBookDto(bookDto));
-        log.info("Mapped book: {}", book);
+        book.setPerson(personResolver.get());
+        log.debug("Mapped book: {}", bookDto);
 
         // Ищем книгу с совпадающими id и userId в БД
-        Book checkBook = bookRepository.findByIdAndPersonId( book.getId(), book.getPerson().getId() );
+        Book checkBook = bookRepository.findByIdAndPersonId( book.getId(), bookDto.getUserId() );
         if (Objects.nonNull(checkBook)) {
             // Удаляем книгу, если новая книга (bookDto) пустая
             if (bookIsEmpty(bookDto))  {
                 bookRepository.deleteById(book.getId());
-                log.info("Book delete: {}", book);
+                log.debug("Book delete: {}", bookDto);
                 return null;
             }
             // иначе обновляем книгу
             Book updatedBook = bookRepository.save(book);
-            log.info("Updated book: {}", updatedBook);
-            return bookMapper.bookToBookDto(updatedBook);
+            log.debug("Updated book: id {}", updatedBook.getId());
+            return withUserId(bookMapper.bookToBookDto(updatedBook), bookDto.getUserId());
         } else {
-            log.info("Book don't update, not found: {}", book);
+            log.debug("Book don't update, not found: {}", bookDto);
             return null;
         }
     }
 
     @Override
+    @Transactional
+    public List<BookDto> updateBooks(UserDto owner, List<BookDto> bookDtos) {
+        if (Objects.isNull(bookDtos)){throw new NotFoundException("bookDtos is null");}
+        Person person = getPersonReference(owner);
+        // Все книги пользователя одним запросом
+        Map<Long, Book> existingBooks = bookRepository.findByPersonId(owner.getId())
+                .stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        BookUpdateDiff diff = BookUpdateDiff.of(owner.getId(), bookDtos, existingBooks.keySet(), this::bookIsEmpty);
+
+        // Изменяем загруженные книги, UPDATE'ы уйдут пачкой при flush
+        diff.getToUpdate().forEach(bookDto -> {
+            Book book = existingBooks.get(bookDto.getId());
+            book.setTitle(bookDto.getTitle());
+            book.setAuthor(bookDto.getAuthor());
+            book.setPageCount(bookDto.getPageCount());
+        });
+
+        // Один DELETE ... WHERE id = ? OR id = ? ...
+        bookRepository.deleteAllInBatch(diff.getToDelete()
+                .stream()
+                .map(bookDto -> existingBooks.get(bookDto.getId()))
+                .toList());
+
+        List<Book> savedBooks = bookRepository.saveAll(diff.getToCreate()
+                .stream()
+                .map(bookDto -> {
+                    Book book = bookMapper.bookDtoToBook(bookDto);
+                    book.setId(null);
+                    book.setPerson(person);
+                    return book;
+                })
+                .toList());
+        for (int i = 0; i < savedBooks.size(); i++) {
+            diff.getToCreate().get(i).setId(savedBooks.get(i).getId());
+        }
+        // Четыре аргумента - массив и упаковка int даже при выключенном debug
+        if (log.isDebugEnabled()) {
+            log.debug("Books of user {}: created {}, updated {}, deleted {}", owner.getId(),
+                    diff.getToCreate().size(), diff.getToUpdate().size(), diff.getToDelete().size());
+        }
+        return diff.getResult();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<BookDto> getBookById(Long id) {
         if (Objects.isNull(id)){throw new NotFoundException("id is null");}
-        List<Book> listBook = bookRepository.findByPersonId(id);
-        return listBook.stream().map(bookMapper::bookToBookDto).toList();
+        return bookRepository.findBookDtosByPersonId(id);
     }
 
     @Override
@@ -0,0 +1,142 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.exception.BadRequestExceptionUpdate;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.service.BookService;
+import com.edu.ulab.app.storage.Storage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+@Slf4j
+@Service
+@Profile(Storage.PROFILE)
+public class BookServiceImplStorage implements BookService {
+
+    private final Storage storage;
+
+    public BookServiceImplStorage(Storage storage) {
+        this.storage = storage;
+    }
+
+    public boolean bookIsEmpty(BookDto bookDto){
+        return bookDto.getTitle() == null && bookDto.getAuthor() == null && bookDto.getPageCount() == 0;
+    }
+
+    private static Long ownerId(UserDto owner) {
+        if (Objects.isNull(owner) || Objects.isNull(owner.getId())){throw new NotFoundException("owner is null");}
+        return owner.getId();
+    }
+
+    @Override
+    public BookDto createBook(BookDto bookDto) {
+        if (Objects.isNull(bookDto)){throw new NotFoundException("bookDto is null");}
+        if (bookIsEmpty(bookDto)) {return null;}
+        if (Objects.isNull(bookDto.getUserId())){throw new NotFoundException("Users not found");}
+        BookDto savedBook = storage.createBooks(bookDto.getUserId(), List.of(bookDto)).get(0);
+        log.debug("Saved book: id {}", savedBook.getId());
+        return savedBook;
+    }
+
+    @Override
+    public List<BookDto> createBooks(List<BookDto> bookDtos) {
+        if (Objects.isNull(bookDtos)){throw new NotFoundException("bookDtos is null");}
+        // Книги группируются по владельцу: одна блокировка на владельца, а не на книгу
+        Map<Long, List<BookDto>> booksByOwner = new LinkedHashMap<>();
+        for (BookDto bookDto : bookDtos) {
+            if (Objects.isNull(bookDto) || bookIsEmpty(bookDto)) {continue;}
+            if (Objects.isNull(bookDto.getUserId())){throw new NotFoundException("Users not found");}
+            booksByOwner.computeIfAbsent(bookDto.getUserId(), userId -> new ArrayList<>()).add(bookDto);
+        }
+        List<BookDto> savedBooks = new ArrayList<>();
+        booksByOwner.forEach((userId, books) -> savedBooks.addAll(storage.createBooks(userId, books)));
+        log.debug("Saved books: {}", savedBooks.size());
+        return savedBooks;
+    }
+
+    @Override
+    public List<BookDto> createBooks(UserDto owner, List<BookDto> bookDtos) {
+        if (Objects.isNull(bookDtos)){throw new NotFoundException("bookDtos is null");}
+        List<BookDto> savedBooks = storage.createBooks(ownerId(owner), bookDtos.stream()
+                .filter(Objects::nonNull)
+                .filter(bookDto -> !bookIsEmpty(bookDto))
+                .toList());
+        log.debug("Saved books: {}", savedBooks.size());
+        return savedBooks;
+    }
+
+    @Override
+    public BookDto updateBook(BookDto bookDto) {
+        if (Objects.isNull(bookDto) || Objects.isNull(bookDto.getId())){
+            throw new BadRequestExceptionUpdate(bookDto);}
+        if (Objects.isNull(bookDto.getUserId())){throw new NotFoundException("Users not found");}
+        storage.findPerson(bookDto.getUserId()).orElseThrow(() -> new NotFoundException("Users not found"));
+        return updateBook(bookDto.getUserId(), bookDto);
+    }
+
+    @Override
+    public BookDto updateBook(UserDto owner, BookDto bookDto) {
+        if (Objects.isNull(bookDto) || Objects.isNull(bookDto.getId())){
+            throw new BadRequestExceptionUpdate(bookDto);}
+        bookDto.setUserId(ownerId(owner));
+        return updateBook(owner.getId(), bookDto);
+    }
+
+    private BookDto updateBook(Long userId, BookDto bookDto) {
+        if (bookDto.getId()==0) {
+            // Если книга пустая и не указан id, то ничего не делаем,
+            if (bookIsEmpty(bookDto))  {
+                log.debug("Don't update/saved book, book is empty: {}", bookDto);
+                return null;
+            }
+            // ,иначе (если не пуста) создаем новую книгу
+            return storage.createBooks(userId, List.of(bookDto)).get(0);
+        }
+        // Удаляем книгу, если новая книга (bookDto) пустая, иначе обновляем
+        if (bookIsEmpty(bookDto)) {
+            if (storage.deleteBook(userId, bookDto.getId())) {
+                log.debug("Book delete: {}", bookDto);
+                return null;
+            }
+        } else if (storage.updateBook(userId, bookDto)) {
+            log.debug("Updated book: id {}", bookDto.getId());
+            return bookDto;
+        }
+        log.debug("Book don't update, not found: {}", bookDto);
+        return null;
+    }
+
+    @Override
+    public List<BookDto> updateBooks(UserDto owner, List<BookDto> bookDtos) {
+        if (Objects.isNull(bookDtos)){throw new NotFoundException("bookDtos is null");}
+        Long userId = ownerId(owner);
+        BookUpdateDiff diff = BookUpdateDiff.of(userId, bookDtos,
+                bookId -> storage.containsBook(userId, bookId), this::bookIsEmpty);
+        storage.applyBooks(userId, diff.getToCreate(), diff.getToUpdate(), diff.getToDelete());
+        if (log.isDebugEnabled()) {
+            log.debug("Books of user {}: created {}, updated {}, deleted {}", userId,
+                    diff.getToCreate().size(), diff.getToUpdate().size(), diff.getToDelete().size());
+        }
+        return diff.getResult();
+    }
+
+    @Override
+    public List<BookDto> getBookById(Long id) {
+        if (Objects.isNull(id)){throw new NotFoundException("id is null");}
+        return storage.findBooks(id);
+    }
+
+    @Override
+    public void deleteBookById(Long id) {
+        if (Objects.isNull(id)){throw new NotFoundException("id is null");}
+        storage.deleteBooks(id);
+    }
+}
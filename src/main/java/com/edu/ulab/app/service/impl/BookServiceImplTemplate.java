@@ -2,39 +2,52 @@ package com.edu.ulab.app.service.impl;
 
 import com.edu.ulab.app.dto.BookDto;
 import com.edu.ulab.app.dto.UserDto;
-import com.edu.ulab.app.entity.Book;
 import com.edu.ulab.app.entity.Person;
 import com.edu.ulab.app.exception.BadRequestExceptionUpdate;
 import com.edu.ulab.app.exception.NotFoundException;
 import com.edu.ulab.app.mapper.UserMapper;
 import com.edu.ulab.app.service.BookService;
+import com.edu.ulab.app.storage.Storage;
 import com.edu.ulab.app.mapper.BookMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
+@Profile("!" + Storage.PROFILE)
 public class BookServiceImplTemplate implements BookService {
 
     private final JdbcTemplate jdbcTemplate;
     private final BookMapper bookMapper;
     private final UserMapper userMapper;
     private final UserServiceImplTemplate userServiceImplTemplate;
+    // Запись идет в обход Hibernate: кэш второго уровня для чтения через JPA чистится здесь же
+    private final SecondLevelCacheInvalidator cacheInvalidator;
 
     public BookServiceImplTemplate(JdbcTemplate jdbcTemplate, BookMapper bookMapper, UserMapper userMapper,
-                                   UserServiceImplTemplate userServiceImplTemplate) {
+                                   UserServiceImplTemplate userServiceImplTemplate,
+                                   SecondLevelCacheInvalidator cacheInvalidator) {
         this.jdbcTemplate = jdbcTemplate;
         this.bookMapper = bookMapper;
         this.userMapper=userMapper;
         this.userServiceImplTemplate=userServiceImplTemplate;
+        this.cacheInvalidator = cacheInvalidator;
     }
     public boolean bookIsEmpty (BookDto bookDto){
         return  bookDto.getTitle() == null && bookDto.getAuthor() == null && bookDto.getPageCount() == 0;
@@ -44,13 +57,14 @@ public class BookServiceImplTemplate implements BookService {
                 userServiceImplTemplate.getUserById( bookDto.getUserId() ));
     }
 
-    private Book mapRowToBook(ResultSet resultSet, int rowNum) throws SQLException {
-        Book book = new Book();
-        book.setId(resultSet.getLong("ID"));
-        book.setTitle(resultSet.getString("TITLE"));
-        book.setAuthor(resultSet.getString("AUTHOR"));
-        book.setPageCount(resultSet.getLong("PAGE_COUNT"));
-        return book;
+    // Строка сразу в DTO, без промежуточной сущности
+    private BookDto mapRowToBookDto(ResultSet resultSet, int rowNum) throws SQLException {
+        return new BookDto(
+                resultSet.getLong("ID"),
+                resultSet.getLong("PERSON_ID"),
+                resultSet.getString("TITLE"),
+                resultSet.getString("AUTHOR"),
+                resultSet.getLong("PAGE_COUNT"));
     }
 
     @Override
@@ -71,77 +85,188 @@ public class BookServiceImplTemplate implements BookService {
                 },
                 keyHolder);
         bookDto.setId(Objects.requireNonNull(keyHolder.getKey()).longValue());
-        log.info("Saved book: {}", bookDto);
+        cacheInvalidator.booksChanged(bookDto.getUserId(), List.of(bookDto.getId()));
+        log.debug("Saved book: {}", bookDto);
         return bookDto;
     }
 
+    @Override
+    public List<BookDto> createBooks(List<BookDto> bookDtos) {
+        if (Objects.isNull(bookDtos)){throw new NotFoundException("bookDtos is null");}
+        List<BookDto> books = bookDtos.stream()
+                .filter(Objects::nonNull)
+                .filter(bookDto -> !bookIsEmpty(bookDto))
+                .toList();
+        if (books.isEmpty()) {return books;}
+        final String INSERT_SQL = "INSERT INTO ULAB_EDU.BOOK(TITLE, AUTHOR, PAGE_COUNT, PERSON_ID) VALUES (?,?,?,?)";
+        // Все книги уходят одним batch'ем, id забираем из getGeneratedKeys в порядке вставки
+        jdbcTemplate.execute(
+                (Connection connection) -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                (PreparedStatement ps) -> {
+                    for (BookDto bookDto : books) {
+                        ps.setString(1, bookDto.getTitle());
+                        ps.setString(2, bookDto.getAuthor());
+                        ps.setLong(3, bookDto.getPageCount());
+                        ps.setLong(4, bookDto.getUserId());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        for (BookDto bookDto : books) {
+                            if (!keys.next()) {
+                                throw new IllegalStateException("Generated keys count less than books count");
+                            }
+                            bookDto.setId(keys.getLong(1));
+                        }
+                    }
+                    return null;
+                });
+        books.stream()
+                .collect(Collectors.groupingBy(BookDto::getUserId,
+                        Collectors.mapping(BookDto::getId, Collectors.toList())))
+                .forEach(cacheInvalidator::booksChanged);
+        log.debug("Saved books: {}", books.size());
+        return books;
+    }
+
+    @Override
+    public List<BookDto> createBooks(UserDto owner, List<BookDto> bookDtos) {
+        if (Objects.isNull(owner) || Objects.isNull(owner.getId())){throw new NotFoundException("owner is null");}
+        if (Objects.isNull(bookDtos)){throw new NotFoundException("bookDtos is null");}
+        bookDtos.stream()
+                .filter(Objects::nonNull)
+                .forEach(bookDto -> bookDto.setUserId(owner.getId()));
+        return createBooks(bookDtos);
+    }
+
     @Override
     public BookDto updateBook(BookDto bookDto) {
         if (Objects.isNull(bookDto) || Objects.isNull(bookDto.getId())){
             throw new BadRequestExceptionUpdate(bookDto);
         }
+        return updateBook(bookDto, () -> getPersonFromBookDto(bookDto).getId());
+    }
+
+    @Override
+    public BookDto updateBook(UserDto owner, BookDto bookDto) {
+        if (Objects.isNull(bookDto) || Objects.isNull(bookDto.getId())){
+            throw new BadRequestExceptionUpdate(bookDto);
+        }
+        if (Objects.isNull(owner) || Objects.isNull(owner.getId())){throw new NotFoundException("owner is null");}
+        // Владелец уже загружен вызывающим, для SQL достаточно его id
+        bookDto.setUserId(owner.getId());
+        return updateBook(bookDto, owner::getId);
+    }
+
+    private BookDto updateBook(BookDto bookDto, Supplier<Long> personIdResolver) {
         // Если книга не имеет id,
         if (bookDto.getId()==0) {
             //, и она пустая, то ничего не делаем
             if (bookIsEmpty(bookDto)) {
-                log.info("Don't update/saved/delete book, book is empty and not id: {}", bookDto);
+                log.debug("Don't update/saved/delete book, book is empty and not id: {}", bookDto);
                 return null;
             }
             //, и она не пустая, создаем новую книгу
             return createBook(bookDto);
         }
 
-        Book book = bookMapper.bookDtoToBook(bookDto);
-        book.setPerson(getPersonFromBookDto(bookDto));
-        log.info("Mapped book: {}", book);
+        Long personId = personIdResolver.get();
+        log.debug("Mapped book: {}", bookDto);
 
         // Если книга пустая и имеет id, пытаемся удалить книгу из бд
         if (bookIsEmpty(bookDto)){
             final String DELETE_SQL = "DELETE FROM ULAB_EDU.BOOK WHERE ID=? AND PERSON_ID=?";
             int check = jdbcTemplate.update(DELETE_SQL,
-                    book.getId(),
-                    book.getPerson().getId());
+                    bookDto.getId(),
+                    personId);
             if (check==0){
-                log.info("Book don't delete, not found: {}", book);
+                log.debug("Book don't delete, not found: {}", bookDto);
                 return null;
             }
-            log.info("Book delete: {}", book);
+            cacheInvalidator.booksChanged(personId, List.of(bookDto.getId()));
+            log.debug("Book delete: {}", bookDto);
             return null;
         }
 
         // Обновляем книгу
         final String UPDATE_SQL = "UPDATE ULAB_EDU.BOOK SET TITLE=?, AUTHOR=?, PAGE_COUNT=?, PERSON_ID=? WHERE ID=? AND PERSON_ID=?";
         int check = jdbcTemplate.update(UPDATE_SQL,
-                book.getTitle(),
-                book.getAuthor(),
-                book.getPageCount(),
-                book.getPerson().getId(),
-                book.getId(),
-                book.getPerson().getId());
+                bookDto.getTitle(),
+                bookDto.getAuthor(),
+                bookDto.getPageCount(),
+                personId,
+                bookDto.getId(),
+                personId);
         // Проверка, изменили ли мы книгу в бд
         if (check==0){
-            log.info("Book don't update, not found: {}", book);
+            log.debug("Book don't update, not found: {}", bookDto);
             return null;
         }
-        log.info("Updated book: {}", book);
-        return bookMapper.bookToBookDto(book);
+        cacheInvalidator.booksChanged(personId, List.of(bookDto.getId()));
+        log.debug("Updated book: {}", bookDto);
+        return bookDto;
+    }
+
+    @Override
+    @Transactional
+    public List<BookDto> updateBooks(UserDto owner, List<BookDto> bookDtos) {
+        if (Objects.isNull(owner) || Objects.isNull(owner.getId())){throw new NotFoundException("owner is null");}
+        if (Objects.isNull(bookDtos)){throw new NotFoundException("bookDtos is null");}
+        // id всех книг пользователя одним запросом
+        final String GET_IDS_SQL = "SELECT ID FROM ULAB_EDU.BOOK WHERE PERSON_ID=?";
+        Set<Long> existingIds = new HashSet<>(jdbcTemplate.queryForList(GET_IDS_SQL, Long.class, owner.getId()));
+        BookUpdateDiff diff = BookUpdateDiff.of(owner.getId(), bookDtos, existingIds, this::bookIsEmpty);
+
+        if (!diff.getToUpdate().isEmpty()) {
+            final String UPDATE_SQL = "UPDATE ULAB_EDU.BOOK SET TITLE=?, AUTHOR=?, PAGE_COUNT=? WHERE ID=? AND PERSON_ID=?";
+            jdbcTemplate.batchUpdate(UPDATE_SQL, diff.getToUpdate(), diff.getToUpdate().size(),
+                    (ps, bookDto) -> {
+                        ps.setString(1, bookDto.getTitle());
+                        ps.setString(2, bookDto.getAuthor());
+                        ps.setLong(3, bookDto.getPageCount());
+                        ps.setLong(4, bookDto.getId());
+                        ps.setLong(5, bookDto.getUserId());
+                    });
+        }
+        if (!diff.getToDelete().isEmpty()) {
+            final String DELETE_SQL = "DELETE FROM ULAB_EDU.BOOK WHERE ID=? AND PERSON_ID=?";
+            jdbcTemplate.batchUpdate(DELETE_SQL, diff.getToDelete(), diff.getToDelete().size(),
+                    (ps, bookDto) -> {
+                        ps.setLong(1, bookDto.getId());
+                        ps.setLong(2, bookDto.getUserId());
+                    });
+        }
+        createBooks(diff.getToCreate());
+        if (!diff.getToUpdate().isEmpty() || !diff.getToDelete().isEmpty()) {
+            cacheInvalidator.booksChanged(owner.getId(),
+                    Stream.concat(diff.getToUpdate().stream(), diff.getToDelete().stream())
+                            .map(BookDto::getId)
+                            .toList());
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Books of user {}: created {}, updated {}, deleted {}", owner.getId(),
+                    diff.getToCreate().size(), diff.getToUpdate().size(), diff.getToDelete().size());
+        }
+        return diff.getResult();
     }
 
     @Override
     public List<BookDto> getBookById(Long id) {
         if (Objects.isNull(id)){throw new NotFoundException("id is null");}
-        final String GET_SQL = "SELECT * FROM ULAB_EDU.BOOK WHERE PERSON_ID=?";
-        List<Book> listBook = jdbcTemplate.query(
+        final String GET_SQL = "SELECT ID, PERSON_ID, TITLE, AUTHOR, PAGE_COUNT FROM ULAB_EDU.BOOK " +
+                "WHERE PERSON_ID=? ORDER BY ID";
+        return jdbcTemplate.query(
                 GET_SQL,
-                this::mapRowToBook,
+                this::mapRowToBookDto,
                 id);
-        return listBook.stream().map(bookMapper::bookToBookDto).toList();
     }
 
     @Override
     public void deleteBookById(Long id) {
         if (Objects.isNull(id)){throw new NotFoundException("id is null");}
-        final String DELETE_SQL = "DELETE FROM ULAB_EDU.BOOK WHERE PERSON_ID=?";
-        jdbcTemplate.update(DELETE_SQL,id);
+        // id удаленных книг тем же запросом: по ним книги уходят из кэша второго уровня
+        final String DELETE_SQL = "DELETE FROM ULAB_EDU.BOOK WHERE PERSON_ID=? RETURNING ID";
+        List<Long> deletedIds = jdbcTemplate.queryForList(DELETE_SQL, Long.class, id);
+        cacheInvalidator.booksChanged(id, deletedIds);
     }
 }
@@ -0,0 +1,67 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.service.BookService;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * {@link BookService} для фасада: чтение и запись уходят в реализации, выбранные {@link ServiceBackends}.
+ */
+@Service
+@Primary
+public class BookServiceRouting implements BookService {
+
+    private final ServiceBackends backends;
+
+    public BookServiceRouting(ServiceBackends backends) {
+        this.backends = backends;
+    }
+
+    @Override
+    public BookDto createBook(BookDto bookDto) {
+        return backends.timedWrite("book.create", () -> backends.bookWriter().createBook(bookDto));
+    }
+
+    @Override
+    public List<BookDto> createBooks(List<BookDto> bookDtos) {
+        return backends.timedWrite("book.createAll",
+                () -> backends.bookWriter().createBooks(bookDtos));
+    }
+
+    @Override
+    public List<BookDto> createBooks(UserDto owner, List<BookDto> bookDtos) {
+        return backends.timedWrite("book.createAll",
+                () -> backends.bookWriter().createBooks(owner, bookDtos));
+    }
+
+    @Override
+    public BookDto updateBook(BookDto bookDto) {
+        return backends.timedWrite("book.update", () -> backends.bookWriter().updateBook(bookDto));
+    }
+
+    @Override
+    public BookDto updateBook(UserDto owner, BookDto bookDto) {
+        return backends.timedWrite("book.update",
+                () -> backends.bookWriter().updateBook(owner, bookDto));
+    }
+
+    @Override
+    public List<BookDto> updateBooks(UserDto owner, List<BookDto> bookDtos) {
+        return backends.timedWrite("book.updateAll",
+                () -> backends.bookWriter().updateBooks(owner, bookDtos));
+    }
+
+    @Override
+    public List<BookDto> getBookById(Long id) {
+        return backends.timedRead("book.getByUser", () -> backends.bookReader().getBookById(id));
+    }
+
+    @Override
+    public void deleteBookById(Long id) {
+        backends.runWrite("book.deleteByUser", () -> backends.bookWriter().deleteBookById(id));
+    }
+}
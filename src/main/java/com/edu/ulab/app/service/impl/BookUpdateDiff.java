@@ -0,0 +1,68 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.exception.BadRequestExceptionUpdate;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Разбор книг из запроса на обновление относительно книг пользователя, уже лежащих в БД.
+ * Правила те же, что и у {@code updateBook}: id == 0 - создание (пустая книга пропускается),
+ * пустая книга с id - удаление, иначе обновление. Книги с чужим или несуществующим id пропускаются.
+ * Один id дважды в запросе - ошибка: книга попала бы и в обновление, и в удаление.
+ */
+@Slf4j
+@Getter
+class BookUpdateDiff {
+    private final List<BookDto> toCreate = new ArrayList<>();
+    private final List<BookDto> toUpdate = new ArrayList<>();
+    private final List<BookDto> toDelete = new ArrayList<>();
+    // Созданные и обновленные книги в порядке запроса, id созданных проставляются после вставки
+    private final List<BookDto> result = new ArrayList<>();
+
+    static BookUpdateDiff of(Long userId, List<BookDto> bookDtos, Collection<Long> existingIds,
+                             Predicate<BookDto> bookIsEmpty) {
+        return of(userId, bookDtos, existingIds::contains, bookIsEmpty);
+    }
+
+    // Проверка существования книги без коллекции id, например по индексу хранилища
+    static BookUpdateDiff of(Long userId, List<BookDto> bookDtos, LongPredicate bookExists,
+                             Predicate<BookDto> bookIsEmpty) {
+        BookUpdateDiff diff = new BookUpdateDiff();
+        Set<Long> seenIds = new HashSet<>();
+        for (BookDto bookDto : bookDtos) {
+            if (Objects.isNull(bookDto)) {continue;}
+            if (Objects.isNull(bookDto.getId())) {throw new BadRequestExceptionUpdate(bookDto);}
+            if (bookDto.getId() != 0 && !seenIds.add(bookDto.getId())) {
+                throw new BadRequestExceptionUpdate(bookDto.getId());
+            }
+            bookDto.setUserId(userId);
+            boolean empty = bookIsEmpty.test(bookDto);
+            if (bookDto.getId() == 0) {
+                if (empty) {
+                    log.debug("Don't update/saved book, book is empty: {}", bookDto);
+                    continue;
+                }
+                diff.toCreate.add(bookDto);
+                diff.result.add(bookDto);
+            } else if (!bookExists.test(bookDto.getId())) {
+                log.debug("Book don't update, not found: {}", bookDto);
+            } else if (empty) {
+                diff.toDelete.add(bookDto);
+            } else {
+                diff.toUpdate.add(bookDto);
+                diff.result.add(bookDto);
+            }
+        }
+        return diff;
+    }
+}
@@ -0,0 +1,112 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.storage.Storage;
+import org.hibernate.StatelessSession;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Инвалидация кэша второго уровня Hibernate после записи через JdbcTemplate или COPY в обход Hibernate.
+ * Как и Hibernate для своих изменений: метки таблиц кэша запросов сдвигаются в будущее сразу (preInvalidate),
+ * пока транзакция не завершена, результаты запросов по этим таблицам не кэшируются; после завершения
+ * транзакции метки ставятся заново, а записи сущностей удаляются повторно - параллельное чтение могло положить
+ * в кэш еще не закоммиченное состояние.
+ */
+@Component
+@Profile("!" + Storage.PROFILE)
+public class SecondLevelCacheInvalidator {
+    private static final String BOOK_SET_ROLE = Person.class.getName() + ".bookSet";
+
+    private final SessionFactoryImplementor sessionFactory;
+    private final Serializable[] bookSpaces;
+    private final Serializable[] personAndBookSpaces;
+
+    public SecondLevelCacheInvalidator(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        Serializable[] personSpaces = sessionFactory.getMetamodel().entityPersister(Person.class).getQuerySpaces();
+        this.bookSpaces = sessionFactory.getMetamodel().entityPersister(Book.class).getQuerySpaces();
+        this.personAndBookSpaces = Stream.concat(Stream.of(personSpaces), Stream.of(bookSpaces))
+                .toArray(Serializable[]::new);
+    }
+
+    // Изменена строка person; удаление пользователя каскадом удаляет и его книги
+    public void personChanged(Long personId) {
+        invalidate(personAndBookSpaces, () -> {
+            if (Objects.nonNull(personId)) {
+                sessionFactory.getCache().evictEntityData(Person.class, personId);
+                sessionFactory.getCache().evictCollectionData(BOOK_SET_ROLE, personId);
+            }
+        });
+    }
+
+    // Изменены книги одного владельца: из кэша уходят только они и коллекция книг владельца
+    public void booksChanged(Long personId, Collection<Long> bookIds) {
+        invalidate(bookSpaces, () -> {
+            if (Objects.nonNull(personId)) {
+                sessionFactory.getCache().evictCollectionData(BOOK_SET_ROLE, personId);
+            }
+            bookIds.stream()
+                    .filter(Objects::nonNull)
+                    .forEach(bookId -> sessionFactory.getCache().evictEntityData(Book.class, bookId));
+        });
+    }
+
+    // Добавлены пользователи с книгами (пакетная вставка): новых id в кэше нет, устаревают только запросы
+    public void personsAdded(Collection<Long> personIds) {
+        invalidate(personAndBookSpaces, () -> evictBookSets(personIds));
+    }
+
+    // Добавлены книги нескольких владельцев (COPY): новых id в кэше нет, устаревают коллекции и запросы
+    public void booksAdded(Collection<Long> personIds) {
+        invalidate(bookSpaces, () -> evictBookSets(personIds));
+    }
+
+    private void evictBookSets(Collection<Long> personIds) {
+        personIds.forEach(personId -> sessionFactory.getCache().evictCollectionData(BOOK_SET_ROLE, personId));
+    }
+
+    private void invalidate(Serializable[] spaces, Runnable eviction) {
+        timestamps(spaces, TimestampsCache::preInvalidate);
+        eviction.run();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            timestamps(spaces, TimestampsCache::invalidate);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                eviction.run();
+                timestamps(spaces, TimestampsCache::invalidate);
+            }
+        });
+    }
+
+    private void timestamps(Serializable[] spaces, TimestampsCacheCall call) {
+        if (!sessionFactory.getSessionFactoryOptions().isQueryCacheEnabled()) {
+            return;
+        }
+        // Соединение сессии не открывается: TimestampsCache берет из нее только фабрику и слушателей событий
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            call.apply(sessionFactory.getCache().getTimestampsCache(), spaces,
+                    (SharedSessionContractImplementor) session);
+        }
+    }
+
+    @FunctionalInterface
+    private interface TimestampsCacheCall {
+        void apply(TimestampsCache cache, Serializable[] spaces, SharedSessionContractImplementor session);
+    }
+}
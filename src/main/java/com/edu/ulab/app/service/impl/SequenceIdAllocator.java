@@ -0,0 +1,94 @@
+package com.edu.ulab.app.service.impl;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Objects;
+
+/**
+ * Выдача id пакетной вставке заранее, одним запросом к sequence на пачку. Источник id должен совпадать
+ * с реализацией записи ({@code ulab.backend.write}), иначе id пакетной вставки и обычного создания пересекутся:
+ * <ul>
+ * <li>jpa - {@code sequence} так же, как это делает Hibernate для сущностей (legacy hilo, allocationSize = 100):
+ * значение sequence n дает id {@code [n * 100, n * 100 + 99]};</li>
+ * <li>template - sequence колонки id (bigserial) своей таблицы, значение sequence и есть id.</li>
+ * </ul>
+ * Один объект на одну таблицу одного импорта, не потокобезопасен.
+ */
+public class SequenceIdAllocator {
+    public static final int BLOCK_SIZE = 100;
+    public static final String PERSON_TABLE = "ulab_edu.person";
+    public static final String BOOK_TABLE = "ulab_edu.book";
+
+    private static final String NEXT_BLOCKS_SQL = "SELECT NEXTVAL('sequence') FROM GENERATE_SERIES(1, ?)";
+    private static final String NEXT_SERIAL_IDS_SQL =
+            "SELECT NEXTVAL(PG_GET_SERIAL_SEQUENCE(?, 'id')) FROM GENERATE_SERIES(1, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    // null - hilo по sequence, иначе таблица с колонкой id bigserial
+    private final String serialTable;
+    private final int blockSize;
+    // Полученные, но еще не выданные блоки
+    private long[] blocks = new long[0];
+    private int block;
+    private long next;
+    private long blockEnd;
+
+    SequenceIdAllocator(JdbcTemplate jdbcTemplate) {
+        this(jdbcTemplate, null, BLOCK_SIZE);
+    }
+
+    private SequenceIdAllocator(JdbcTemplate jdbcTemplate, String serialTable, int blockSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.serialTable = serialTable;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Id для строк table тем же способом, что и у реализации записи backend.
+     */
+    public static SequenceIdAllocator of(JdbcTemplate jdbcTemplate, ServiceBackend backend, String table) {
+        return switch (backend) {
+            case JPA -> new SequenceIdAllocator(jdbcTemplate);
+            case TEMPLATE -> new SequenceIdAllocator(jdbcTemplate, table, 1);
+            case STORAGE -> throw new IllegalArgumentException("Storage backend has no database sequence");
+        };
+    }
+
+    /**
+     * Заранее получает блоки под count id одним запросом к sequence.
+     */
+    public void reserve(int count) {
+        long available = blockEnd - next + (long) (blocks.length - block) * blockSize;
+        if (available >= count) {
+            return;
+        }
+        int missing = Math.toIntExact((count - available + blockSize - 1) / blockSize);
+        long[] fetched = (Objects.isNull(serialTable)
+                ? jdbcTemplate.queryForList(NEXT_BLOCKS_SQL, Long.class, missing)
+                : jdbcTemplate.queryForList(NEXT_SERIAL_IDS_SQL, Long.class, serialTable, missing))
+                .stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+        long[] merged = new long[blocks.length - block + fetched.length];
+        System.arraycopy(blocks, block, merged, 0, blocks.length - block);
+        System.arraycopy(fetched, 0, merged, blocks.length - block, fetched.length);
+        blocks = merged;
+        block = 0;
+    }
+
+    public long next() {
+        if (next == blockEnd) {
+            if (block == blocks.length) {
+                reserve(1);
+            }
+            long hi = blocks[block++];
+            next = hi * blockSize;
+            blockEnd = next + blockSize;
+            // Как и в Hibernate, id 0 не выдается (значение bigserial нулем не бывает)
+            if (next == 0) {
+                next = 1;
+            }
+        }
+        return next++;
+    }
+}
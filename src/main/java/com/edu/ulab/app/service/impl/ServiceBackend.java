@@ -0,0 +1,38 @@
+package com.edu.ulab.app.service.impl;
+
+import java.util.Locale;
+
+/**
+ * Реализации {@link com.edu.ulab.app.service.UserService}/{@link com.edu.ulab.app.service.BookService}
+ * и имена их бинов. Выбираются свойствами {@code ulab.backend.read} и {@code ulab.backend.write}.
+ */
+public enum ServiceBackend {
+    JPA("userServiceImpl", "bookServiceImpl"),
+    TEMPLATE("userServiceImplTemplate", "bookServiceImplTemplate"),
+    STORAGE("userServiceImplStorage", "bookServiceImplStorage");
+
+    private final String userServiceBean;
+    private final String bookServiceBean;
+
+    ServiceBackend(String userServiceBean, String bookServiceBean) {
+        this.userServiceBean = userServiceBean;
+        this.bookServiceBean = bookServiceBean;
+    }
+
+    public String getUserServiceBean() {
+        return userServiceBean;
+    }
+
+    public String getBookServiceBean() {
+        return bookServiceBean;
+    }
+
+    // Значение тега метрик и свойства: jpa, template, storage
+    public String tag() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static ServiceBackend of(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+}
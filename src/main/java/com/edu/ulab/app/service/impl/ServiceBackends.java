@@ -0,0 +1,121 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.service.BookService;
+import com.edu.ulab.app.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Выбор реализаций сервисов для чтения и записи по свойствам {@code ulab.backend.read}/{@code ulab.backend.write}
+ * (jpa, template, storage) и замер времени вызовов по каждой реализации: таймер {@code ulab.backend.calls}
+ * с тегами backend и operation, счетчик ошибок {@code ulab.backend.errors} с теми же тегами и exception.
+ * Кэш второго уровня при записи в обход Hibernate чистят сами реализации JdbcTemplate
+ * ({@link SecondLevelCacheInvalidator}): после коммита и только по затронутому пользователю.
+ */
+@Slf4j
+@Component
+public class ServiceBackends {
+    private final ServiceBackend read;
+    private final ServiceBackend write;
+    private final UserService userReader;
+    private final UserService userWriter;
+    private final BookService bookReader;
+    private final BookService bookWriter;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public ServiceBackends(@Value("${ulab.backend.read:jpa}") String read,
+                           @Value("${ulab.backend.write:jpa}") String write,
+                           BeanFactory beanFactory,
+                           MeterRegistry meterRegistry) {
+        this.read = ServiceBackend.of(read);
+        this.write = ServiceBackend.of(write);
+        if ((this.read == ServiceBackend.STORAGE) != (this.write == ServiceBackend.STORAGE)) {
+            throw new IllegalStateException("Storage backend can not be mixed with database backends: read "
+                    + read + ", write " + write);
+        }
+        this.userReader = bean(beanFactory, this.read, this.read.getUserServiceBean(), UserService.class);
+        this.userWriter = bean(beanFactory, this.write, this.write.getUserServiceBean(), UserService.class);
+        this.bookReader = bean(beanFactory, this.read, this.read.getBookServiceBean(), BookService.class);
+        this.bookWriter = bean(beanFactory, this.write, this.write.getBookServiceBean(), BookService.class);
+        this.meterRegistry = meterRegistry;
+        log.info("Service backends: read {}, write {}", this.read.tag(), this.write.tag());
+    }
+
+    private static <T> T bean(BeanFactory beanFactory, ServiceBackend backend, String name, Class<T> type) {
+        try {
+            return beanFactory.getBean(name, type);
+        } catch (BeansException e) {
+            throw new IllegalStateException("Backend " + backend.tag() + " is not available in active profiles", e);
+        }
+    }
+
+    public UserService userReader() {
+        return userReader;
+    }
+
+    public UserService userWriter() {
+        return userWriter;
+    }
+
+    public BookService bookReader() {
+        return bookReader;
+    }
+
+    public BookService bookWriter() {
+        return bookWriter;
+    }
+
+    public ServiceBackend getRead() {
+        return read;
+    }
+
+    public ServiceBackend getWrite() {
+        return write;
+    }
+
+    public <T> T timedRead(String operation, Supplier<T> call) {
+        return timed(read, operation, call);
+    }
+
+    public <T> T timedWrite(String operation, Supplier<T> call) {
+        return timed(write, operation, call);
+    }
+
+    public void runWrite(String operation, Runnable call) {
+        timed(write, operation, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    private <T> T timed(ServiceBackend backend, String operation, Supplier<T> call) {
+        Timer timer = timer(backend, operation);
+        try {
+            return timer.record(call);
+        } catch (RuntimeException e) {
+            meterRegistry.counter("ulab.backend.errors",
+                    "backend", backend.tag(),
+                    "operation", operation,
+                    "exception", e.getClass().getSimpleName()).increment();
+            throw e;
+        }
+    }
+
+    private Timer timer(ServiceBackend backend, String operation) {
+        return timers.computeIfAbsent(backend.tag() + ':' + operation, key -> Timer.builder("ulab.backend.calls")
+                .description("Service calls by backend")
+                .tag("backend", backend.tag())
+                .tag("operation", operation)
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,97 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.storage.Storage;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * Выгрузка всех пользователей с книгами в NDJSON: одна строка - один пользователь в формате
+ * {@link com.edu.ulab.app.web.response.UserBookResponse}.
+ * <p>
+ * Строки читаются курсором по {@code ulab.export.fetch-size} и пишутся в out сразу,
+ * книги собираются под пользователем по ходу чтения (сортировка по id пользователя),
+ * поэтому память не зависит от размера таблиц.
+ */
+@Slf4j
+@Service
+@Profile("!" + Storage.PROFILE)
+public class UserBookExportTemplate {
+    private static final String EXPORT_SQL = "SELECT P.ID, P.FULL_NAME, P.TITLE, P.AGE, " +
+            "B.ID AS BOOK_ID, B.TITLE AS BOOK_TITLE, B.AUTHOR, B.PAGE_COUNT " +
+            "FROM ULAB_EDU.PERSON P LEFT JOIN ULAB_EDU.BOOK B ON B.PERSON_ID = P.ID " +
+            "ORDER BY P.ID, B.ID";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonFactory jsonFactory;
+    private final int fetchSize;
+
+    public UserBookExportTemplate(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                                  @Value("${ulab.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jsonFactory = objectMapper.getFactory();
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Пишет всех пользователей с книгами в out, каждый пользователь - строка JSON.
+     * Драйвер PostgreSQL читает курсором только вне autocommit, поэтому выгрузка идет в транзакции.
+     *
+     * @return число выгруженных пользователей
+     */
+    @Transactional(readOnly = true)
+    public long writeAllUsersWithBooks(OutputStream out) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            // Строки разделяются переводом строки, а не пробелом; out закрывает вызывающий
+            generator.setRootValueSeparator(null);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            long[] users = {0};
+            long[] currentUserId = {0};
+            jdbcTemplate.query((Connection connection) -> {
+                PreparedStatement ps = connection.prepareStatement(EXPORT_SQL,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                return ps;
+            }, (ResultSet resultSet) -> {
+                try {
+                    long userId = resultSet.getLong("ID");
+                    if (users[0] == 0 || userId != currentUserId[0]) {
+                        if (users[0] > 0) {
+                            endUser(generator);
+                        }
+                        UserBookJsonWriterTemplate.writeUser(generator, resultSet);
+                        currentUserId[0] = userId;
+                        users[0]++;
+                    }
+                    UserBookJsonWriterTemplate.writeBook(generator, resultSet);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (users[0] > 0) {
+                endUser(generator);
+            }
+            log.info("Exported users: {}", users[0]);
+            return users[0];
+        }
+    }
+
+    private static void endUser(JsonGenerator generator) throws IOException {
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+}
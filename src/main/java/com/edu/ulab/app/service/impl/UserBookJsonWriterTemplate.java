@@ -0,0 +1,125 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.storage.Storage;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Objects;
+
+/**
+ * Сборка JSON ответа "пользователь с книгами" прямо из строк JDBC, без промежуточных
+ * {@code Person}/{@code Book}/{@code BookDto}/{@code UserBookResponse}.
+ * Формат совпадает с сериализацией {@link com.edu.ulab.app.web.response.UserBookResponse}.
+ */
+@Slf4j
+@Service
+@Profile("!" + Storage.PROFILE)
+public class UserBookJsonWriterTemplate {
+    // Буфер больше этого размера не переиспользуется, чтобы не держать память после крупных ответов
+    private static final int MAX_RETAINED_BUFFER_SIZE = 1 << 20;
+    private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+
+    private static final ThreadLocal<Buffer> BUFFER = ThreadLocal.withInitial(Buffer::new);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonFactory jsonFactory;
+
+    public UserBookJsonWriterTemplate(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * Пишет пользователя с книгами в out. Ответ целиком собирается в переиспользуемом буфере потока,
+     * поэтому при ошибке в out ничего не попадает.
+     *
+     * @return число записанных байт
+     */
+    public int writeUserWithBooks(Long userId, OutputStream out) throws IOException {
+        if (Objects.isNull(userId)){throw new NotFoundException("id is null");}
+        Buffer buffer = BUFFER.get();
+        buffer.reset();
+        try {
+            writeUserWithBooks(userId, buffer);
+            buffer.writeTo(out);
+            return buffer.size();
+        } finally {
+            if (buffer.capacity() > MAX_RETAINED_BUFFER_SIZE) {
+                BUFFER.remove();
+            }
+        }
+    }
+
+    private void writeUserWithBooks(Long userId, Buffer buffer) throws IOException {
+        final String GET_SQL = "SELECT P.ID, P.FULL_NAME, P.TITLE, P.AGE, " +
+                "B.ID AS BOOK_ID, B.TITLE AS BOOK_TITLE, B.AUTHOR, B.PAGE_COUNT " +
+                "FROM ULAB_EDU.PERSON P LEFT JOIN ULAB_EDU.BOOK B ON B.PERSON_ID = P.ID " +
+                "WHERE P.ID=? ORDER BY B.ID";
+        try (JsonGenerator generator = jsonFactory.createGenerator(buffer)) {
+            boolean[] found = {false};
+            jdbcTemplate.query(GET_SQL, (ResultSet resultSet) -> {
+                try {
+                    if (!found[0]) {
+                        found[0] = true;
+                        writeUser(generator, resultSet);
+                    }
+                    writeBook(generator, resultSet);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, userId);
+            if (!found[0]) {
+                throw new NotFoundException("User not found");
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    // Общие с выгрузкой всех пользователей (UserBookExportTemplate)
+    static void writeUser(JsonGenerator generator, ResultSet resultSet) throws IOException, SQLException {
+        generator.writeStartObject();
+        generator.writeNumberField("userId", resultSet.getLong("ID"));
+        generator.writeStringField("fullName", resultSet.getString("FULL_NAME"));
+        generator.writeStringField("title", resultSet.getString("TITLE"));
+        generator.writeNumberField("age", resultSet.getInt("AGE"));
+        generator.writeArrayFieldStart("bookList");
+    }
+
+    static void writeBook(JsonGenerator generator, ResultSet resultSet) throws IOException, SQLException {
+        long bookId = resultSet.getLong("BOOK_ID");
+        // LEFT JOIN: у пользователя без книг поля книги пустые
+        if (resultSet.wasNull()) {
+            return;
+        }
+        generator.writeStartObject();
+        generator.writeNumberField("id", bookId);
+        generator.writeNumberField("userId", resultSet.getLong("ID"));
+        generator.writeStringField("title", resultSet.getString("BOOK_TITLE"));
+        generator.writeStringField("author", resultSet.getString("AUTHOR"));
+        generator.writeNumberField("pageCount", resultSet.getLong("PAGE_COUNT"));
+        generator.writeEndObject();
+    }
+
+    private static final class Buffer extends ByteArrayOutputStream {
+        private Buffer() {
+            super(INITIAL_BUFFER_SIZE);
+        }
+
+        private int capacity() {
+            return buf.length;
+        }
+    }
+}
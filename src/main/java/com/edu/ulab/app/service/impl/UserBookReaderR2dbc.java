@@ -0,0 +1,121 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.Closeable;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Неблокирующее чтение пользователя и его книг через R2DBC (профиль reactive).
+ * Пользователь и книги читаются одним запросом PERSON LEFT JOIN BOOK, как в /get/{userId}/raw:
+ * ответ собирается из одного снимка БД.
+ * <p>
+ * Пул соединений R2DBC не регистрируется бином: бин {@link ConnectionFactory} отключил бы
+ * автоконфигурацию JDBC DataSource, на которой работает остальное приложение.
+ */
+@Slf4j
+@Service
+@Profile(UserBookReaderR2dbc.PROFILE)
+public class UserBookReaderR2dbc implements DisposableBean {
+    public static final String PROFILE = "reactive";
+
+    private static final String GET_USER_WITH_BOOKS_SQL = "SELECT P.ID, P.FULL_NAME, P.TITLE, P.AGE, " +
+            "B.ID AS BOOK_ID, B.TITLE AS BOOK_TITLE, B.AUTHOR, B.PAGE_COUNT " +
+            "FROM ULAB_EDU.PERSON P LEFT JOIN ULAB_EDU.BOOK B ON B.PERSON_ID = P.ID " +
+            "WHERE P.ID = $1 ORDER BY B.ID";
+
+    private final ConnectionFactory connectionFactory;
+
+    @Autowired
+    public UserBookReaderR2dbc(@Value("${ulab.r2dbc.url:}") String url,
+                               @Value("${spring.datasource.url}") String jdbcUrl,
+                               @Value("${spring.datasource.username}") String username,
+                               @Value("${spring.datasource.password}") String password,
+                               @Value("${ulab.r2dbc.pool.max-size:20}") int maxSize) {
+        // Без отдельного адреса читаем ту же БД, что и JDBC
+        this(pool(StringUtils.hasText(url) ? url : jdbcUrl.replaceFirst("^jdbc:", "r2dbc:"),
+                username, password, maxSize));
+    }
+
+    public UserBookReaderR2dbc(ConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
+    private static ConnectionFactory pool(String url, String username, String password, int maxSize) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        log.info("R2DBC pool: {}, max size {}", url, maxSize);
+        // Соединения открываются по требованию, а не при старте
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .initialSize(0)
+                .maxSize(maxSize)
+                .build());
+    }
+
+    /**
+     * Пользователь и его книги по id; пусто, если пользователя нет.
+     */
+    public Mono<Tuple2<UserDto, List<BookDto>>> getUserWithBooks(Long userId) {
+        return Flux.usingWhen(connectionFactory.create(),
+                        connection -> Flux.from(connection.createStatement(GET_USER_WITH_BOOKS_SQL)
+                                        .bind(0, userId).execute())
+                                .flatMap(result -> result.map(this::mapRow)),
+                        Connection::close)
+                .collectList()
+                .filter(rows -> !rows.isEmpty())
+                .map(rows -> Tuples.of(rows.get(0).user(), rows.stream()
+                        .map(UserBookRow::book)
+                        .filter(Objects::nonNull)
+                        .toList()));
+    }
+
+    // LEFT JOIN: у пользователя без книг поля книги пустые, book == null
+    private UserBookRow mapRow(Row row, RowMetadata metadata) {
+        UserDto userDto = new UserDto(
+                row.get("ID", Long.class),
+                row.get("FULL_NAME", String.class),
+                row.get("TITLE", String.class),
+                row.get("AGE", Integer.class));
+        Long bookId = row.get("BOOK_ID", Long.class);
+        BookDto bookDto = Objects.isNull(bookId) ? null : new BookDto(
+                bookId,
+                userDto.getId(),
+                row.get("BOOK_TITLE", String.class),
+                row.get("AUTHOR", String.class),
+                row.get("PAGE_COUNT", Integer.class));
+        return new UserBookRow(userDto, bookDto);
+    }
+
+    private record UserBookRow(UserDto user, BookDto book) {
+    }
+
+    @Override
+    public void destroy() {
+        if (connectionFactory instanceof Closeable closeable) {
+            Mono.from(closeable.close()).block();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.storage.Storage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Пакетная вставка пользователей и книг с уже проставленными id (см. {@link SequenceIdAllocator}):
+ * на пачку приходится один batch insert в person и один в book, без возврата сгенерированных ключей.
+ * Id берутся из того же источника, что и у реализации записи {@code ulab.backend.write}, вставка пачки
+ * замеряется как ее вызов {@code user.createAll} ({@link ServiceBackends}).
+ */
+@Slf4j
+@Service
+@Profile("!" + Storage.PROFILE)
+public class UserBulkWriterTemplate {
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final SecondLevelCacheInvalidator cacheInvalidator;
+    private final ServiceBackends backends;
+
+    public UserBulkWriterTemplate(JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  SecondLevelCacheInvalidator cacheInvalidator,
+                                  ServiceBackends backends) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.cacheInvalidator = cacheInvalidator;
+        this.backends = backends;
+    }
+
+    public SequenceIdAllocator personIdAllocator() {
+        return SequenceIdAllocator.of(jdbcTemplate, backends.getWrite(), SequenceIdAllocator.PERSON_TABLE);
+    }
+
+    public SequenceIdAllocator bookIdAllocator() {
+        return SequenceIdAllocator.of(jdbcTemplate, backends.getWrite(), SequenceIdAllocator.BOOK_TABLE);
+    }
+
+    public void insertUsersWithBooks(List<UserDto> userDtos, List<BookDto> bookDtos) {
+        backends.runWrite("user.createAll",
+                () -> transaction.executeWithoutResult(status -> insert(userDtos, bookDtos)));
+    }
+
+    private void insert(List<UserDto> userDtos, List<BookDto> bookDtos) {
+        final String INSERT_USER_SQL = "INSERT INTO ULAB_EDU.PERSON(ID, FULL_NAME, TITLE, AGE) VALUES (?,?,?,?)";
+        final String INSERT_BOOK_SQL = "INSERT INTO ULAB_EDU.BOOK(ID, TITLE, AUTHOR, PAGE_COUNT, PERSON_ID) VALUES (?,?,?,?,?)";
+        jdbcTemplate.batchUpdate(INSERT_USER_SQL, userDtos, userDtos.size(), (ps, userDto) -> {
+            ps.setLong(1, userDto.getId());
+            ps.setString(2, userDto.getFullName());
+            ps.setString(3, userDto.getTitle());
+            ps.setLong(4, userDto.getAge());
+        });
+        if (!bookDtos.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_BOOK_SQL, bookDtos, bookDtos.size(), (ps, bookDto) -> {
+                ps.setLong(1, bookDto.getId());
+                ps.setString(2, bookDto.getTitle());
+                ps.setString(3, bookDto.getAuthor());
+                ps.setLong(4, bookDto.getPageCount());
+                ps.setLong(5, bookDto.getUserId());
+            });
+        }
+        cacheInvalidator.personsAdded(userDtos.stream().map(UserDto::getId).toList());
+        log.info("Saved users: {}, books: {}", userDtos.size(), bookDtos.size());
+    }
+}
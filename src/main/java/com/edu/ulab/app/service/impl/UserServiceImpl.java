@@ -7,13 +7,17 @@ import com.edu.ulab.app.exception.NotFoundException;
 import com.edu.ulab.app.mapper.UserMapper;
 import com.edu.ulab.app.repository.UserRepository;
 import com.edu.ulab.app.service.UserService;
+import com.edu.ulab.app.storage.Storage;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Objects;
 
 @Slf4j
 @Service
+@Profile("!" + Storage.PROFILE)
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
@@ -29,9 +33,9 @@ public class UserServiceImpl implements UserService {
     public UserDto createUser(UserDto userDto) {
         if (Objects.isNull(userDto)){throw new NotFoundException("userDto is null");}
         Person user = userMapper.userDtoToPerson(userDto);
-        log.info("Mapped user: {}", user);
+        log.debug("Mapped user: {}", user);
         Person savedUser = userRepository.save(user);
-        log.info("Saved user: {}", savedUser);
+        log.debug("Saved user: {}", savedUser);
         return userMapper.personToUserDto(savedUser);
     }
 
@@ -41,24 +45,25 @@ public class UserServiceImpl implements UserService {
             throw new BadRequestExceptionUpdate(userDto);
         }
         Person user = userMapper.userDtoToPerson(userDto);
-        log.info("Mapped user: {}", user);
+        log.debug("Mapped user: {}", user);
         userRepository.findById(user.getId()).orElseThrow(() -> new NotFoundException("User not found"));
         Person updatedUser = userRepository.save(user);
-        log.info("Updated user: {}", updatedUser);
+        log.debug("Updated user: {}", updatedUser);
         return userMapper.personToUserDto(updatedUser);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public UserDto getUserById(Long id) {
         if (Objects.isNull(id)){throw new NotFoundException("id is null");}
-        Person person = userRepository.findById(id).orElseThrow(() -> new NotFoundException("User not found"));
-        return userMapper.personToUserDto(person);
+        return userRepository.findUserDtoById(id).orElseThrow(() -> new NotFoundException("User not found"));
     }
 
     @Override
     public void deleteUserById(Long id) {
         if (Objects.isNull(id)){throw new NotFoundException("id is null");}
-        userRepository.findById(id).orElseThrow(()->new NotFoundException("User not found"));
-        userRepository.deleteById(id);
+        if (userRepository.deletePersonById(id) == 0){
+            throw new NotFoundException("User not found");
+        }
     }
 }
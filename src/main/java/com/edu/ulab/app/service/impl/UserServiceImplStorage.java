@@ -0,0 +1,54 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.exception.BadRequestExceptionUpdate;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.service.UserService;
+import com.edu.ulab.app.storage.Storage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.util.Objects;
+
+@Slf4j
+@Service
+@Profile(Storage.PROFILE)
+public class UserServiceImplStorage implements UserService {
+
+    private final Storage storage;
+
+    public UserServiceImplStorage(Storage storage) {
+        this.storage = storage;
+    }
+
+    @Override
+    public UserDto createUser(UserDto userDto) {
+        if (Objects.isNull(userDto)){throw new NotFoundException("userDto is null");}
+        UserDto savedUser = storage.createPerson(userDto);
+        log.debug("Saved user: {}", savedUser);
+        return savedUser;
+    }
+
+    @Override
+    public UserDto updateUser(UserDto userDto) {
+        if (Objects.isNull(userDto) || Objects.isNull(userDto.getId())){
+            throw new BadRequestExceptionUpdate(userDto);
+        }
+        if (!storage.updatePerson(userDto)){throw new NotFoundException("User not found");}
+        log.debug("Updated user: {}", userDto);
+        return getUserById(userDto.getId());
+    }
+
+    @Override
+    public UserDto getUserById(Long id) {
+        if (Objects.isNull(id)){throw new NotFoundException("id is null");}
+        return storage.findPerson(id).orElseThrow(() -> new NotFoundException("User not found"));
+    }
+
+    @Override
+    public void deleteUserById(Long id) {
+        if (Objects.isNull(id)){throw new NotFoundException("id is null");}
+        if (!storage.deletePerson(id)){throw new NotFoundException("User not found");}
+    }
+}
@@ -6,7 +6,9 @@ import com.edu.ulab.app.exception.BadRequestExceptionUpdate;
 import com.edu.ulab.app.exception.NotFoundException;
 import com.edu.ulab.app.mapper.UserMapper;
 import com.edu.ulab.app.service.UserService;
+import com.edu.ulab.app.storage.Storage;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
@@ -20,22 +22,27 @@ import java.util.Objects;
 
 @Slf4j
 @Service
+@Profile("!" + Storage.PROFILE)
 public class UserServiceImplTemplate implements UserService {
     private final JdbcTemplate jdbcTemplate;
     private final UserMapper userMapper;
+    // Запись идет в обход Hibernate: кэш второго уровня для чтения через JPA чистится здесь же
+    private final SecondLevelCacheInvalidator cacheInvalidator;
 
-    public UserServiceImplTemplate(JdbcTemplate jdbcTemplate, UserMapper userMapper) {
+    public UserServiceImplTemplate(JdbcTemplate jdbcTemplate, UserMapper userMapper,
+                                   SecondLevelCacheInvalidator cacheInvalidator) {
         this.jdbcTemplate = jdbcTemplate;
         this.userMapper = userMapper;
+        this.cacheInvalidator = cacheInvalidator;
     }
 
-    private Person mapRowToPerson(ResultSet resultSet, int rowNum) throws SQLException {
-        Person person = new Person();
-        person.setId(resultSet.getLong("ID"));
-        person.setTitle(resultSet.getString("TITLE"));
-        person.setFullName(resultSet.getString("FULL_NAME"));
-        person.setAge(resultSet.getInt("AGE"));
-        return person;
+    // Строка сразу в DTO, без промежуточной сущности
+    private UserDto mapRowToUserDto(ResultSet resultSet, int rowNum) throws SQLException {
+        return new UserDto(
+                resultSet.getLong("ID"),
+                resultSet.getString("FULL_NAME"),
+                resultSet.getString("TITLE"),
+                resultSet.getInt("AGE"));
     }
 
     @Override
@@ -53,7 +60,8 @@ public class UserServiceImplTemplate implements UserService {
                 }, keyHolder);
 
         userDto.setId(Objects.requireNonNull(keyHolder.getKey()).longValue());
-        log.info("Saved user: {}", userDto);
+        cacheInvalidator.personChanged(userDto.getId());
+        log.debug("Saved user: {}", userDto);
         return userDto;
     }
 
@@ -63,7 +71,7 @@ public class UserServiceImplTemplate implements UserService {
             throw new BadRequestExceptionUpdate(userDto);
         }
         Person user = userMapper.userDtoToPerson(userDto);
-        log.info("Mapped user: {}", user);
+        log.debug("Mapped user: {}", user);
         final String INSERT_SQL = "UPDATE ULAB_EDU.PERSON SET FULL_NAME=?, TITLE=?, AGE=? WHERE ID=?";
         int check = jdbcTemplate.update(INSERT_SQL,
                     user.getFullName(),
@@ -73,20 +81,20 @@ public class UserServiceImplTemplate implements UserService {
         if (check==0){
             throw new NotFoundException("User not found");
         }
-        log.info("updated user: {}", user);
+        cacheInvalidator.personChanged(user.getId());
+        log.debug("updated user: {}", user);
         return userMapper.personToUserDto(user);
     }
 
     @Override
     public UserDto getUserById(Long id) {
         if (Objects.isNull(id)){throw new NotFoundException("id is null");}
-        final String GET_SQL = "SELECT * FROM ULAB_EDU.PERSON WHERE ID=?";
+        final String GET_SQL = "SELECT ID, FULL_NAME, TITLE, AGE FROM ULAB_EDU.PERSON WHERE ID=?";
         try {
-            Person user = jdbcTemplate.queryForObject(
+            return jdbcTemplate.queryForObject(
                     GET_SQL,
-                    this::mapRowToPerson,
+                    this::mapRowToUserDto,
                     id);
-            return userMapper.personToUserDto(user);
         } catch (EmptyResultDataAccessException e){
             throw new NotFoundException("User not found");
         }
@@ -96,6 +104,9 @@ public class UserServiceImplTemplate implements UserService {
     public void deleteUserById(Long id) {
         if (Objects.isNull(id)){throw new NotFoundException("id is null");}
         final String DELETE_SQL = "DELETE FROM ULAB_EDU.PERSON WHERE ID=?";
-        jdbcTemplate.update(DELETE_SQL, id);
+        if (jdbcTemplate.update(DELETE_SQL, id) == 0){
+            throw new NotFoundException("User not found");
+        }
+        cacheInvalidator.personChanged(id);
     }
 }
@@ -0,0 +1,42 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.service.UserService;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+/**
+ * {@link UserService} для фасада: чтение и запись уходят в реализации, выбранные {@link ServiceBackends}.
+ */
+@Service
+@Primary
+public class UserServiceRouting implements UserService {
+
+    private final ServiceBackends backends;
+
+    public UserServiceRouting(ServiceBackends backends) {
+        this.backends = backends;
+    }
+
+    @Override
+    public UserDto createUser(UserDto userDto) {
+        return backends.timedWrite("user.create",
+                () -> backends.userWriter().createUser(userDto));
+    }
+
+    @Override
+    public UserDto updateUser(UserDto userDto) {
+        return backends.timedWrite("user.update",
+                () -> backends.userWriter().updateUser(userDto));
+    }
+
+    @Override
+    public UserDto getUserById(Long id) {
+        return backends.timedRead("user.get", () -> backends.userReader().getUserById(id));
+    }
+
+    @Override
+    public void deleteUserById(Long id) {
+        backends.runWrite("user.delete", () -> backends.userWriter().deleteUserById(id));
+    }
+}
@@ -0,0 +1,51 @@
+package com.edu.ulab.app.storage;
+
+import com.edu.ulab.app.dto.BookDto;
+
+/**
+ * Неизменяемая запись книги в {@link Storage}: значение для журнала и чтения.
+ * Сама запись хранится в ячейке {@link RecordSegments}:
+ * <pre>
+ * byte state | pad | long id | long personId | long pageCount | short len + 150 байт title | short len + 150 байт author
+ * </pre>
+ */
+record BookRecord(long id, long personId, String title, String author, long pageCount) {
+    static final int SLOT_SIZE = 336;
+
+    private static final int ID = Long.BYTES;
+    private static final int PERSON_ID = ID + Long.BYTES;
+    private static final int PAGE_COUNT = PERSON_ID + Long.BYTES;
+    private static final int TITLE = PAGE_COUNT + Long.BYTES;
+    private static final int AUTHOR = TITLE + RecordSegments.stringSize(StorageStrings.CAPACITY);
+
+    static BookRecord of(long id, long personId, BookDto bookDto) {
+        return new BookRecord(id, personId, StorageStrings.check(bookDto.getTitle()),
+                StorageStrings.check(bookDto.getAuthor()), bookDto.getPageCount());
+    }
+
+    static long id(RecordSegments records, int slot) {
+        return records.getLong(slot, ID);
+    }
+
+    static long personId(RecordSegments records, int slot) {
+        return records.getLong(slot, PERSON_ID);
+    }
+
+    static BookRecord read(RecordSegments records, int slot) {
+        return new BookRecord(records.getLong(slot, ID), records.getLong(slot, PERSON_ID),
+                records.getString(slot, TITLE), records.getString(slot, AUTHOR), records.getLong(slot, PAGE_COUNT));
+    }
+
+    void write(RecordSegments records, int slot) {
+        records.putLong(slot, ID, id);
+        records.putLong(slot, PERSON_ID, personId);
+        records.putLong(slot, PAGE_COUNT, pageCount);
+        records.putString(slot, TITLE, StorageStrings.CAPACITY, title);
+        records.putString(slot, AUTHOR, StorageStrings.CAPACITY, author);
+        records.markLive(slot);
+    }
+
+    BookDto toDto() {
+        return new BookDto(id, personId, title, author, pageCount);
+    }
+}
@@ -0,0 +1,147 @@
+package com.edu.ulab.app.storage;
+
+/**
+ * Хеш-таблица long -> int без упаковки: открытая адресация, линейное пробирование, как в {@link LongObjectMap}.
+ * Ключ 0 зарезервирован под пустую ячейку, значение 0 - под отсутствие ключа.
+ * Не потокобезопасна, доступ синхронизирует {@link Storage}.
+ */
+final class LongIntMap {
+    private static final int MIN_CAPACITY = 16;
+    private static final long EMPTY = 0L;
+    static final int NO_VALUE = 0;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int resizeAt;
+    private int size;
+
+    LongIntMap() {
+        allocate(MIN_CAPACITY);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean containsKey(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    // NO_VALUE, если ключа нет
+    int get(long key) {
+        int index = indexOf(key);
+        return index >= 0 ? values[index] : NO_VALUE;
+    }
+
+    // Прежнее значение или NO_VALUE
+    int put(long key, int value) {
+        checkKey(key);
+        if (value == NO_VALUE) {
+            throw new IllegalArgumentException("value 0 is reserved");
+        }
+        int index = slot(key, mask);
+        while (true) {
+            long current = keys[index];
+            if (current == key) {
+                int old = values[index];
+                values[index] = value;
+                return old;
+            }
+            if (current == EMPTY) {
+                keys[index] = key;
+                values[index] = value;
+                if (++size > resizeAt) {
+                    resize();
+                }
+                return NO_VALUE;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    // Удаленное значение или NO_VALUE
+    int remove(long key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return NO_VALUE;
+        }
+        int old = values[index];
+        closeGap(index);
+        size--;
+        return old;
+    }
+
+    private int indexOf(long key) {
+        if (key == EMPTY) {
+            return -1;
+        }
+        int index = slot(key, mask);
+        while (true) {
+            long current = keys[index];
+            if (current == key) {
+                return index;
+            }
+            if (current == EMPTY) {
+                return -1;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    // Сдвигаем хвост цепочки в освободившуюся ячейку, чтобы поиск не обрывался на "дыре"
+    private void closeGap(int gap) {
+        int index = gap;
+        while (true) {
+            index = (index + 1) & mask;
+            long key = keys[index];
+            if (key == EMPTY) {
+                break;
+            }
+            int home = slot(key, mask);
+            if (((index - home) & mask) >= ((index - gap) & mask)) {
+                keys[gap] = key;
+                values[gap] = values[index];
+                gap = index;
+            }
+        }
+        keys[gap] = EMPTY;
+        values[gap] = NO_VALUE;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != EMPTY) {
+                int index = slot(key, mask);
+                while (keys[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        // Коэффициент заполнения 0.75
+        resizeAt = capacity - (capacity >>> 2);
+    }
+
+    private static int slot(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static void checkKey(long key) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("key 0 is reserved");
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.edu.ulab.app.storage;
+
+import java.util.Arrays;
+
+/**
+ * Растущий массив long без упаковки в Long. Порядок добавления сохраняется.
+ * Не потокобезопасен, доступ синхронизирует {@link Storage}.
+ */
+final class LongList {
+    private long[] elements = new long[4];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    long get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return elements[index];
+    }
+
+    void add(long value) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size << 1);
+        }
+        elements[size++] = value;
+    }
+
+    boolean remove(long value) {
+        for (int i = 0; i < size; i++) {
+            if (elements[i] == value) {
+                System.arraycopy(elements, i + 1, elements, i, size - i - 1);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // По возрастанию: для id это порядок создания
+    void sort() {
+        Arrays.sort(elements, 0, size);
+    }
+
+    long[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+}
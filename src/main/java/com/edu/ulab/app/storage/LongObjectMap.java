@@ -0,0 +1,159 @@
+package com.edu.ulab.app.storage;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Хеш-таблица с ключами long без упаковки в Long: открытая адресация, линейное пробирование.
+ * Ключ 0 зарезервирован под пустую ячейку, null в качестве значения не допускается.
+ * Не потокобезопасна, доступ синхронизирует {@link Storage}.
+ */
+final class LongObjectMap<V> {
+    private static final int MIN_CAPACITY = 16;
+    private static final long EMPTY = 0L;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int resizeAt;
+    private int size;
+
+    LongObjectMap() {
+        allocate(MIN_CAPACITY);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean containsKey(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        int index = indexOf(key);
+        return index >= 0 ? (V) values[index] : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    V put(long key, V value) {
+        checkKey(key);
+        Objects.requireNonNull(value, "value is null");
+        int index = slot(key, mask);
+        while (true) {
+            long current = keys[index];
+            if (current == key) {
+                V old = (V) values[index];
+                values[index] = value;
+                return old;
+            }
+            if (current == EMPTY) {
+                keys[index] = key;
+                values[index] = value;
+                if (++size > resizeAt) {
+                    resize();
+                }
+                return null;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    V remove(long key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        V old = (V) values[index];
+        closeGap(index);
+        size--;
+        return old;
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEachValue(Consumer<? super V> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                action.accept((V) values[i]);
+            }
+        }
+    }
+
+    // Ключ 0 в таблице не хранится, поиск по нему просто ничего не находит
+    private int indexOf(long key) {
+        if (key == EMPTY) {
+            return -1;
+        }
+        int index = slot(key, mask);
+        while (true) {
+            long current = keys[index];
+            if (current == key) {
+                return index;
+            }
+            if (current == EMPTY) {
+                return -1;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    // Сдвигаем хвост цепочки в освободившуюся ячейку, чтобы поиск не обрывался на "дыре"
+    private void closeGap(int gap) {
+        int index = gap;
+        while (true) {
+            index = (index + 1) & mask;
+            long key = keys[index];
+            if (key == EMPTY) {
+                break;
+            }
+            int home = slot(key, mask);
+            // Элемент можно перенести, если его "домашняя" ячейка не лежит между gap и index
+            if (((index - home) & mask) >= ((index - gap) & mask)) {
+                keys[gap] = key;
+                values[gap] = values[index];
+                gap = index;
+            }
+        }
+        keys[gap] = EMPTY;
+        values[gap] = null;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != EMPTY) {
+                int index = slot(key, mask);
+                while (keys[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        // Коэффициент заполнения 0.75
+        resizeAt = capacity - (capacity >>> 2);
+    }
+
+    // Перемешиваем биты: id идут подряд, без этого цепочки линейного пробирования слипаются
+    private static int slot(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static void checkKey(long key) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("key 0 is reserved");
+        }
+    }
+}
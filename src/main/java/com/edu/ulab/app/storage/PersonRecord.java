@@ -0,0 +1,45 @@
+package com.edu.ulab.app.storage;
+
+import com.edu.ulab.app.dto.UserDto;
+
+/**
+ * Неизменяемая запись пользователя в {@link Storage}: значение для журнала и чтения.
+ * Сама запись хранится в ячейке {@link RecordSegments}:
+ * <pre>
+ * byte state | pad | long id | int age | short len + 150 байт fullName | short len + 150 байт title
+ * </pre>
+ */
+record PersonRecord(long id, String fullName, String title, int age) {
+    static final int SLOT_SIZE = 328;
+
+    private static final int ID = Long.BYTES;
+    private static final int AGE = ID + Long.BYTES;
+    private static final int FULL_NAME = AGE + Integer.BYTES;
+    private static final int TITLE = FULL_NAME + RecordSegments.stringSize(StorageStrings.CAPACITY);
+
+    static PersonRecord of(long id, UserDto userDto) {
+        return new PersonRecord(id, StorageStrings.check(userDto.getFullName()), StorageStrings.check(userDto.getTitle()),
+                userDto.getAge());
+    }
+
+    static long id(RecordSegments records, int slot) {
+        return records.getLong(slot, ID);
+    }
+
+    static PersonRecord read(RecordSegments records, int slot) {
+        return new PersonRecord(records.getLong(slot, ID), records.getString(slot, FULL_NAME),
+                records.getString(slot, TITLE), records.getInt(slot, AGE));
+    }
+
+    void write(RecordSegments records, int slot) {
+        records.putLong(slot, ID, id);
+        records.putInt(slot, AGE, age);
+        records.putString(slot, FULL_NAME, StorageStrings.CAPACITY, fullName);
+        records.putString(slot, TITLE, StorageStrings.CAPACITY, title);
+        records.markLive(slot);
+    }
+
+    UserDto toDto() {
+        return new UserDto(id, fullName, title, age);
+    }
+}
@@ -0,0 +1,244 @@
+package com.edu.ulab.app.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+
+/**
+ * Записи фиксированного размера вне кучи: файл, отображенный в память, или direct-буферы без файла.
+ * <p>
+ * Память разбита на сегменты по целому числу ячеек (slot). Ячейка 0 - заголовок:
+ * <pre>
+ * int magic | int slotSize | long highWater
+ * </pre>
+ * highWater - наибольший выданный id, по нему после перезапуска продолжается счетчик id,
+ * в том числе если записи с наибольшими id уже удалены. Первый байт остальных ячеек - признак занятости,
+ * он пишется последним. Свободные ячейки переиспользуются, при открытии файла их список строится по этому признаку.
+ * <p>
+ * Раскладку полей внутри ячейки задают {@link PersonRecord} и {@link BookRecord}.
+ * Чтение и запись ячейки синхронизирует {@link Storage} (блокировка полосы владельца),
+ * выделение ячеек и заголовок синхронизированы здесь.
+ */
+final class RecordSegments implements Closeable {
+    private static final int MAGIC = 0x554C4142;
+    private static final int HIGH_WATER = 2 * Integer.BYTES;
+    private static final byte FREE = 0;
+    private static final byte LIVE = 1;
+    private static final short NULL_STRING = -1;
+
+    private final int slotSize;
+    private final int slotsPerSegment;
+    private final int segmentSize;
+    // null - сегменты в direct-памяти, без файла
+    private final FileChannel channel;
+    // Растет копированием: читатели берут ссылку без блокировки
+    private volatile ByteBuffer[] segments = new ByteBuffer[0];
+    private int nextSlot = 1;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+
+    private RecordSegments(int slotSize, int segmentSize, FileChannel channel) {
+        if (segmentSize < 2 * slotSize) {throw new IllegalArgumentException("segmentSize is too small");}
+        this.slotSize = slotSize;
+        this.slotsPerSegment = segmentSize / slotSize;
+        this.segmentSize = slotsPerSegment * slotSize;
+        this.channel = channel;
+    }
+
+    static RecordSegments memory(int slotSize, int segmentSize) {
+        RecordSegments records = new RecordSegments(slotSize, segmentSize, null);
+        records.addSegment();
+        records.writeHeader();
+        return records;
+    }
+
+    static RecordSegments open(Path path, int slotSize, int segmentSize) throws IOException {
+        RecordSegments records = new RecordSegments(slotSize, segmentSize,
+                FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE));
+        long count = Math.max(1, (records.channel.size() + records.segmentSize - 1) / records.segmentSize);
+        for (int i = 0; i < count; i++) {
+            records.addSegment();
+        }
+        ByteBuffer header = records.segments[0];
+        if (header.getInt(0) == 0) {
+            records.writeHeader();
+        } else if (header.getInt(0) != MAGIC || header.getInt(Integer.BYTES) != slotSize) {
+            records.channel.close();
+            throw new IllegalStateException("Storage file " + path + " has another format");
+        }
+        records.scanFreeSlots();
+        return records;
+    }
+
+    private void writeHeader() {
+        segments[0].putInt(0, MAGIC);
+        segments[0].putInt(Integer.BYTES, slotSize);
+    }
+
+    // Следующая ячейка - за последней занятой, свободные до нее идут в список
+    private void scanFreeSlots() {
+        int capacity = segments.length * slotsPerSegment;
+        int last = 0;
+        for (int slot = 1; slot < capacity; slot++) {
+            if (isLive(slot)) {
+                last = slot;
+            }
+        }
+        nextSlot = last + 1;
+        for (int slot = last - 1; slot > 0; slot--) {
+            if (!isLive(slot)) {
+                pushFree(slot);
+            }
+        }
+    }
+
+    synchronized long highWater() {
+        return segments[0].getLong(HIGH_WATER);
+    }
+
+    synchronized void raiseHighWater(long id) {
+        if (id > segments[0].getLong(HIGH_WATER)) {
+            segments[0].putLong(HIGH_WATER, id);
+        }
+    }
+
+    // Ячейка под новую запись; занятой она станет после markLive
+    synchronized int allocate() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        int slot = nextSlot++;
+        if (slot / slotsPerSegment == segments.length) {
+            addSegment();
+        }
+        return slot;
+    }
+
+    synchronized void free(int slot) {
+        buffer(slot).put(offset(slot), FREE);
+        pushFree(slot);
+    }
+
+    void markLive(int slot) {
+        buffer(slot).put(offset(slot), LIVE);
+    }
+
+    boolean isLive(int slot) {
+        return buffer(slot).get(offset(slot)) == LIVE;
+    }
+
+    // Обход занятых ячеек, при открытии хранилища
+    synchronized void forEachLive(IntConsumer action) {
+        for (int slot = 1; slot < nextSlot; slot++) {
+            if (isLive(slot)) {
+                action.accept(slot);
+            }
+        }
+    }
+
+    long getLong(int slot, int field) {
+        return buffer(slot).getLong(offset(slot) + field);
+    }
+
+    void putLong(int slot, int field, long value) {
+        buffer(slot).putLong(offset(slot) + field, value);
+    }
+
+    int getInt(int slot, int field) {
+        return buffer(slot).getInt(offset(slot) + field);
+    }
+
+    void putInt(int slot, int field, int value) {
+        buffer(slot).putInt(offset(slot) + field, value);
+    }
+
+    // Строка занимает short длины и capacity байт UTF-8
+    String getString(int slot, int field) {
+        ByteBuffer buffer = buffer(slot);
+        int at = offset(slot) + field;
+        short length = buffer.getShort(at);
+        if (length == NULL_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(at + Short.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    void putString(int slot, int field, int capacity, String value) {
+        ByteBuffer buffer = buffer(slot);
+        int at = offset(slot) + field;
+        if (Objects.isNull(value)) {
+            buffer.putShort(at, NULL_STRING);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > capacity) {
+            throw new IllegalArgumentException("String is longer than " + capacity + " bytes: " + value);
+        }
+        buffer.putShort(at, (short) bytes.length);
+        buffer.put(at + Short.BYTES, bytes);
+    }
+
+    // Размер поля строки в ячейке
+    static int stringSize(int capacity) {
+        return Short.BYTES + capacity;
+    }
+
+    private ByteBuffer buffer(int slot) {
+        return segments[slot / slotsPerSegment];
+    }
+
+    private int offset(int slot) {
+        return (slot % slotsPerSegment) * slotSize;
+    }
+
+    private void pushFree(int slot) {
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount << 1);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    private void addSegment() {
+        ByteBuffer segment;
+        if (Objects.isNull(channel)) {
+            segment = ByteBuffer.allocateDirect(segmentSize);
+        } else {
+            try {
+                segment = channel.map(FileChannel.MapMode.READ_WRITE, (long) segments.length * segmentSize, segmentSize);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        ByteBuffer[] grown = Arrays.copyOf(segments, segments.length + 1);
+        grown[segments.length] = segment;
+        segments = grown;
+    }
+
+    // Сброс на диск, для памяти без файла ничего не делает
+    synchronized void force() {
+        if (Objects.nonNull(channel)) {
+            for (ByteBuffer segment : segments) {
+                ((MappedByteBuffer) segment).force();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (Objects.nonNull(channel)) {
+            force();
+            channel.close();
+        }
+    }
+}
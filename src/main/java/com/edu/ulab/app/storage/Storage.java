@@ -1,11 +1,528 @@
 package com.edu.ulab.app.storage;
 
-public class Storage {
-    //todo создать хранилище в котором будут содержаться данные
-    // сделать абстракции через которые можно будет производить операции с хранилищем
-    // продумать логику поиска и сохранения
-    // продумать возможные ошибки
-    // учесть, что при сохранеии юзера или книги, должен генерироваться идентификатор
-    // продумать что у узера может быть много книг и нужно создать эту связь
-    // так же учесть, что методы хранилища принимают друго тип данных - учесть это в абстракции
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.exception.NotFoundException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Хранилище пользователей и книг без БД.
+ * <p>
+ * Сами записи лежат вне кучи, в ячейках фиксированного размера {@link RecordSegments}: в файлах, отображенных
+ * в память, или в direct-памяти без файлов. В куче остаются только индексы, разбитые на полосы (stripes)
+ * по id пользователя: id -> номер ячейки ({@link LongIntMap}) и пользователь -> id книг. Все операции с книгами
+ * идут через id владельца, поэтому любая операция берет блокировку ровно одной полосы.
+ * id генерируются счетчиками {@link AtomicLong}, наибольший выданный id хранится в заголовке файла ячеек.
+ * <p>
+ * Наружу отдаются новые DTO, строки читаются из ячеек при каждом обращении.
+ * <p>
+ * С файлами каждое изменение сначала пишется в журнал ({@link StorageJournal}) под блокировкой полосы,
+ * затем на место в ячейку. Перезапуск заново отображает файлы ячеек и строит по ним индексы, поверх
+ * проигрывается только журнал с последней контрольной точки. В фоне контрольная точка сбрасывает ячейки
+ * на диск и очищает журнал.
+ */
+@Slf4j
+public class Storage implements Closeable {
+    public static final String PROFILE = "storage";
+
+    public static final String PERSONS_FILE = "persons.records";
+    public static final String BOOKS_FILE = "books.records";
+    public static final String JOURNAL_FILE = "storage.journal";
+
+    private static final int STRIPE_BITS = 6;
+    // Сегменты direct-памяти без файлов: небольшие, хранилище в памяти создается и в тестах
+    private static final int MEMORY_SEGMENT_SIZE = 1 << 20;
+    // Контрольная точка не нужна, пока журнал короткий
+    private static final long CHECKPOINT_MIN_RECORDS = 10_000;
+
+    private final Stripe[] stripes = new Stripe[1 << STRIPE_BITS];
+    private final AtomicLong personSequence = new AtomicLong();
+    private final AtomicLong bookSequence = new AtomicLong();
+    private final RecordSegments personRecords;
+    private final RecordSegments bookRecords;
+    private final StorageChanges journal;
+    private final StorageJournal storageJournal;
+    private final ScheduledExecutorService checkpointer;
+
+    // Только память
+    public Storage() {
+        this(RecordSegments.memory(PersonRecord.SLOT_SIZE, MEMORY_SEGMENT_SIZE),
+                RecordSegments.memory(BookRecord.SLOT_SIZE, MEMORY_SEGMENT_SIZE), null, Duration.ZERO);
+    }
+
+    /**
+     * Хранилище в каталоге {@code directory}: файлы ячеек пользователей и книг и журнал.
+     *
+     * @param segmentSize        размер сегмента, отображаемого в память, для файлов ячеек и журнала
+     * @param sync               сбрасывать каждую запись журнала на диск
+     * @param checkpointInterval период проверки, не пора ли делать контрольную точку
+     */
+    public Storage(Path directory, int segmentSize, boolean sync, Duration checkpointInterval) throws IOException {
+        this(RecordSegments.open(Files.createDirectories(directory).resolve(PERSONS_FILE), PersonRecord.SLOT_SIZE,
+                        segmentSize),
+                RecordSegments.open(directory.resolve(BOOKS_FILE), BookRecord.SLOT_SIZE, segmentSize),
+                StorageJournal.open(directory.resolve(JOURNAL_FILE), segmentSize, sync), checkpointInterval);
+    }
+
+    private Storage(RecordSegments personRecords, RecordSegments bookRecords, StorageJournal storageJournal,
+                    Duration checkpointInterval) {
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.personRecords = personRecords;
+        this.bookRecords = bookRecords;
+        this.storageJournal = storageJournal;
+        if (Objects.isNull(storageJournal)) {
+            this.journal = NO_JOURNAL;
+            this.checkpointer = null;
+            return;
+        }
+        remap();
+        storageJournal.replay(new Replay());
+        for (Stripe stripe : stripes) {
+            stripe.bookIdsByPerson.forEachValue(LongList::sort);
+        }
+        this.journal = storageJournal;
+        this.checkpointer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "storage-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = checkpointInterval.toMillis();
+        checkpointer.scheduleWithFixedDelay(this::checkpointIfNeeded, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    // Индексы по занятым ячейкам, счетчики id - из заголовков файлов
+    private void remap() {
+        personSequence.set(personRecords.highWater());
+        bookSequence.set(bookRecords.highWater());
+        personRecords.forEachLive(slot -> {
+            long personId = PersonRecord.id(personRecords, slot);
+            stripe(personId).persons.put(personId, slot);
+        });
+        bookRecords.forEachLive(slot -> {
+            long personId = BookRecord.personId(bookRecords, slot);
+            stripe(personId).indexBook(BookRecord.id(bookRecords, slot), personId, slot);
+        });
+        log.info("Storage files remapped: last person id {}, last book id {}", personSequence.get(), bookSequence.get());
+    }
+
+    public UserDto createPerson(UserDto userDto) {
+        if (Objects.isNull(userDto)){throw new NotFoundException("userDto is null");}
+        PersonRecord person = PersonRecord.of(personSequence.incrementAndGet(), userDto);
+        personRecords.raiseHighWater(person.id());
+        Stripe stripe = stripe(person.id());
+        Lock lock = stripe.lock.writeLock();
+        lock.lock();
+        try {
+            journal.putPerson(person);
+            stripe.putPerson(person);
+        } finally {
+            lock.unlock();
+        }
+        return person.toDto();
+    }
+
+    // false, если пользователя нет
+    public boolean updatePerson(UserDto userDto) {
+        if (Objects.isNull(userDto) || Objects.isNull(userDto.getId())){throw new NotFoundException("userDto is null");}
+        PersonRecord person = PersonRecord.of(userDto.getId(), userDto);
+        Stripe stripe = stripe(person.id());
+        Lock lock = stripe.lock.writeLock();
+        lock.lock();
+        try {
+            if (!stripe.persons.containsKey(person.id())) {
+                return false;
+            }
+            journal.putPerson(person);
+            stripe.putPerson(person);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Optional<UserDto> findPerson(long personId) {
+        Stripe stripe = stripe(personId);
+        Lock lock = stripe.lock.readLock();
+        lock.lock();
+        try {
+            int slot = stripe.persons.get(personId);
+            return slot == LongIntMap.NO_VALUE ? Optional.empty()
+                    : Optional.of(PersonRecord.read(personRecords, slot).toDto());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Пользователь удаляется вместе с книгами, как ON DELETE CASCADE в БД. false, если пользователя нет
+    public boolean deletePerson(long personId) {
+        Stripe stripe = stripe(personId);
+        Lock lock = stripe.lock.writeLock();
+        lock.lock();
+        try {
+            if (!stripe.persons.containsKey(personId)) {
+                return false;
+            }
+            journal.deletePerson(personId);
+            stripe.deletePerson(personId);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Создание книг пользователя. Id созданных книг проставляются и в переданные DTO.
+     *
+     * @throws NotFoundException если пользователя нет
+     */
+    public List<BookDto> createBooks(long personId, List<BookDto> bookDtos) {
+        Stripe stripe = stripe(personId);
+        Lock lock = stripe.lock.writeLock();
+        lock.lock();
+        try {
+            checkPerson(stripe, personId);
+            return insertBooks(stripe, personId, bookDtos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean containsBook(long personId, long bookId) {
+        Stripe stripe = stripe(personId);
+        Lock lock = stripe.lock.readLock();
+        lock.lock();
+        try {
+            return stripe.findBook(personId, bookId) != LongIntMap.NO_VALUE;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Книги пользователя в порядке создания
+    public List<BookDto> findBooks(long personId) {
+        Stripe stripe = stripe(personId);
+        Lock lock = stripe.lock.readLock();
+        lock.lock();
+        try {
+            LongList bookIds = stripe.bookIdsByPerson.get(personId);
+            if (Objects.isNull(bookIds)) {
+                return List.of();
+            }
+            List<BookDto> books = new ArrayList<>(bookIds.size());
+            for (int i = 0; i < bookIds.size(); i++) {
+                books.add(BookRecord.read(bookRecords, stripe.books.get(bookIds.get(i))).toDto());
+            }
+            return books;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // false, если книги нет или она принадлежит другому пользователю
+    public boolean updateBook(long personId, BookDto bookDto) {
+        Stripe stripe = stripe(personId);
+        Lock lock = stripe.lock.writeLock();
+        lock.lock();
+        try {
+            return updateBook(stripe, personId, bookDto);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // false, если книги нет или она принадлежит другому пользователю
+    public boolean deleteBook(long personId, long bookId) {
+        Stripe stripe = stripe(personId);
+        Lock lock = stripe.lock.writeLock();
+        lock.lock();
+        try {
+            return deleteBook(stripe, personId, bookId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Число удаленных книг
+    public int deleteBooks(long personId) {
+        Stripe stripe = stripe(personId);
+        Lock lock = stripe.lock.writeLock();
+        lock.lock();
+        try {
+            LongList bookIds = stripe.bookIdsByPerson.get(personId);
+            if (Objects.isNull(bookIds) || bookIds.size() == 0) {
+                return 0;
+            }
+            journal.deleteBooks(personId);
+            return stripe.deleteBooks(personId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Создание, изменение и удаление книг пользователя под одной блокировкой.
+     * Книги, пропавшие между разбором запроса и применением, пропускаются.
+     * Id созданных книг проставляются в переданные DTO.
+     *
+     * @throws NotFoundException если пользователя нет
+     */
+    public void applyBooks(long personId, List<BookDto> toCreate, List<BookDto> toUpdate, List<BookDto> toDelete) {
+        Stripe stripe = stripe(personId);
+        Lock lock = stripe.lock.writeLock();
+        lock.lock();
+        try {
+            checkPerson(stripe, personId);
+            toUpdate.forEach(bookDto -> updateBook(stripe, personId, bookDto));
+            toDelete.forEach(bookDto -> deleteBook(stripe, personId, bookDto.getId()));
+            insertBooks(stripe, personId, toCreate);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void checkPerson(Stripe stripe, long personId) {
+        if (!stripe.persons.containsKey(personId)) {
+            throw new NotFoundException("User not found");
+        }
+    }
+
+    // Перемешиваем биты, чтобы подряд идущие id равномерно ложились на полосы
+    private Stripe stripe(long personId) {
+        return stripes[(int) ((personId * 0x9E3779B97F4A7C15L) >>> (Long.SIZE - STRIPE_BITS))];
+    }
+
+    private List<BookDto> insertBooks(Stripe stripe, long personId, List<BookDto> bookDtos) {
+        List<BookDto> created = new ArrayList<>(bookDtos.size());
+        for (BookDto bookDto : bookDtos) {
+            BookRecord book = BookRecord.of(bookSequence.incrementAndGet(), personId, bookDto);
+            bookRecords.raiseHighWater(book.id());
+            journal.putBook(book);
+            stripe.putBook(book);
+            bookDto.setId(book.id());
+            bookDto.setUserId(personId);
+            created.add(book.toDto());
+        }
+        return created;
+    }
+
+    private boolean updateBook(Stripe stripe, long personId, BookDto bookDto) {
+        if (stripe.findBook(personId, bookDto.getId()) == LongIntMap.NO_VALUE) {
+            return false;
+        }
+        BookRecord book = BookRecord.of(bookDto.getId(), personId, bookDto);
+        journal.putBook(book);
+        stripe.putBook(book);
+        return true;
+    }
+
+    private boolean deleteBook(Stripe stripe, long personId, long bookId) {
+        if (stripe.findBook(personId, bookId) == LongIntMap.NO_VALUE) {
+            return false;
+        }
+        journal.deleteBook(personId, bookId);
+        stripe.deleteBook(personId, bookId);
+        return true;
+    }
+
+    private void checkpointIfNeeded() {
+        if (storageJournal.records() > CHECKPOINT_MIN_RECORDS) {
+            checkpoint();
+        }
+    }
+
+    /**
+     * Контрольная точка: ячейки сбрасываются на диск, после чего журнал очищается.
+     * Чтение на это время не блокируется, изменения ждут окончания.
+     */
+    public void checkpoint() {
+        if (Objects.isNull(storageJournal)) {
+            return;
+        }
+        // Блокировки чтения всех полос: читатели работают, писатели ждут
+        List<Lock> locks = new ArrayList<>(stripes.length);
+        try {
+            for (Stripe stripe : stripes) {
+                Lock lock = stripe.lock.readLock();
+                lock.lock();
+                locks.add(lock);
+            }
+            personRecords.force();
+            bookRecords.force();
+            storageJournal.reset();
+        } catch (IOException | RuntimeException e) {
+            log.error("Storage checkpoint failed", e);
+        } finally {
+            locks.forEach(Lock::unlock);
+        }
+    }
+
+    // Записей в журнале с последней контрольной точки
+    long journalRecords() {
+        return Objects.isNull(storageJournal) ? 0 : storageJournal.records();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (Objects.isNull(storageJournal)) {
+            return;
+        }
+        checkpointer.shutdownNow();
+        // Дожидаемся изменений, начатых до закрытия
+        for (Stripe stripe : stripes) {
+            stripe.lock.writeLock().lock();
+        }
+        try (personRecords; bookRecords) {
+            storageJournal.close();
+        } finally {
+            for (Stripe stripe : stripes) {
+                stripe.lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // Восстановление из журнала поверх ячеек: изменения применяются без повторной записи в журнал.
+    // Журнал содержит и изменения, уже лежащие в ячейках, повторное применение их не меняет
+    private final class Replay implements StorageChanges {
+        @Override
+        public void putPerson(PersonRecord person) {
+            stripe(person.id()).putPerson(person);
+            personSequence.accumulateAndGet(person.id(), Math::max);
+            personRecords.raiseHighWater(person.id());
+        }
+
+        @Override
+        public void deletePerson(long personId) {
+            stripe(personId).deletePerson(personId);
+        }
+
+        @Override
+        public void putBook(BookRecord book) {
+            stripe(book.personId()).putBook(book);
+            bookSequence.accumulateAndGet(book.id(), Math::max);
+            bookRecords.raiseHighWater(book.id());
+        }
+
+        @Override
+        public void deleteBook(long personId, long bookId) {
+            stripe(personId).deleteBook(personId, bookId);
+        }
+
+        @Override
+        public void deleteBooks(long personId) {
+            stripe(personId).deleteBooks(personId);
+        }
+    }
+
+    private static final StorageChanges NO_JOURNAL = new StorageChanges() {
+        @Override
+        public void putPerson(PersonRecord person) {
+        }
+
+        @Override
+        public void deletePerson(long personId) {
+        }
+
+        @Override
+        public void putBook(BookRecord book) {
+        }
+
+        @Override
+        public void deleteBook(long personId, long bookId) {
+        }
+
+        @Override
+        public void deleteBooks(long personId) {
+        }
+    };
+
+    private final class Stripe {
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        // id -> номер ячейки
+        private final LongIntMap persons = new LongIntMap();
+        private final LongIntMap books = new LongIntMap();
+        private final LongObjectMap<LongList> bookIdsByPerson = new LongObjectMap<>();
+
+        // Существующая запись переписывается на месте, новая получает ячейку
+        private void putPerson(PersonRecord person) {
+            int slot = persons.get(person.id());
+            if (slot == LongIntMap.NO_VALUE) {
+                slot = personRecords.allocate();
+                persons.put(person.id(), slot);
+            }
+            person.write(personRecords, slot);
+        }
+
+        // Ячейка книги или NO_VALUE, если книги нет или она принадлежит другому пользователю
+        private int findBook(long personId, long bookId) {
+            int slot = books.get(bookId);
+            return slot != LongIntMap.NO_VALUE && BookRecord.personId(bookRecords, slot) == personId
+                    ? slot : LongIntMap.NO_VALUE;
+        }
+
+        private void deletePerson(long personId) {
+            int slot = persons.remove(personId);
+            if (slot != LongIntMap.NO_VALUE) {
+                personRecords.free(slot);
+            }
+            deleteBooks(personId);
+        }
+
+        // Новая книга попадает в индекс пользователя, существующая переписывается на месте
+        private void putBook(BookRecord book) {
+            int slot = books.get(book.id());
+            if (slot == LongIntMap.NO_VALUE) {
+                slot = bookRecords.allocate();
+                indexBook(book.id(), book.personId(), slot);
+            }
+            book.write(bookRecords, slot);
+        }
+
+        private void indexBook(long bookId, long personId, int slot) {
+            books.put(bookId, slot);
+            LongList bookIds = bookIdsByPerson.get(personId);
+            if (Objects.isNull(bookIds)) {
+                bookIds = new LongList();
+                bookIdsByPerson.put(personId, bookIds);
+            }
+            bookIds.add(bookId);
+        }
+
+        private void deleteBook(long personId, long bookId) {
+            int slot = books.remove(bookId);
+            if (slot != LongIntMap.NO_VALUE) {
+                bookRecords.free(slot);
+                bookIdsByPerson.get(personId).remove(bookId);
+            }
+        }
+
+        private int deleteBooks(long personId) {
+            LongList bookIds = bookIdsByPerson.remove(personId);
+            if (Objects.isNull(bookIds)) {
+                return 0;
+            }
+            for (int i = 0; i < bookIds.size(); i++) {
+                bookRecords.free(books.remove(bookIds.get(i)));
+            }
+            return bookIds.size();
+        }
+    }
 }
@@ -0,0 +1,17 @@
+package com.edu.ulab.app.storage;
+
+/**
+ * Изменения хранилища: их пишет {@link StorageJournal} и применяет {@link Storage} при восстановлении.
+ */
+interface StorageChanges {
+    void putPerson(PersonRecord person);
+
+    // Вместе с книгами пользователя
+    void deletePerson(long personId);
+
+    void putBook(BookRecord book);
+
+    void deleteBook(long personId, long bookId);
+
+    void deleteBooks(long personId);
+}
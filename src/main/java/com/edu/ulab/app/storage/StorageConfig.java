@@ -0,0 +1,33 @@
+package com.edu.ulab.app.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Хранилище для профиля storage. Без {@code ulab.storage.path} записи живут в direct-памяти,
+ * иначе - в файлах этого каталога, отображенных в память, с журналом изменений до контрольной точки.
+ */
+@Configuration
+@Profile(Storage.PROFILE)
+public class StorageConfig {
+
+    @Bean(destroyMethod = "close")
+    public Storage storage(@Value("${ulab.storage.path:}") String path,
+                           @Value("${ulab.storage.segment-size:64MB}") DataSize segmentSize,
+                           @Value("${ulab.storage.journal.sync:false}") boolean sync,
+                           @Value("${ulab.storage.checkpoint-interval:1m}") Duration checkpointInterval)
+            throws IOException {
+        if (!StringUtils.hasText(path)) {
+            return new Storage();
+        }
+        return new Storage(Path.of(path), Math.toIntExact(segmentSize.toBytes()), sync, checkpointInterval);
+    }
+}
@@ -0,0 +1,290 @@
+package com.edu.ulab.app.storage;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
+/**
+ * Журнал изменений {@link Storage} только на добавление, в файле, отображенном в память (MappedByteBuffer).
+ * Изменение попадает в журнал раньше, чем в ячейки {@link RecordSegments}, и хранится до ближайшей контрольной
+ * точки: при старте журнал проигрывается поверх ячеек и восстанавливает записи, недописанные при падении.
+ * <p>
+ * Файл состоит из сегментов одинакового размера, запись не пересекает границу сегмента.
+ * Формат записи (фиксированный заголовок + две строки):
+ * <pre>
+ * int length | int crc32 | byte kind | long id | long personId | long number | int len + UTF-8 | int len + UTF-8
+ * </pre>
+ * length == 0 означает конец данных в сегменте. Запись с неверной длиной или crc считается оборванной при падении:
+ * восстановление останавливается на ней, хвост файла обнуляется и отрезается.
+ * <p>
+ * Запись попадает в page cache сразу, поэтому падение процесса ее не теряет; при {@code sync} каждая запись
+ * дополнительно сбрасывается на диск (падение ОС).
+ */
+@Slf4j
+public final class StorageJournal implements StorageChanges, Closeable {
+    private static final byte PUT_PERSON = 1;
+    private static final byte DELETE_PERSON = 2;
+    private static final byte PUT_BOOK = 3;
+    private static final byte DELETE_BOOK = 4;
+    private static final byte DELETE_BOOKS = 5;
+
+    private static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES + Byte.BYTES + 3 * Long.BYTES;
+    private static final int NULL_STRING = -1;
+
+    private final Path path;
+    private final int segmentSize;
+    private final boolean sync;
+    private final CRC32 crc = new CRC32();
+
+    private FileChannel channel;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    // Позиция записи: сегмент и смещение в нем
+    private int segment;
+    private int position;
+    private long records;
+
+    private StorageJournal(Path path, int segmentSize, boolean sync) {
+        this.path = path;
+        this.segmentSize = segmentSize;
+        this.sync = sync;
+    }
+
+    public static StorageJournal open(Path path, int segmentSize, boolean sync) throws IOException {
+        if (segmentSize < HEADER_SIZE * 4) {throw new IllegalArgumentException("segmentSize is too small");}
+        StorageJournal journal = new StorageJournal(path, segmentSize, sync);
+        journal.map(FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE));
+        return journal;
+    }
+
+    private void map(FileChannel fileChannel) throws IOException {
+        channel = fileChannel;
+        segments.clear();
+        long count = Math.max(1, (channel.size() + segmentSize - 1) / segmentSize);
+        for (int i = 0; i < count; i++) {
+            segments.add(channel.map(FileChannel.MapMode.READ_WRITE, (long) i * segmentSize, segmentSize));
+        }
+        segment = 0;
+        position = 0;
+        records = 0;
+    }
+
+    // Число записей в журнале, включая перекрытые более поздними
+    public synchronized long records() {
+        return records;
+    }
+
+    // Размер файла журнала
+    public synchronized long size() {
+        return (long) segments.size() * segmentSize;
+    }
+
+    /**
+     * Чтение журнала с начала и установка позиции записи за последней целой записью.
+     */
+    synchronized void replay(StorageChanges changes) {
+        segment = 0;
+        position = 0;
+        records = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            MappedByteBuffer buffer = segments.get(i);
+            int offset = 0;
+            while (offset + Integer.BYTES <= segmentSize) {
+                int length = buffer.getInt(offset);
+                if (length == 0) {
+                    break;
+                }
+                if (length < HEADER_SIZE || offset + length > segmentSize || !crcMatches(buffer, offset, length)) {
+                    log.warn("Storage journal {} is torn at segment {}, offset {}: dropping the tail", path, i, offset);
+                    truncate(i, offset);
+                    return;
+                }
+                apply(buffer, offset, changes);
+                offset += length;
+                records++;
+            }
+            if (offset > 0) {
+                segment = i;
+                position = offset;
+            }
+        }
+        log.info("Storage journal {} replayed: {} records", path, records);
+    }
+
+    private boolean crcMatches(MappedByteBuffer buffer, int offset, int length) {
+        crc.reset();
+        crc.update(buffer.slice(offset + 2 * Integer.BYTES, length - 2 * Integer.BYTES));
+        return (int) crc.getValue() == buffer.getInt(offset + Integer.BYTES);
+    }
+
+    private void apply(MappedByteBuffer buffer, int offset, StorageChanges changes) {
+        int at = offset + 2 * Integer.BYTES;
+        byte kind = buffer.get(at);
+        long id = buffer.getLong(at + 1);
+        long personId = buffer.getLong(at + 1 + Long.BYTES);
+        long number = buffer.getLong(at + 1 + 2 * Long.BYTES);
+        at = offset + HEADER_SIZE;
+        String first = readString(buffer, at);
+        at += Integer.BYTES + Math.max(0, buffer.getInt(at));
+        String second = readString(buffer, at);
+        switch (kind) {
+            case PUT_PERSON -> changes.putPerson(new PersonRecord(id, first, second, (int) number));
+            case DELETE_PERSON -> changes.deletePerson(id);
+            case PUT_BOOK -> changes.putBook(new BookRecord(id, personId, first, second, number));
+            case DELETE_BOOK -> changes.deleteBook(personId, id);
+            case DELETE_BOOKS -> changes.deleteBooks(personId);
+            default -> throw new IllegalStateException("Unknown storage journal record kind " + kind);
+        }
+    }
+
+    private static String readString(MappedByteBuffer buffer, int at) {
+        int length = buffer.getInt(at);
+        if (length == NULL_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(at + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Обнуляем оборванную запись и остаток сегмента, следующие сегменты отрезаем
+    private void truncate(int brokenSegment, int offset) {
+        MappedByteBuffer buffer = segments.get(brokenSegment);
+        for (int i = offset; i < segmentSize; i++) {
+            buffer.put(i, (byte) 0);
+        }
+        buffer.force();
+        segments.subList(brokenSegment + 1, segments.size()).clear();
+        try {
+            channel.truncate((long) (brokenSegment + 1) * segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        segment = brokenSegment;
+        position = offset;
+    }
+
+    @Override
+    public void putPerson(PersonRecord person) {
+        append(PUT_PERSON, person.id(), 0, person.age(), person.fullName(), person.title());
+    }
+
+    @Override
+    public void deletePerson(long personId) {
+        append(DELETE_PERSON, personId, 0, 0, null, null);
+    }
+
+    @Override
+    public void putBook(BookRecord book) {
+        append(PUT_BOOK, book.id(), book.personId(), book.pageCount(), book.title(), book.author());
+    }
+
+    @Override
+    public void deleteBook(long personId, long bookId) {
+        append(DELETE_BOOK, bookId, personId, 0, null, null);
+    }
+
+    @Override
+    public void deleteBooks(long personId) {
+        append(DELETE_BOOKS, 0, personId, 0, null, null);
+    }
+
+    private synchronized void append(byte kind, long id, long personId, long number, String first, String second) {
+        byte[] firstBytes = Objects.isNull(first) ? null : first.getBytes(StandardCharsets.UTF_8);
+        byte[] secondBytes = Objects.isNull(second) ? null : second.getBytes(StandardCharsets.UTF_8);
+        int length = HEADER_SIZE + 2 * Integer.BYTES + byteCount(firstBytes) + byteCount(secondBytes);
+        // Остается место под маркер конца сегмента (length == 0)
+        if (length + Integer.BYTES > segmentSize) {
+            throw new IllegalArgumentException("Storage journal record is larger than segment: " + length);
+        }
+        if (position + length + Integer.BYTES > segmentSize) {
+            nextSegment();
+        }
+        MappedByteBuffer buffer = segments.get(segment);
+        int at = position + 2 * Integer.BYTES;
+        buffer.put(at, kind);
+        buffer.putLong(at + 1, id);
+        buffer.putLong(at + 1 + Long.BYTES, personId);
+        buffer.putLong(at + 1 + 2 * Long.BYTES, number);
+        at = position + HEADER_SIZE;
+        at = writeString(buffer, at, firstBytes);
+        writeString(buffer, at, secondBytes);
+        crc.reset();
+        crc.update(buffer.slice(position + 2 * Integer.BYTES, length - 2 * Integer.BYTES));
+        buffer.putInt(position + Integer.BYTES, (int) crc.getValue());
+        // Длина пишется последней: до нее запись при восстановлении не видна
+        buffer.putInt(position, length);
+        if (sync) {
+            buffer.force(position, length);
+        }
+        position += length;
+        records++;
+    }
+
+    private static int byteCount(byte[] bytes) {
+        return Objects.isNull(bytes) ? 0 : bytes.length;
+    }
+
+    private static int writeString(MappedByteBuffer buffer, int at, byte[] bytes) {
+        if (Objects.isNull(bytes)) {
+            buffer.putInt(at, NULL_STRING);
+            return at + Integer.BYTES;
+        }
+        buffer.putInt(at, bytes.length);
+        buffer.put(at + Integer.BYTES, bytes);
+        return at + Integer.BYTES + bytes.length;
+    }
+
+    private void nextSegment() {
+        segment++;
+        position = 0;
+        if (segment == segments.size()) {
+            try {
+                segments.add(channel.map(FileChannel.MapMode.READ_WRITE, (long) segment * segmentSize, segmentSize));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Сброс журнала после контрольной точки: все изменения уже лежат в {@link RecordSegments} на диске.
+     * Сначала обнуляется начало первого сегмента (журнал сразу становится пустым), затем файл обрезается.
+     * Вызывающий не должен менять хранилище на время сброса.
+     */
+    synchronized void reset() throws IOException {
+        // Дальше записанного в первом сегменте уже нули, старые записи за новыми не всплывут
+        int written = segment == 0 ? position : segmentSize;
+        MappedByteBuffer buffer = segments.get(0);
+        for (int i = 0; i < written; i++) {
+            buffer.put(i, (byte) 0);
+        }
+        buffer.force();
+        segments.subList(1, segments.size()).clear();
+        channel.truncate(segmentSize);
+        log.info("Storage journal {} reset: {} records checkpointed", path, records);
+        segment = 0;
+        position = 0;
+        records = 0;
+    }
+
+    public synchronized void force() {
+        segments.forEach(MappedByteBuffer::force);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        force();
+        channel.close();
+    }
+}
@@ -0,0 +1,22 @@
+package com.edu.ulab.app.storage;
+
+import java.util.Objects;
+
+/**
+ * Ограничения строк в ячейках {@link RecordSegments}: те же 50 символов, что varchar(50) в БД.
+ */
+final class StorageStrings {
+    static final int MAX_LENGTH = 50;
+    // Символ UTF-16 занимает в UTF-8 не больше 3 байт
+    static final int CAPACITY = 3 * MAX_LENGTH;
+
+    private StorageStrings() {
+    }
+
+    static String check(String value) {
+        if (Objects.nonNull(value) && value.length() > MAX_LENGTH) {
+            throw new IllegalArgumentException("String is longer than " + MAX_LENGTH + " characters: " + value);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,46 @@
+package com.edu.ulab.app.web;
+
+import com.edu.ulab.app.facade.ReactiveUserDataFacade;
+import com.edu.ulab.app.service.impl.UserBookReaderR2dbc;
+import com.edu.ulab.app.web.constant.WebConstant;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * Чтение через R2DBC рядом с обычными эндпоинтами: Spring MVC отдает {@link Mono} асинхронно,
+ * поток Tomcat освобождается до ответа БД.
+ */
+@Slf4j
+@RestController
+@Profile(UserBookReaderR2dbc.PROFILE)
+@RequestMapping(value = WebConstant.VERSION_URL + "/user",
+        produces = MediaType.APPLICATION_JSON_VALUE)
+public class ReactiveUserController {
+    private final ReactiveUserDataFacade reactiveUserDataFacade;
+
+    public ReactiveUserController(ReactiveUserDataFacade reactiveUserDataFacade) {
+        this.reactiveUserDataFacade = reactiveUserDataFacade;
+    }
+
+    @GetMapping(value = "/reactive/get/{userId}")
+    @Operation(summary = "Get user with books. Non-blocking read through R2DBC.",
+            responses = {
+                    @ApiResponse(description = "User book",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = UserBookResponse.class)))})
+    public Mono<UserBookResponse> getUserWithBooksReactive(@PathVariable Long userId) {
+        return reactiveUserDataFacade.getUserWithBooks(userId)
+                .doOnNext(response -> log.debug("Response with user and his books (reactive): {}", response));
+    }
+}
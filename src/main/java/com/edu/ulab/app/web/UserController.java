@@ -1,20 +1,37 @@
 package com.edu.ulab.app.web;
 
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.BookLoadResult;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.facade.AsyncUserDataFacade;
+import com.edu.ulab.app.facade.BulkUserDataFacade;
 import com.edu.ulab.app.facade.UserDataFacade;
+import com.edu.ulab.app.facade.UserPageFacade;
+import com.edu.ulab.app.service.impl.UserBookExportTemplate;
+import com.edu.ulab.app.service.impl.UserBookJsonWriterTemplate;
 import com.edu.ulab.app.web.constant.WebConstant;
 import com.edu.ulab.app.web.request.create.UserBookRequest;
 import com.edu.ulab.app.web.request.update.UserBookRequestUpdate;
+import com.edu.ulab.app.web.response.KeysetPage;
 import com.edu.ulab.app.web.response.UserBookResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 
-
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.constraints.Pattern;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPOutputStream;
 
 import static com.edu.ulab.app.web.constant.WebConstant.REQUEST_ID_PATTERN;
 import static com.edu.ulab.app.web.constant.WebConstant.RQID;
@@ -24,10 +41,28 @@ import static com.edu.ulab.app.web.constant.WebConstant.RQID;
 @RequestMapping(value = WebConstant.VERSION_URL + "/user",
         produces = MediaType.APPLICATION_JSON_VALUE)
 public class UserController {
+    private static final int EXPORT_GZIP_BUFFER_SIZE = 64 * 1024;
+
     private final UserDataFacade userDataFacade;
+    private final AsyncUserDataFacade asyncUserDataFacade;
+    private final BulkUserDataFacade bulkUserDataFacade;
+    // Нет без БД (профиль storage)
+    private final ObjectProvider<UserBookJsonWriterTemplate> userBookJsonWriter;
+    private final ObjectProvider<UserBookExportTemplate> userBookExport;
+    private final ObjectProvider<UserPageFacade> userPageFacade;
 
-    public UserController(UserDataFacade userDataFacade) {
+    public UserController(UserDataFacade userDataFacade,
+                          AsyncUserDataFacade asyncUserDataFacade,
+                          BulkUserDataFacade bulkUserDataFacade,
+                          ObjectProvider<UserBookJsonWriterTemplate> userBookJsonWriter,
+                          ObjectProvider<UserBookExportTemplate> userBookExport,
+                          ObjectProvider<UserPageFacade> userPageFacade) {
         this.userDataFacade = userDataFacade;
+        this.asyncUserDataFacade = asyncUserDataFacade;
+        this.bulkUserDataFacade = bulkUserDataFacade;
+        this.userBookJsonWriter = userBookJsonWriter;
+        this.userBookExport = userBookExport;
+        this.userPageFacade = userPageFacade;
     }
 
     @PostMapping(value = "/create")
@@ -39,28 +74,194 @@ public class UserController {
     public UserBookResponse createUserWithBooks(@RequestBody UserBookRequest request,
                                                 @RequestHeader(RQID) @Pattern(regexp = REQUEST_ID_PATTERN) final String requestId) {
         UserBookResponse response = userDataFacade.createUserWithBooks(request);
-        log.info("Response with created user and his books: {}", response);
+        log.debug("Response with created user and his books: {}", response);
         return response;
     }
 
     @PutMapping(value = "/update")
     public UserBookResponse updateUserWithBooks(@RequestBody UserBookRequestUpdate request) {
         UserBookResponse response = userDataFacade.updateUserWithBooks(request);
-        log.info("Response with updated user and his books: {}", response);
+        log.debug("Response with updated user and his books: {}", response);
         return response;
     }
 
     @GetMapping(value = "/get/{userId}")
     public UserBookResponse updateUserWithBooks(@PathVariable Long userId) {
         UserBookResponse response = userDataFacade.getUserWithBooks(userId);
-        log.info("Response with user and his books: {}", response);
+        log.debug("Response with user and his books: {}", response);
         return response;
     }
 
+    @GetMapping(value = "/get/{userId}/raw")
+    @Operation(summary = "Get user with books. Body is written from JDBC rows without intermediate objects.",
+            responses = {
+                    @ApiResponse(description = "User book",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = UserBookResponse.class)))})
+    public void getUserWithBooksRaw(@PathVariable Long userId, HttpServletResponse response) throws IOException {
+        UserBookJsonWriterTemplate writer = userBookJsonWriter.getIfAvailable();
+        if (Objects.isNull(writer)){throw new NotFoundException("Raw JSON is not available without database");}
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        int length = writer.writeUserWithBooks(userId, response.getOutputStream());
+        log.info("Response with user and his books (raw): userId {}, bytes {}", userId, length);
+    }
+
+    // Постраничные выборки по ключу: следующая страница - afterId = nextAfterId из ответа
+
+    @GetMapping(value = "/list")
+    @Operation(summary = "Page of users with the given title and their books, ordered by id. "
+            + "Pass nextAfterId of the previous page as afterId.")
+    public KeysetPage<UserBookResponse> getUsersWithBooksByTitle(@RequestParam String title,
+                                                                 @RequestParam(required = false) Long afterId,
+                                                                 @RequestParam(defaultValue = "20") int size) {
+        KeysetPage<UserBookResponse> page = pageFacade().getUsersWithBooksByTitle(title, afterId, size);
+        log.info("Response with users page: {} users, next after id {}", page.getItems().size(), page.getNextAfterId());
+        return page;
+    }
+
+    @GetMapping(value = "/books")
+    @Operation(summary = "Page of books by the given author, ordered by id. "
+            + "Pass nextAfterId of the previous page as afterId.")
+    public KeysetPage<BookDto> getBooksByAuthor(@RequestParam String author,
+                                                @RequestParam(required = false) Long afterId,
+                                                @RequestParam(defaultValue = "20") int size) {
+        KeysetPage<BookDto> page = pageFacade().getBooksByAuthor(author, afterId, size);
+        log.info("Response with books page: {} books, next after id {}", page.getItems().size(), page.getNextAfterId());
+        return page;
+    }
+
+    private UserPageFacade pageFacade() {
+        UserPageFacade facade = userPageFacade.getIfAvailable();
+        if (Objects.isNull(facade)){throw new NotFoundException("Pages are not available without database");}
+        return facade;
+    }
+
+    @PostMapping(value = "/bulk/books",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Load books of existing users from a JSON array or NDJSON stream through PostgreSQL COPY. "
+            + "Books without an existing owner are skipped.")
+    public BookLoadResult loadBooks(HttpServletRequest request) throws IOException {
+        BookLoadResult result = bulkUserDataFacade.loadBooks(request.getInputStream());
+        log.info("Response with loaded books: {}", result);
+        return result;
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export all users with books as NDJSON, one user per line. "
+            + "Gzip compressed when Accept-Encoding allows gzip with a non-zero q-value.")
+    public void exportUsersWithBooks(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                     HttpServletResponse response) throws IOException {
+        UserBookExportTemplate export = userBookExport.getIfAvailable();
+        if (Objects.isNull(export)){throw new NotFoundException("Export is not available without database");}
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        // Тело зависит от Accept-Encoding: кэши не должны отдавать gzip клиенту, который его не принимает
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        long count;
+        if (acceptsGzip(acceptEncoding)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            GZIPOutputStream gzip = new GZIPOutputStream(response.getOutputStream(), EXPORT_GZIP_BUFFER_SIZE);
+            count = export.writeAllUsersWithBooks(gzip);
+            gzip.finish();
+        } else {
+            count = export.writeAllUsersWithBooks(response.getOutputStream());
+        }
+        log.info("Exported users with books: {}", count);
+    }
+
+    /**
+     * Разрешает ли Accept-Encoding сжатие gzip. Явное gzip важнее *, q=0 запрещает кодировку.
+     * Без заголовка ответ не сжимается.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (Objects.isNull(acceptEncoding)) {
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        q = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if ("gzip".equals(name) || "x-gzip".equals(name)) {
+                gzip = q;
+            } else if ("*".equals(name)) {
+                any = q;
+            }
+        }
+        Double q = Objects.nonNull(gzip) ? gzip : any;
+        return Objects.nonNull(q) && q > 0;
+    }
+
+    @PostMapping(value = "/bulk/create",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Create users with books from a JSON array or NDJSON stream of user book requests. "
+            + "Returns a result per request in the same format: user and book ids or an error.")
+    public void createUsersWithBooks(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        boolean ndjson = MediaType.APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(request.getContentType()));
+        response.setContentType(ndjson ? MediaType.APPLICATION_NDJSON_VALUE : MediaType.APPLICATION_JSON_VALUE);
+        long count = bulkUserDataFacade.createUsersWithBooks(request.getInputStream(), response.getOutputStream(), ndjson);
+        log.info("Response with created users and their books (bulk): {} requests", count);
+    }
+
     @DeleteMapping(value = "/delete/{userId}")
     public void deleteUserWithBooks(@PathVariable Long userId) {
         log.info("Delete user and his books:  userId {}", userId);
         userDataFacade.deleteUserWithBooks(userId);
     }
 
+    // Асинхронные варианты: поток Tomcat освобождается сразу, при заполненном пуле фасада ответ 503
+
+    @PostMapping(value = "/async/create")
+    @Operation(summary = "Create user book row on the async executor. 503 when the executor is saturated.",
+            responses = {
+                    @ApiResponse(description = "User book",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = UserBookResponse.class)))})
+    public CompletableFuture<UserBookResponse> createUserWithBooksAsync(@RequestBody UserBookRequest request,
+                                                                        @RequestHeader(RQID) @Pattern(regexp = REQUEST_ID_PATTERN) final String requestId) {
+        return asyncUserDataFacade.createUserWithBooks(request)
+                .whenComplete((response, exc) -> log.debug("Response with created user and his books (async): {}", response));
+    }
+
+    @PutMapping(value = "/async/update")
+    @Operation(summary = "Update user book row on the async executor. 503 when the executor is saturated.",
+            responses = {
+                    @ApiResponse(description = "User book",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = UserBookResponse.class)))})
+    public CompletableFuture<UserBookResponse> updateUserWithBooksAsync(@RequestBody UserBookRequestUpdate request) {
+        return asyncUserDataFacade.updateUserWithBooks(request)
+                .whenComplete((response, exc) -> log.debug("Response with updated user and his books (async): {}", response));
+    }
+
+    @GetMapping(value = "/async/get/{userId}")
+    @Operation(summary = "Get user with books on the async executor, same body as /get/{userId}. "
+            + "503 when the executor is saturated.",
+            responses = {
+                    @ApiResponse(description = "User book",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = UserBookResponse.class)))})
+    public CompletableFuture<UserBookResponse> getUserWithBooksAsync(@PathVariable Long userId) {
+        return asyncUserDataFacade.getUserWithBooks(userId)
+                .whenComplete((response, exc) -> log.debug("Response with user and his books (async): {}", response));
+    }
+
+    @DeleteMapping(value = "/async/delete/{userId}")
+    @Operation(summary = "Delete user with books on the async executor. 503 when the executor is saturated.")
+    public CompletableFuture<Void> deleteUserWithBooksAsync(@PathVariable Long userId) {
+        log.info("Delete user and his books (async):  userId {}", userId);
+        return asyncUserDataFacade.deleteUserWithBooks(userId);
+    }
+
 }
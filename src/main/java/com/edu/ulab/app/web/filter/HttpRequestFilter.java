@@ -1,10 +1,17 @@
 package com.edu.ulab.app.web.filter;
 
+import com.edu.ulab.app.metrics.RequestDbStats;
+import com.edu.ulab.app.metrics.SqlBudgetProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -12,22 +19,97 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import java.io.IOException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Component
 @Validated
 public class HttpRequestFilter extends OncePerRequestFilter {
+    private static final String DB_STATS_ATTRIBUTE = HttpRequestFilter.class.getName() + ".DB_STATS";
+    private static final String STARTED_ATTRIBUTE = HttpRequestFilter.class.getName() + ".STARTED";
+
+    private final MeterRegistry meterRegistry;
+    private final SqlBudgetProperties sqlBudget;
+
+    public HttpRequestFilter(MeterRegistry meterRegistry, SqlBudgetProperties sqlBudget) {
+        this.meterRegistry = meterRegistry;
+        this.sqlBudget = sqlBudget;
+    }
+
+    // Асинхронный запрос (/async/*, /reactive/*) заканчивается на своем dispatch: итог пишется там, один раз.
+    // Запросы R2DBC идут мимо DataSource и в счетчики не попадают
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
     @Override
     protected void doFilterInternal(@Valid final HttpServletRequest request,
                                     final HttpServletResponse response,
                                     final FilterChain filterChain) throws ServletException, IOException {
         String requestId = request.getHeader("rqid");
         MDC.put("requestId", requestId);
-        log.info("RequestId : {}", requestId);
+        RequestDbStats dbStats;
+        long started;
+        if (isAsyncDispatch(request)) {
+            dbStats = (RequestDbStats) request.getAttribute(DB_STATS_ATTRIBUTE);
+            started = (Long) request.getAttribute(STARTED_ATTRIBUTE);
+            RequestDbStats.resume(dbStats);
+        } else {
+            dbStats = RequestDbStats.start();
+            started = System.nanoTime();
+        }
         try {
             filterChain.doFilter(request, response);
         } finally {
+            if (request.isAsyncStarted()) {
+                // Обращения к БД продолжатся на потоках пула фасада (RequestDbStats.propagate)
+                request.setAttribute(DB_STATS_ATTRIBUTE, dbStats);
+                request.setAttribute(STARTED_ATTRIBUTE, started);
+            } else {
+                recordDbStats(request, dbStats);
+                // Одна строка на запрос вместо содержимого DTO: ключ=значение для поиска и разбора логов
+                if (log.isInfoEnabled()) {
+                    log.info("method={} uri={} status={} durationMs={} dbStatements={} dbTimeMs={}",
+                            request.getMethod(), uri(request), response.getStatus(),
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started),
+                            dbStats.getStatements(), TimeUnit.NANOSECONDS.toMillis(dbStats.getStatementNanos()));
+                }
+            }
+            RequestDbStats.finish();
             MDC.remove("requestId");
         }
     }
+
+    private void recordDbStats(HttpServletRequest request, RequestDbStats dbStats) {
+        Tags tags = Tags.of("method", request.getMethod(), "uri", uri(request));
+        DistributionSummary.builder("http.server.requests.db.connections")
+                .description("Connections acquired from the pool per HTTP request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(dbStats.getConnections());
+        DistributionSummary.builder("http.server.requests.db.statements")
+                .description("SQL statements per HTTP request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(dbStats.getStatements());
+        Timer.builder("http.server.requests.db.time")
+                .description("SQL statements time per HTTP request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(Duration.ofNanos(dbStats.getStatementNanos()));
+        // requestId в MDC: по нему в логе находятся все запросы к БД этого HTTP запроса
+        if (sqlBudget.getMode() != SqlBudgetProperties.Mode.OFF && dbStats.isOverBudget()) {
+            log.warn("SQL statement budget exceeded: {} executed {} statements, budget {}",
+                    dbStats.getEndpoint(), dbStats.getStatements(), dbStats.getStatementBudget());
+        }
+    }
+
+    // Шаблон пути, а не сам путь: число значений тега не растет с числом id
+    static String uri(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return Objects.isNull(pattern) ? "UNKNOWN" : pattern.toString();
+    }
 }
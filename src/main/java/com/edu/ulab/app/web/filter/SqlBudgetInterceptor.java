@@ -0,0 +1,33 @@
+package com.edu.ulab.app.web.filter;
+
+import com.edu.ulab.app.metrics.RequestDbStats;
+import com.edu.ulab.app.metrics.SqlBudgetProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Objects;
+
+/**
+ * Выставляет {@link RequestDbStats} текущего запроса бюджет SQL запросов его эндпоинта.
+ * Эндпоинт - метод и шаблон пути: он известен только после выбора контроллера, поэтому здесь, а не в фильтре.
+ */
+@Component
+public class SqlBudgetInterceptor implements HandlerInterceptor {
+    private final SqlBudgetProperties budget;
+
+    public SqlBudgetInterceptor(SqlBudgetProperties budget) {
+        this.budget = budget;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestDbStats stats = RequestDbStats.current();
+        if (Objects.nonNull(stats) && budget.getMode() != SqlBudgetProperties.Mode.OFF) {
+            String endpoint = request.getMethod() + " " + HttpRequestFilter.uri(request);
+            stats.limit(endpoint, budget.budgetFor(endpoint), budget.getMode() == SqlBudgetProperties.Mode.REJECT);
+        }
+        return true;
+    }
+}
@@ -2,18 +2,22 @@ package com.edu.ulab.app.web.handler;
 
 import com.edu.ulab.app.exception.BadRequestExceptionUpdate;
 import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.exception.SqlBudgetExceededException;
 import com.edu.ulab.app.web.response.BaseWebResponse;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionSystemException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.client.HttpClientErrorException;
 
 import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 
@@ -34,6 +38,34 @@ public class ControllerExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                 .body(new BaseWebResponse(createErrorMessage(exc)));
     }
+    // Пул асинхронных операций и его очередь заполнены
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<BaseWebResponse> handleRejectedExecutionException(@NonNull final RejectedExecutionException exc) {
+        log.error(exc.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new BaseWebResponse(createErrorMessage(exc)));
+    }
+
+    // Запрос к БД сверх бюджета эндпоинта (ulab.sql-budget.mode: reject)
+    @ExceptionHandler(SqlBudgetExceededException.class)
+    public ResponseEntity<BaseWebResponse> handleSqlBudgetExceededException(@NonNull final SqlBudgetExceededException exc) {
+        log.error(exc.getMessage());
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new BaseWebResponse(createErrorMessage(exc)));
+    }
+
+    // Запрос сверх бюджета при flush на commit приходит обернутым: TransactionSystemException -> RollbackException
+    @ExceptionHandler(TransactionSystemException.class)
+    public ResponseEntity<BaseWebResponse> handleTransactionSystemException(@NonNull final TransactionSystemException exc) {
+        SqlBudgetExceededException overBudget = ExceptionUtils.throwableOfType(exc, SqlBudgetExceededException.class);
+        if (Objects.nonNull(overBudget)) {
+            return handleSqlBudgetExceededException(overBudget);
+        }
+        log.error(exc.getMessage());
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new BaseWebResponse(createErrorMessage(exc)));
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<BaseWebResponse> handleMethodArgumentNotValidExceptionException(@NonNull final MethodArgumentNotValidException exc) {
         log.error(exc.getMessage());
@@ -0,0 +1,43 @@
+package com.edu.ulab.app.web.handler;
+
+import com.edu.ulab.app.metrics.RequestDbStats;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Заголовки ответа с обращениями к БД за запрос: {@value #STATEMENTS_HEADER} и {@value #TIME_HEADER}.
+ * Ставятся перед записью тела, поэтому есть только у ответов через @ResponseBody/ResponseEntity:
+ * потоковые ответы (/export, /get/{userId}/raw, /bulk/create) пишут тело сами.
+ */
+@ControllerAdvice
+public class DbStatsResponseBodyAdvice implements ResponseBodyAdvice<Object> {
+    public static final String STATEMENTS_HEADER = "X-Db-Statements";
+    public static final String TIME_HEADER = "X-Db-Time-Ms";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        RequestDbStats stats = RequestDbStats.current();
+        if (Objects.nonNull(stats)) {
+            response.getHeaders().set(STATEMENTS_HEADER, String.valueOf(stats.getStatements()));
+            response.getHeaders().set(TIME_HEADER, String.format(Locale.ROOT, "%.3f",
+                    stats.getStatementNanos() / (double) TimeUnit.MILLISECONDS.toNanos(1)));
+        }
+        return body;
+    }
+}
@@ -0,0 +1,19 @@
+package com.edu.ulab.app.web.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Страница постраничной выборки по ключу. Следующая страница запрашивается с {@code afterId = nextAfterId},
+ * на последней странице nextAfterId пустой.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class KeysetPage<T> {
+    private List<T> items;
+    private Long nextAfterId;
+}
@@ -0,0 +1,27 @@
+package com.edu.ulab.app.web.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Результат создания одного пользователя из пакетного запроса: id или текст ошибки.
+ * index - номер элемента во входном потоке, начиная с 0.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserBookBulkResult {
+    private long index;
+    private Long userId;
+    private List<Long> bookIds;
+    private String error;
+
+    public static UserBookBulkResult failed(long index, String error) {
+        return new UserBookBulkResult(index, null, null, error);
+    }
+}
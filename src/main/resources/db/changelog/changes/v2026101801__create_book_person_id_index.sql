@@ -0,0 +1,6 @@
+CREATE INDEX idx_ulab_edu_book_person_id on ulab_edu.book (person_id);
+
+-- ON DELETE CASCADE: удаление пользователя в обход сервиса не оставляет его книги
+alter table ulab_edu.book
+    add constraint fk_ulab_edu_book_person_id foreign key (person_id) references ulab_edu.person (id)
+        on delete cascade;
@@ -0,0 +1,6 @@
+-- Постраничные выборки "where title = ? and id > ? order by id limit ?" читают только нужный диапазон индекса
+-- без сортировки; индекс только по title такие запросы тоже покрывает, поэтому заменяется
+drop index ulab_edu.idx_ulab_edu_person_title;
+create index idx_ulab_edu_person_title_id on ulab_edu.person (title, id);
+
+create index idx_ulab_edu_book_author_id on ulab_edu.book (author, id);
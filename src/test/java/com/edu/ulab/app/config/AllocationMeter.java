@@ -0,0 +1,37 @@
+package com.edu.ulab.app.config;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Замер памяти, выделенной текущим потоком на одну операцию (HotSpot ThreadMXBean), и времени на одну операцию.
+ */
+public final class AllocationMeter {
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private AllocationMeter() {
+    }
+
+    public static long bytesPerOperation(int warmups, int iterations, Runnable operation) {
+        for (int i = 0; i < warmups; i++) {
+            operation.run();
+        }
+        long threadId = Thread.currentThread().getId();
+        long before = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            operation.run();
+        }
+        return (THREAD_MX_BEAN.getThreadAllocatedBytes(threadId) - before) / iterations;
+    }
+
+    public static long nanosPerOperation(int warmups, int iterations, Runnable operation) {
+        for (int i = 0; i < warmups; i++) {
+            operation.run();
+        }
+        long before = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            operation.run();
+        }
+        return (System.nanoTime() - before) / iterations;
+    }
+}
@@ -0,0 +1,45 @@
+package com.edu.ulab.app.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тестирование регионов кэша второго уровня {@link CacheConfig}.
+ */
+@DisplayName("Testing second-level cache configuration.")
+public class CacheConfigTest {
+    private final CacheConfig cacheConfig = new CacheConfig();
+
+    @Test
+    @DisplayName("Регионы создаются из application.conf, метрики hit/miss считаются.")
+    void regions_Test() {
+        //given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        try (CacheManager cacheManager = cacheConfig.jCacheManager()) {
+            cacheConfig.jCacheMetrics(cacheManager).bindTo(registry);
+            Cache<Object, Object> person = cacheManager.getCache(CacheConfig.PERSON_REGION);
+
+            //when
+            person.put(1L, "person");
+            person.get(1L);
+            person.get(2L);
+
+            //then
+            assertThat(cacheManager.getCache(CacheConfig.BOOK_REGION)).isNotNull();
+            assertThat(cacheManager.getCache(CacheConfig.QUERY_RESULTS_REGION)).isNotNull();
+            assertThat(cacheManager.getCache(CacheConfig.UPDATE_TIMESTAMPS_REGION)).isNotNull();
+            assertThat(registry.get("cache.gets").tag("cache", CacheConfig.PERSON_REGION)
+                    .tag("result", "hit").functionCounter().count()).isEqualTo(1);
+            assertThat(registry.get("cache.gets").tag("cache", CacheConfig.PERSON_REGION)
+                    .tag("result", "miss").functionCounter().count()).isEqualTo(1);
+            assertThat(registry.get("cache.evictions").tag("cache", CacheConfig.PERSON_REGION)
+                    .functionCounter()).isNotNull();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.edu.ulab.app.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Запросы, отправленные в БД из текущего потока между {@link #start()} и {@link #stop()}, с параметрами:
+ * для EXPLAIN ровно того SQL, что сгенерировал Hibernate. Подключен к DataSource в {@link PostgreSqlContainerConfig}.
+ */
+public class CapturedSqlListener implements QueryExecutionListener {
+    private static final ThreadLocal<List<CapturedSql>> CAPTURED = new ThreadLocal<>();
+
+    public static void start() {
+        CAPTURED.set(new ArrayList<>());
+    }
+
+    public static List<CapturedSql> stop() {
+        List<CapturedSql> captured = CAPTURED.get();
+        CAPTURED.remove();
+        return Objects.isNull(captured) ? List.of() : captured;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        List<CapturedSql> captured = CAPTURED.get();
+        if (Objects.isNull(captured)) {
+            return;
+        }
+        for (QueryInfo queryInfo : queryInfoList) {
+            if (queryInfo.getParametersList().isEmpty()) {
+                captured.add(new CapturedSql(queryInfo.getQuery(), new Object[0]));
+            }
+            // Batch - по строке на каждый набор параметров
+            for (List<ParameterSetOperation> parameters : queryInfo.getParametersList()) {
+                captured.add(new CapturedSql(queryInfo.getQuery(), parameterValues(parameters)));
+            }
+        }
+    }
+
+    // Аргументы setXxx(index, value) в порядке индекса; для setNull значение null
+    private static Object[] parameterValues(List<ParameterSetOperation> parameters) {
+        Map<Integer, Object> byIndex = new TreeMap<>();
+        for (ParameterSetOperation parameter : parameters) {
+            Object[] args = parameter.getArgs();
+            if (args.length > 1 && args[0] instanceof Integer index) {
+                byIndex.put(index, ParameterSetOperation.isSetNullParameterOperation(parameter) ? null : args[1]);
+            }
+        }
+        return byIndex.values().toArray();
+    }
+
+    public record CapturedSql(String sql, Object[] parameters) {
+    }
+}
@@ -7,6 +7,7 @@ import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.utility.DockerImageName;
@@ -23,6 +24,7 @@ public class PostgreSqlContainerConfig {
     private static final String PASSWORD = "mysecretpassword";
     private static final String POSTGRESQL_DRIVER_CLASS_NAME = "org.postgresql.Driver";
     private static final String JDBC_URL_FORMAT = "jdbc:postgresql://%s:%s/%s";
+    private static final String R2DBC_URL_FORMAT = "r2dbc:postgresql://%s:%s/%s";
 
     private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>(
             DockerImageName.parse(IMAGE_VERSION).asCompatibleSubstituteFor("postgres"))
@@ -37,7 +39,7 @@ public class PostgreSqlContainerConfig {
     @Bean
     public DataSource dataSource() {
         String connectionUrl = String.format(JDBC_URL_FORMAT,
-                POSTGRES.getContainerIpAddress(),
+                POSTGRES.getHost(),
                 POSTGRES.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT),
                 POSTGRES.getDatabaseName());
 
@@ -50,11 +52,22 @@ public class PostgreSqlContainerConfig {
         return proxyListenerDataSource(dataSource);
     }
 
+    // Адрес и учетные данные той же БД для R2DBC (UserBookReaderR2dbc), для @DynamicPropertySource
+    public static void r2dbcProperties(DynamicPropertyRegistry registry) {
+        registry.add("ulab.r2dbc.url", () -> String.format(R2DBC_URL_FORMAT,
+                POSTGRES.getHost(),
+                POSTGRES.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT),
+                POSTGRES.getDatabaseName()));
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
     private DataSource proxyListenerDataSource(final DataSource dataSource) {
         ChainListener listener = new ChainListener();
         SLF4JQueryLoggingListener loggingListener = new SLF4JQueryLoggingListener();
         listener.addListener(loggingListener);
         listener.addListener(new DataSourceQueryCountListener());
+        listener.addListener(new CapturedSqlListener());
 
         return ProxyDataSourceBuilder
                 .create(dataSource)
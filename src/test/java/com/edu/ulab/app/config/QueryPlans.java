@@ -0,0 +1,34 @@
+package com.edu.ulab.app.config;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Планы запросов для тестов индексов: EXPLAIN SQL, который репозиторий действительно отправил в БД.
+ */
+public final class QueryPlans {
+
+    private QueryPlans() {
+    }
+
+    public static String explain(JdbcTemplate jdbcTemplate, String sql, Object... args) {
+        List<String> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, args);
+        return String.join("\n", plan);
+    }
+
+    // План единственного запроса, выполненного repositoryCall; кэш второго уровня должен быть пуст
+    public static String explainQueryOf(JdbcTemplate jdbcTemplate, Runnable repositoryCall) {
+        CapturedSqlListener.start();
+        List<CapturedSqlListener.CapturedSql> captured;
+        try {
+            repositoryCall.run();
+        } finally {
+            captured = CapturedSqlListener.stop();
+        }
+        assertThat(captured).as("SQL of the repository call").hasSize(1);
+        return explain(jdbcTemplate, captured.get(0).sql(), captured.get(0).parameters());
+    }
+}
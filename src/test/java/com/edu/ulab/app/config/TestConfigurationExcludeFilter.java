@@ -0,0 +1,24 @@
+package com.edu.ulab.app.config;
+
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+
+/**
+ * Для приложения, запущенного с classpath тестов (бенчмарки, нагрузочный тест):
+ * тестовые конфигурации ({@link TestConfiguration}, например Testcontainers) не попадают в сканирование компонентов.
+ */
+public class TestConfigurationExcludeFilter extends TypeExcludeFilter {
+
+    public static void register(ConfigurableApplicationContext applicationContext) {
+        applicationContext.getBeanFactory().registerSingleton(TestConfigurationExcludeFilter.class.getName(),
+                new TestConfigurationExcludeFilter());
+    }
+
+    @Override
+    public boolean match(MetadataReader metadataReader, MetadataReaderFactory metadataReaderFactory) {
+        return metadataReader.getAnnotationMetadata().hasAnnotation(TestConfiguration.class.getName());
+    }
+}
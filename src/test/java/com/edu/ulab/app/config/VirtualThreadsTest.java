@@ -0,0 +1,22 @@
+package com.edu.ulab.app.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тестирование {@link VirtualThreads}. Пропускную способность на виртуальных потоках меряет нагрузочный тест
+ * (mvn -P loadtest test на JDK 21+, server-threads=platform,virtual), а не этот класс.
+ */
+@UnitTest
+@DisplayName("Testing virtual threads.")
+public class VirtualThreadsTest {
+
+    @Test
+    @DisplayName("Виртуальные потоки есть только на JDK 21+.")
+    void availability_Test() {
+        assertThat(VirtualThreads.newPerTaskExecutor().isPresent())
+                .isEqualTo(Runtime.version().feature() >= 21);
+    }
+}
@@ -0,0 +1,100 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.config.UnitTest;
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тестирование асинхронного фасада {@link AsyncUserDataFacade}.
+ */
+@UnitTest
+@DisplayName("Testing async facade.")
+public class AsyncUserDataFacadeTest {
+    @Mock
+    UserDataFacade userDataFacade;
+
+    AsyncUserDataFacade asyncUserDataFacade;
+
+    private AsyncUserDataFacade facade(int poolSize, int queueCapacity) {
+        asyncUserDataFacade = new AsyncUserDataFacade(userDataFacade, new SimpleMeterRegistry(),
+                poolSize, queueCapacity);
+        return asyncUserDataFacade;
+    }
+
+    @AfterEach
+    void tearDown() {
+        asyncUserDataFacade.destroy();
+    }
+
+    @Test
+    @DisplayName("Получение пользователя с книгами. Читает синхронный фасад (кэш, одна транзакция) на пуле фасада.")
+    void getUserWithBooks_Test() throws Exception {
+        //given
+        AsyncUserDataFacade facade = facade(2, 10);
+        UserBookResponse expected = new UserBookResponse(1L, "test name", "test title", 11,
+                List.of(new BookDto(1L, 1L, "title", "author", 10)));
+        Thread caller = Thread.currentThread();
+
+        //when
+        when(userDataFacade.getUserWithBooks(1L)).thenAnswer(invocation -> {
+            assertThat(Thread.currentThread()).isNotSameAs(caller);
+            return expected;
+        });
+
+        //then
+        assertThat(facade.getUserWithBooks(1L).get(5, TimeUnit.SECONDS)).isEqualTo(expected);
+        verify(userDataFacade).getUserWithBooks(1L);
+    }
+
+    @Test
+    @DisplayName("Пользователь не найден. Future завершается NotFoundException.")
+    void getMissingUser_Test() {
+        //given
+        AsyncUserDataFacade facade = facade(2, 10);
+
+        //when
+        when(userDataFacade.getUserWithBooks(1L)).thenThrow(new NotFoundException("User not found"));
+
+        //then
+        assertThatThrownBy(() -> facade.getUserWithBooks(1L).get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Пул и очередь заполнены. Новая операция отклоняется сразу.")
+    void saturatedExecutor_Test() throws Exception {
+        //given
+        AsyncUserDataFacade facade = facade(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> release.await(5, TimeUnit.SECONDS)).when(userDataFacade).deleteUserWithBooks(1L);
+
+        //when
+        CompletableFuture<Void> running = facade.deleteUserWithBooks(1L);
+        CompletableFuture<Void> queued = facade.deleteUserWithBooks(1L);
+
+        //then
+        assertThatThrownBy(() -> facade.deleteUserWithBooks(1L)).isInstanceOf(RejectedExecutionException.class);
+        release.countDown();
+        CompletableFuture.allOf(running, queued).get(5, TimeUnit.SECONDS);
+    }
+}
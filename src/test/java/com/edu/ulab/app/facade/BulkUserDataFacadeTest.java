@@ -0,0 +1,183 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.config.UnitTest;
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.mapper.BookMapperImpl;
+import com.edu.ulab.app.mapper.UserMapperImpl;
+import com.edu.ulab.app.service.impl.BookCopyLoaderTemplate;
+import com.edu.ulab.app.service.impl.SequenceIdAllocator;
+import com.edu.ulab.app.service.impl.UserBulkWriterTemplate;
+import com.edu.ulab.app.web.response.UserBookBulkResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Тестирование пакетного создания пользователей {@link BulkUserDataFacade}.
+ */
+@UnitTest
+@DisplayName("Testing bulk user data facade.")
+public class BulkUserDataFacadeTest {
+    private static final String USER = "{\"userRequest\":{\"fullName\":\"user %d\",\"title\":\"reader\",\"age\":30},"
+            + "\"bookRequests\":[{\"title\":\"book\",\"author\":\"author\",\"pageCount\":10},{}]}";
+
+    @Mock
+    UserDataFacade userDataFacade;
+    @Mock
+    UserBulkWriterTemplate bulkWriter;
+    @Mock
+    SequenceIdAllocator personIdAllocator;
+    @Mock
+    SequenceIdAllocator bookIdAllocator;
+    @Mock
+    UserBookResponseCache responseCache;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private BulkUserDataFacade bulkUserDataFacade;
+
+    @BeforeEach
+    void setUp() {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("userBulkWriterTemplate", bulkWriter);
+        bulkUserDataFacade = new BulkUserDataFacade(userDataFacade,
+                beanFactory.getBeanProvider(UserBulkWriterTemplate.class),
+                beanFactory.getBeanProvider(BookCopyLoaderTemplate.class), responseCache,
+                new UserMapperImpl(), new BookMapperImpl(), objectMapper, 2);
+        AtomicLong personIds = new AtomicLong(100);
+        AtomicLong bookIds = new AtomicLong(500);
+        lenient().when(bulkWriter.personIdAllocator()).thenReturn(personIdAllocator);
+        lenient().when(bulkWriter.bookIdAllocator()).thenReturn(bookIdAllocator);
+        lenient().when(personIdAllocator.next()).thenAnswer(invocation -> personIds.getAndIncrement());
+        lenient().when(bookIdAllocator.next()).thenAnswer(invocation -> bookIds.getAndIncrement());
+    }
+
+    private List<UserBookBulkResult> create(String body, boolean ndjson) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bulkUserDataFacade.createUsersWithBooks(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), out, ndjson);
+        if (ndjson) {
+            return objectMapper.readerFor(UserBookBulkResult.class)
+                    .<UserBookBulkResult>readValues(out.toByteArray()).readAll();
+        }
+        return List.of(objectMapper.readValue(out.toByteArray(), UserBookBulkResult[].class));
+    }
+
+    @Test
+    @DisplayName("Создание из JSON массива пачками по 2. Id из sequence своей таблицы, пустые книги пропускаются.")
+    void createFromArray_Test() throws IOException {
+        //given
+        String body = "[" + String.format(USER, 1) + "," + String.format(USER, 2) + ","
+                + String.format(USER, 3) + "]";
+
+        //when
+        List<UserBookBulkResult> results = create(body, false);
+
+        //then
+        assertEquals(3, results.size());
+        assertEquals(new UserBookBulkResult(0, 100L, List.of(500L), null), results.get(0));
+        assertEquals(new UserBookBulkResult(1, 101L, List.of(501L), null), results.get(1));
+        assertEquals(new UserBookBulkResult(2, 102L, List.of(502L), null), results.get(2));
+        verify(bulkWriter, times(2)).insertUsersWithBooks(anyList(), anyList());
+        verify(personIdAllocator).reserve(2);
+        verify(bookIdAllocator).reserve(2);
+        verify(personIdAllocator).reserve(1);
+        verify(bookIdAllocator).reserve(1);
+    }
+
+    @Test
+    @DisplayName("Создание из NDJSON с пустым элементом. Ошибка только у него.")
+    void createFromNdjson_Test() throws IOException {
+        //given
+        String body = String.format(USER, 1) + "\n{}\n" + String.format(USER, 2) + "\n";
+
+        //when
+        List<UserBookBulkResult> results = create(body, true);
+
+        //then
+        assertEquals(3, results.size());
+        assertEquals(100L, results.get(0).getUserId());
+        assertEquals(UserBookBulkResult.failed(1, "userRequest is null"), results.get(1));
+        assertEquals(101L, results.get(2).getUserId());
+    }
+
+    @Test
+    @DisplayName("Пачка не записалась. Элементы повторяются по одному, ошибка только у плохого.")
+    void retryOneByOne_Test() throws IOException {
+        //given
+        // Вторая запись без имени: падает и пачка, и она сама
+        doAnswer(invocation -> {
+            List<UserDto> users = invocation.getArgument(0);
+            if (users.stream().anyMatch(userDto -> userDto.getFullName() == null)) {
+                throw new DataIntegrityViolationException(users.size() > 1 ? "batch failed" : "null full_name");
+            }
+            return null;
+        }).when(bulkWriter).insertUsersWithBooks(anyList(), anyList());
+        String body = "[" + String.format(USER, 1) + ",{\"userRequest\":{\"age\":1}}]";
+
+        //when
+        List<UserBookBulkResult> results = create(body, false);
+
+        //then
+        assertEquals(100L, results.get(0).getUserId());
+        assertNull(results.get(0).getError());
+        assertEquals(UserBookBulkResult.failed(1, "null full_name"), results.get(1));
+    }
+
+    @Test
+    @DisplayName("Неразбираемый элемент. Предыдущие созданы, импорт завершается ошибкой на его номере.")
+    void malformedRequest_Test() throws IOException {
+        //given
+        String body = String.format(USER, 1) + "\n{\"userRequest\":\n";
+
+        //when
+        List<UserBookBulkResult> results = create(body, true);
+
+        //then
+        assertEquals(2, results.size());
+        assertEquals(100L, results.get(0).getUserId());
+        assertEquals(1, results.get(1).getIndex());
+        verify(bulkWriter).insertUsersWithBooks(
+                argThat((List<UserDto> users) -> users.size() == 1), argThat((List<BookDto> books) -> books.size() == 1));
+    }
+
+    @Test
+    @DisplayName("Без БД (профиль storage). Элементы создаются по одному через фасад.")
+    void createWithoutDatabase_Test() throws IOException {
+        //given
+        BulkUserDataFacade storageFacade = new BulkUserDataFacade(userDataFacade,
+                new StaticListableBeanFactory().getBeanProvider(UserBulkWriterTemplate.class),
+                new StaticListableBeanFactory().getBeanProvider(BookCopyLoaderTemplate.class), responseCache,
+                new UserMapperImpl(), new BookMapperImpl(), objectMapper, 2);
+        when(userDataFacade.createUserWithBooks(any())).thenReturn(
+                UserDataFacade.mapUserBookResponse(new UserDto(7L, "user", "reader", 30),
+                        List.of(new BookDto(8L, 7L, "book", "author", 10))));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //when
+        storageFacade.createUsersWithBooks(new ByteArrayInputStream(
+                ("[" + String.format(USER, 1) + "]").getBytes(StandardCharsets.UTF_8)), out, false);
+
+        //then
+        UserBookBulkResult[] results = objectMapper.readValue(out.toByteArray(), UserBookBulkResult[].class);
+        assertEquals(new UserBookBulkResult(0, 7L, List.of(8L), null), results[0]);
+        verifyNoInteractions(bulkWriter);
+    }
+}
@@ -0,0 +1,139 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Тестирование кэша ответов фасада {@link UserBookResponseCache}.
+ */
+@DisplayName("Testing user book response cache.")
+public class UserBookResponseCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Function<Long, UserBookResponse> loader = userId -> {
+        loads.incrementAndGet();
+        return UserBookResponse.builder()
+                .userId(userId)
+                .fullName("test name")
+                .bookList(List.of(new BookDto(1L, userId, "title", "author", 10)))
+                .build();
+    };
+
+    @Test
+    @DisplayName("Повторное чтение из кэша, после вытеснения ответ собирается заново.")
+    void getAndEvict_Test() {
+        //given
+        UserBookResponseCache cache = new UserBookResponseCache(true, 100, Duration.ofMinutes(1));
+
+        //when
+        UserBookResponse first = cache.get(1L, loader);
+        UserBookResponse second = cache.get(1L, loader);
+        cache.evict(1L);
+        cache.get(1L, loader);
+
+        //then
+        assertEquals(first, second);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Изменение полученного ответа. Не затрагивает закэшированный ответ.")
+    void mutateCachedResponse_Test() {
+        //given
+        UserBookResponseCache cache = new UserBookResponseCache(true, 100, Duration.ofMinutes(1));
+        UserBookResponse first = cache.get(1L, loader);
+
+        //when
+        first.setFullName("changed");
+        first.getBookList().get(0).setTitle("changed");
+        UserBookResponse second = cache.get(1L, loader);
+        second.getBookList().get(0).setPageCount(0);
+        UserBookResponse third = cache.get(1L, loader);
+
+        //then
+        assertNotSame(second, third);
+        assertEquals("test name", third.getFullName());
+        assertEquals("title", third.getBookList().get(0).getTitle());
+        assertEquals(10, third.getBookList().get(0).getPageCount());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Долгая загрузка одного ключа. Чтение других ключей не ждет ее.")
+    void slowLoadDoesNotBlockOtherKeys_Test() throws Exception {
+        //given
+        UserBookResponseCache cache = new UserBookResponseCache(true, 100, Duration.ofMinutes(1));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<UserBookResponse> slow = CompletableFuture.supplyAsync(() -> cache.get(1L, userId -> {
+            loading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return loader.apply(userId);
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        //when
+        // Ключи из одной корзины хэш-таблицы при загрузке внутри compute ждали бы друг друга
+        CompletableFuture<Void> others = CompletableFuture.runAsync(() -> {
+            for (long userId = 2; userId < 100; userId++) {
+                cache.get(userId, loader);
+            }
+        });
+
+        //then
+        others.get(5, TimeUnit.SECONDS);
+        release.countDown();
+        assertEquals(1L, slow.get(5, TimeUnit.SECONDS).getUserId());
+        assertEquals(99, loads.get());
+    }
+
+    @Test
+    @DisplayName("Вытеснение во время загрузки. Загруженный ответ не остается в кэше.")
+    void evictDuringLoad_Test() {
+        //given
+        UserBookResponseCache cache = new UserBookResponseCache(true, 100, Duration.ofMinutes(1));
+
+        //when
+        cache.get(1L, userId -> {
+            cache.evict(userId);
+            return loader.apply(userId);
+        });
+        cache.get(1L, loader);
+
+        //then
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Выключенный кэш всегда собирает ответ заново.")
+    void disabled_Test() {
+        //given
+        UserBookResponseCache cache = new UserBookResponseCache(false, 100, Duration.ofMinutes(1));
+
+        //when
+        cache.get(1L, loader);
+        cache.get(1L, loader);
+
+        //then
+        assertEquals(2, loads.get());
+    }
+}
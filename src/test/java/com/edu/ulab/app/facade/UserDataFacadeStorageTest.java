@@ -0,0 +1,94 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.config.UnitTest;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.mapper.BookMapperImpl;
+import com.edu.ulab.app.mapper.UserMapperImpl;
+import com.edu.ulab.app.service.impl.BookServiceImplStorage;
+import com.edu.ulab.app.service.impl.UserServiceImplStorage;
+import com.edu.ulab.app.storage.Storage;
+import com.edu.ulab.app.web.request.create.BookRequest;
+import com.edu.ulab.app.web.request.create.UserBookRequest;
+import com.edu.ulab.app.web.request.create.UserRequest;
+import com.edu.ulab.app.web.request.update.BookRequestUpdate;
+import com.edu.ulab.app.web.request.update.UserBookRequestUpdate;
+import com.edu.ulab.app.web.request.update.UserRequestUpdate;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Тесты фасада {@link UserDataFacade} на хранилище в памяти (профиль storage, без БД и транзакций).
+ */
+@UnitTest
+@DisplayName("Testing facade on storage.")
+public class UserDataFacadeStorageTest {
+    Storage storage = new Storage();
+    UserDataFacade userDataFacade = new UserDataFacade(
+            new BookServiceImplStorage(storage),
+            new UserServiceImplStorage(storage),
+            new UserMapperImpl(),
+            new BookMapperImpl(),
+            new UserBookResponseCache(false, 100_000, Duration.ofMinutes(10)),
+            new StaticListableBeanFactory().getBeanProvider(PlatformTransactionManager.class));
+
+    private UserBookRequest userBookRequest() {
+        UserRequest userRequest = new UserRequest();
+        userRequest.setFullName("Test Test");
+        userRequest.setTitle("reader");
+        userRequest.setAge(33);
+
+        BookRequest bookRequest = new BookRequest();
+        bookRequest.setTitle("book");
+        bookRequest.setAuthor("author");
+        bookRequest.setPageCount(100);
+
+        UserBookRequest request = new UserBookRequest();
+        request.setUserRequest(userRequest);
+        request.setBookRequests(List.of(bookRequest, new BookRequest()));
+        return request;
+    }
+
+    @Test
+    @DisplayName("Создать, обновить, получить и удалить юзера с книгами. Должно пройти успешно.")
+    void userWithBooksLifecycle_Test() {
+        //given
+        UserBookResponse created = userDataFacade.createUserWithBooks(userBookRequest());
+
+        UserRequestUpdate userRequest = new UserRequestUpdate();
+        userRequest.setId(created.getUserId());
+        userRequest.setFullName("Updated");
+        userRequest.setTitle("writer");
+        userRequest.setAge(34);
+        BookRequestUpdate newBook = new BookRequestUpdate();
+        newBook.setTitle("new book");
+        newBook.setAuthor("author");
+        newBook.setPageCount(10);
+        UserBookRequestUpdate update = new UserBookRequestUpdate();
+        update.setUserRequest(userRequest);
+        update.setBookRequests(List.of(newBook));
+
+        //when
+        userDataFacade.updateUserWithBooks(update);
+        UserBookResponse response = userDataFacade.getUserWithBooks(created.getUserId());
+
+        //then
+        assertThat(created.getBookList()).hasSize(1);
+        assertThat(response.getFullName()).isEqualTo("Updated");
+        assertThat(response.getBookList())
+                .extracting("title")
+                .containsExactly("book", "new book");
+        userDataFacade.deleteUserWithBooks(created.getUserId());
+        assertThatThrownBy(() -> userDataFacade.getUserWithBooks(created.getUserId()))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessage("User not found");
+    }
+}
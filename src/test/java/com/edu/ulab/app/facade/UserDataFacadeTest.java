@@ -0,0 +1,122 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.config.SystemJpaTest;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.mapper.BookMapperImpl;
+import com.edu.ulab.app.mapper.UserMapperImpl;
+import com.edu.ulab.app.service.impl.BookServiceImpl;
+import com.edu.ulab.app.service.impl.UserServiceImpl;
+import com.edu.ulab.app.web.request.create.BookRequest;
+import com.edu.ulab.app.web.request.create.UserBookRequest;
+import com.edu.ulab.app.web.request.create.UserRequest;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import com.vladmihalcea.sql.SQLStatementCountValidator;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.Rollback;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.stream.IntStream;
+
+import static com.vladmihalcea.sql.SQLStatementCountValidator.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Тесты фасада {@link UserDataFacade}: число запросов на один вызов не зависит от числа книг.
+ */
+@SystemJpaTest
+@Import({UserDataFacade.class, UserBookResponseCache.class, UserServiceImpl.class, BookServiceImpl.class,
+        UserMapperImpl.class, BookMapperImpl.class})
+public class UserDataFacadeTest {
+    @Autowired
+    UserDataFacade userDataFacade;
+    @Autowired
+    TestEntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        SQLStatementCountValidator.reset();
+    }
+
+    private UserBookRequest userBookRequest(int bookCount) {
+        UserRequest userRequest = new UserRequest();
+        userRequest.setFullName("Test Test");
+        userRequest.setTitle("reader");
+        userRequest.setAge(33);
+
+        UserBookRequest request = new UserBookRequest();
+        request.setUserRequest(userRequest);
+        request.setBookRequests(IntStream.range(0, bookCount)
+                .mapToObj(i -> {
+                    BookRequest bookRequest = new BookRequest();
+                    bookRequest.setTitle("book " + i);
+                    bookRequest.setAuthor("author");
+                    bookRequest.setPageCount(100 + i);
+                    return bookRequest;
+                })
+                .toList());
+        return request;
+    }
+
+    @DisplayName("Создать юзера с книгами. Владелец книг не загружается повторно, число select не зависит от числа книг")
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 100})
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql",
+            "classpath:sql/3_insert_book_data.sql"
+    })
+    void createUserWithBooks_thenAssertSelectCount(int bookCount) {
+        //When
+        UserBookResponse response = userDataFacade.createUserWithBooks(userBookRequest(bookCount));
+        entityManager.flush();
+
+        //Then
+        assertThat(response.getBookList()).hasSize(bookCount);
+        // Не больше одного обращения к sequence для юзера и для книг
+        assertThat(QueryCountHolder.getGrandTotal().getSelect()).isLessThanOrEqualTo(2);
+        assertInsertCount(2);
+        assertUpdateCount(0);
+        assertDeleteCount(0);
+    }
+
+    @DisplayName("Удалить юзера с книгами. Два delete без select")
+    @Test
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql",
+            "classpath:sql/3_insert_book_data.sql"
+    })
+    void deleteUserWithBooks_thenAssertDmlCount() {
+        //When
+        userDataFacade.deleteUserWithBooks(1001L);
+        entityManager.flush();
+
+        //Then
+        assertSelectCount(0);
+        assertInsertCount(0);
+        assertUpdateCount(0);
+        assertDeleteCount(2);
+    }
+
+    @DisplayName("Удалить несуществующего юзера. Ошибка NotFoundException")
+    @Test
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql",
+            "classpath:sql/3_insert_book_data.sql"
+    })
+    void deleteMissingUser_thenThrowNotFound() {
+        assertThatThrownBy(() -> userDataFacade.deleteUserWithBooks(999L))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessage("User not found");
+    }
+}
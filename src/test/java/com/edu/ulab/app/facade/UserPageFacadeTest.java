@@ -0,0 +1,92 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.config.SystemJpaTest;
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.web.response.KeysetPage;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import com.vladmihalcea.sql.SQLStatementCountValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.Rollback;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static com.vladmihalcea.sql.SQLStatementCountValidator.assertSelectCount;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тесты постраничных выборок {@link UserPageFacade}: число запросов не зависит от размера страницы.
+ */
+@SystemJpaTest
+@Import(UserPageFacade.class)
+@Sql({"classpath:sql/1_clear_schema.sql",
+        "classpath:sql/2_insert_person_data.sql",
+        "classpath:sql/3_insert_book_data.sql",
+        "classpath:sql/4_insert_large_dataset.sql"
+})
+public class UserPageFacadeTest {
+    @Autowired
+    UserPageFacade userPageFacade;
+
+    @BeforeEach
+    void setUp() {
+        SQLStatementCountValidator.reset();
+    }
+
+    @DisplayName("Страница пользователей с книгами. Два select: пользователи и книги всей страницы")
+    @Test
+    @Rollback
+    void getUsersPage_thenAssertSelectCount() {
+        //When
+        KeysetPage<UserBookResponse> page = userPageFacade.getUsersWithBooksByTitle("reader", 0L, 50);
+
+        //Then
+        assertThat(page.getItems()).hasSize(50);
+        assertThat(page.getItems()).extracting(UserBookResponse::getUserId).isSorted();
+        assertThat(page.getItems().get(0).getUserId()).isEqualTo(1001L);
+        assertThat(page.getItems().get(0).getBookList()).extracting(BookDto::getId).containsExactly(2002L, 3003L);
+        assertThat(page.getItems().subList(1, 50)).allMatch(user -> user.getBookList().size() == 100);
+        assertThat(page.getNextAfterId()).isEqualTo(page.getItems().get(49).getUserId());
+        assertSelectCount(2);
+    }
+
+    @DisplayName("Обход всех страниц пользователей. Каждый пользователь ровно один раз, последняя страница без nextAfterId")
+    @Test
+    @Rollback
+    void walkUsersPages_thenAssertAllUsers() {
+        //Given
+        List<Long> userIds = new ArrayList<>();
+        Long afterId = null;
+
+        //When
+        do {
+            KeysetPage<UserBookResponse> page = userPageFacade.getUsersWithBooksByTitle("reader", afterId, 100);
+            page.getItems().forEach(user -> userIds.add(user.getUserId()));
+            afterId = page.getNextAfterId();
+        } while (Objects.nonNull(afterId));
+
+        //Then
+        assertThat(userIds).hasSize(1001).doesNotHaveDuplicates().isSorted();
+    }
+
+    @DisplayName("Страница книг автора. Один select, размер урезается до максимального")
+    @Test
+    @Rollback
+    void getBooksPage_thenAssertSelectCount() {
+        //When
+        KeysetPage<BookDto> page = userPageFacade.getBooksByAuthor("author 7", 0L, 1000);
+
+        //Then
+        assertThat(page.getItems()).hasSize(100);
+        assertThat(page.getItems()).allMatch(book -> book.getAuthor().equals("author 7"));
+        assertThat(page.getItems()).extracting(BookDto::getId).isSorted();
+        assertThat(page.getNextAfterId()).isEqualTo(page.getItems().get(99).getId());
+        assertSelectCount(1);
+    }
+}
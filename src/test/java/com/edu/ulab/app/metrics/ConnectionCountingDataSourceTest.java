@@ -0,0 +1,53 @@
+package com.edu.ulab.app.metrics;
+
+import com.edu.ulab.app.config.UnitTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тестирование подсчета соединений на запрос {@link ConnectionCountingDataSource}.
+ */
+@UnitTest
+@DisplayName("Testing connection counting.")
+public class ConnectionCountingDataSourceTest {
+    @Mock
+    DataSource dataSource;
+
+    @Mock
+    Connection connection;
+
+    @Test
+    @DisplayName("Одна транзакция на запрос берет из пула одно соединение.")
+    void oneConnectionPerTransaction_Test() throws SQLException {
+        //given
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(true);
+        ConnectionCountingDataSource countingDataSource = new ConnectionCountingDataSource(dataSource);
+        TransactionTemplate transactionTemplate =
+                new TransactionTemplate(new DataSourceTransactionManager(countingDataSource));
+
+        //when
+        RequestDbStats stats = RequestDbStats.start();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                transactionTemplate.executeWithoutResult(inner -> {});
+                transactionTemplate.executeWithoutResult(inner -> {});
+            });
+        } finally {
+            RequestDbStats.finish();
+        }
+
+        //then
+        assertEquals(1, stats.getConnections());
+    }
+}
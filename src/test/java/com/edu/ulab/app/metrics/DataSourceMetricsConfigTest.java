@@ -0,0 +1,57 @@
+package com.edu.ulab.app.metrics;
+
+import com.edu.ulab.app.config.UnitTest;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тестирование обертки пула {@link DataSourceMetricsConfig}: оборачивается только основной пул,
+ * закрытие обертки закрывает пул.
+ */
+@UnitTest
+@DisplayName("Testing data source wrapping.")
+public class DataSourceMetricsConfigTest {
+    private final BeanPostProcessor postProcessor = DataSourceMetricsConfig.connectionCountingDataSourcePostProcessor();
+
+    @Mock
+    DataSource otherDataSource;
+
+    @Test
+    @DisplayName("Основной пул. Оборачивается, пул доступен через unwrap и закрывается вместе с оберткой.")
+    void primaryDataSource_Test() throws IOException, SQLException {
+        //given
+        HikariDataSource pool = new HikariDataSource();
+
+        //when
+        Object bean = postProcessor.postProcessAfterInitialization(pool, DataSourceMetricsConfig.PRIMARY_DATA_SOURCE);
+
+        //then
+        assertThat(bean).isInstanceOf(ConnectionCountingDataSource.class).isInstanceOf(Closeable.class);
+        assertThat(((DataSource) bean).unwrap(HikariDataSource.class)).isSameAs(pool);
+        ((Closeable) bean).close();
+        assertThat(pool.isClosed()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Другой DataSource и уже обернутый пул. Возвращаются как есть.")
+    void otherDataSource_Test() {
+        //given
+        ConnectionCountingDataSource wrapped = new ConnectionCountingDataSource(otherDataSource);
+
+        //then
+        assertThat(postProcessor.postProcessAfterInitialization(otherDataSource, "otherDataSource"))
+                .isSameAs(otherDataSource);
+        assertThat(postProcessor.postProcessAfterInitialization(wrapped, DataSourceMetricsConfig.PRIMARY_DATA_SOURCE))
+                .isSameAs(wrapped);
+    }
+}
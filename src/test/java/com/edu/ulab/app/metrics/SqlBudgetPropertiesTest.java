@@ -0,0 +1,60 @@
+package com.edu.ulab.app.metrics;
+
+import com.edu.ulab.app.web.UserController;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тестирование бюджетов SQL запросов {@link SqlBudgetProperties} из application.yaml.
+ * Ключ с опечаткой не совпал бы ни с одним эндпоинтом, и эндпоинт молча остался бы без бюджета.
+ */
+@DisplayName("Testing SQL statement budgets.")
+public class SqlBudgetPropertiesTest {
+
+    private static SqlBudgetProperties applicationBudget() throws IOException {
+        Binder binder = new Binder(ConfigurationPropertySources.from(
+                new YamlPropertySourceLoader().load("application", new ClassPathResource("application.yaml"))));
+        return binder.bind("ulab.sql-budget", SqlBudgetProperties.class).get();
+    }
+
+    // Эндпоинты контроллера в виде ключа бюджета: метод и шаблон пути без context-path
+    private static Set<String> userControllerEndpoints() {
+        RequestMapping root = AnnotatedElementUtils.findMergedAnnotation(UserController.class, RequestMapping.class);
+        return Arrays.stream(UserController.class.getDeclaredMethods())
+                .map(method -> AnnotatedElementUtils.findMergedAnnotation(method, RequestMapping.class))
+                .filter(Objects::nonNull)
+                .flatMap(mapping -> Arrays.stream(mapping.method())
+                        .flatMap(requestMethod -> Arrays.stream(mapping.path())
+                                .map(path -> requestMethod + " " + root.path()[0] + path)))
+                .collect(Collectors.toSet());
+    }
+
+    @Test
+    @DisplayName("Бюджеты из application.yaml. Каждый ключ - существующий эндпоинт, бюджет положительный.")
+    void endpointBudgets_Test() throws IOException {
+        //given
+        SqlBudgetProperties budget = applicationBudget();
+
+        //then
+        assertThat(budget.getMode()).isEqualTo(SqlBudgetProperties.Mode.LOG);
+        assertThat(budget.getEndpoints()).isNotEmpty();
+        assertThat(userControllerEndpoints()).containsAll(budget.getEndpoints().keySet());
+        assertThat(budget.getEndpoints().values()).allMatch(statements -> statements > 0);
+        assertThat(budget.budgetFor("GET /api/v1/user/get/{userId}")).isEqualTo(3);
+        assertThat(budget.budgetFor("GET /api/v1/user/export")).isEqualTo(budget.getDefaultStatements());
+    }
+}
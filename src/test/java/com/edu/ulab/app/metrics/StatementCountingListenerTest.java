@@ -0,0 +1,121 @@
+package com.edu.ulab.app.metrics;
+
+import com.edu.ulab.app.config.UnitTest;
+import com.edu.ulab.app.exception.SqlBudgetExceededException;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тестирование подсчета SQL запросов на HTTP запрос {@link StatementCountingListener} и бюджета запросов.
+ */
+@UnitTest
+@DisplayName("Testing SQL statement counting.")
+public class StatementCountingListenerTest {
+    @Mock
+    DataSource dataSource;
+
+    @Mock
+    Connection connection;
+
+    @Mock
+    Statement statement;
+
+    private Statement proxyStatement() throws SQLException {
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        DataSource proxy = ProxyDataSourceBuilder.create(dataSource)
+                .listener(new StatementCountingListener())
+                .build();
+        return proxy.getConnection().createStatement();
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestDbStats.finish();
+    }
+
+    @Test
+    @DisplayName("Select и batch считаются по одному обращению к БД, время суммируется.")
+    void countStatements_Test() throws SQLException {
+        //given
+        Statement proxyStatement = proxyStatement();
+        RequestDbStats stats = RequestDbStats.start();
+        stats.limit("GET /api/v1/user/get/{userId}", 3, false);
+
+        //when
+        proxyStatement.execute("select 1");
+        proxyStatement.addBatch("insert into t values (1)");
+        proxyStatement.addBatch("insert into t values (2)");
+        proxyStatement.executeBatch();
+
+        //then
+        assertEquals(2, stats.getStatements());
+        assertTrue(stats.getStatementNanos() > 0);
+        assertFalse(stats.isOverBudget());
+    }
+
+    @Test
+    @DisplayName("Бюджет в режиме log. Запросы выполняются, превышение видно в статистике.")
+    void overBudgetLogged_Test() throws SQLException {
+        //given
+        Statement proxyStatement = proxyStatement();
+        RequestDbStats stats = RequestDbStats.start();
+        stats.limit("GET /api/v1/user/get/{userId}", 1, false);
+
+        //when
+        proxyStatement.execute("select 1");
+        proxyStatement.execute("select 2");
+
+        //then
+        verify(statement, times(2)).execute(anyString());
+        assertEquals(2, stats.getStatements());
+        assertTrue(stats.isOverBudget());
+    }
+
+    @Test
+    @DisplayName("Бюджет в режиме reject. Запрос сверх бюджета не уходит в БД.")
+    void overBudgetRejected_Test() throws SQLException {
+        //given
+        Statement proxyStatement = proxyStatement();
+        RequestDbStats stats = RequestDbStats.start();
+        stats.limit("GET /api/v1/user/get/{userId}", 1, true);
+
+        //when
+        proxyStatement.execute("select 1");
+
+        //then
+        assertThrows(SqlBudgetExceededException.class, () -> proxyStatement.execute("select 2"));
+        verify(statement, times(1)).execute(anyString());
+        assertEquals(1, stats.getStatements());
+    }
+
+    @Test
+    @DisplayName("Вне HTTP запроса запросы не считаются и не ограничиваются.")
+    void noRequest_Test() throws SQLException {
+        //given
+        Statement proxyStatement = proxyStatement();
+
+        //when
+        proxyStatement.execute("select 1");
+
+        //then
+        verify(statement).execute("select 1");
+    }
+}
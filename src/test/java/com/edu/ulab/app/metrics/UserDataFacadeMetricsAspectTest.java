@@ -0,0 +1,117 @@
+package com.edu.ulab.app.metrics;
+
+import com.edu.ulab.app.config.UnitTest;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.facade.UserBookResponseCache;
+import com.edu.ulab.app.facade.UserDataFacade;
+import com.edu.ulab.app.mapper.BookMapperImpl;
+import com.edu.ulab.app.mapper.UserMapperImpl;
+import com.edu.ulab.app.service.impl.BookServiceImplStorage;
+import com.edu.ulab.app.service.impl.BookServiceRouting;
+import com.edu.ulab.app.service.impl.ServiceBackends;
+import com.edu.ulab.app.service.impl.UserServiceImplStorage;
+import com.edu.ulab.app.service.impl.UserServiceRouting;
+import com.edu.ulab.app.storage.Storage;
+import com.edu.ulab.app.web.request.create.BookRequest;
+import com.edu.ulab.app.web.request.create.UserBookRequest;
+import com.edu.ulab.app.web.request.create.UserRequest;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Тестирование метрик фасада {@link UserDataFacadeMetricsAspect} на хранилище в памяти.
+ */
+@UnitTest
+@DisplayName("Testing facade metrics.")
+public class UserDataFacadeMetricsAspectTest {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private UserDataFacade userDataFacade() {
+        Storage storage = new Storage();
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("userServiceImplStorage", new UserServiceImplStorage(storage));
+        beanFactory.addBean("bookServiceImplStorage", new BookServiceImplStorage(storage));
+        ServiceBackends backends = new ServiceBackends("storage", "storage", beanFactory, meterRegistry);
+        UserDataFacade target = new UserDataFacade(
+                new BookServiceRouting(backends),
+                new UserServiceRouting(backends),
+                new UserMapperImpl(),
+                new BookMapperImpl(),
+                new UserBookResponseCache(false, 100_000, Duration.ofMinutes(10)),
+                beanFactory.getBeanProvider(PlatformTransactionManager.class));
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new UserDataFacadeMetricsAspect(meterRegistry, backends));
+        return proxyFactory.getProxy();
+    }
+
+    private UserBookRequest userBookRequest(int bookCount) {
+        UserRequest userRequest = new UserRequest();
+        userRequest.setFullName("Test Test");
+        userRequest.setTitle("reader");
+        userRequest.setAge(33);
+        UserBookRequest request = new UserBookRequest();
+        request.setUserRequest(userRequest);
+        request.setBookRequests(IntStream.range(0, bookCount)
+                .mapToObj(i -> {
+                    BookRequest bookRequest = new BookRequest();
+                    bookRequest.setTitle("book " + i);
+                    bookRequest.setAuthor("author");
+                    bookRequest.setPageCount(100);
+                    return bookRequest;
+                })
+                .toList());
+        return request;
+    }
+
+    @Test
+    @DisplayName("Создать и получить юзера с книгами. Вызовы и книги в ответе замерены по backend и operation.")
+    void createAndGet_Test() {
+        //given
+        UserDataFacade userDataFacade = userDataFacade();
+
+        //when
+        UserBookResponse created = userDataFacade.createUserWithBooks(userBookRequest(3));
+        userDataFacade.getUserWithBooks(created.getUserId());
+
+        //then
+        assertThat(meterRegistry.get("ulab.facade.calls")
+                .tag("backend", "storage").tag("operation", "createUserWithBooks").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("ulab.facade.calls")
+                .tag("backend", "storage").tag("operation", "getUserWithBooks").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("ulab.facade.books")
+                .tag("operation", "createUserWithBooks").summary().totalAmount()).isEqualTo(3);
+        assertThat(meterRegistry.find("ulab.facade.errors").counters()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Получить несуществующего юзера. Ошибка пробрасывается и считается с тегом exception.")
+    void getMissingUser_Test() {
+        //given
+        UserDataFacade userDataFacade = userDataFacade();
+
+        //when
+        assertThatThrownBy(() -> userDataFacade.getUserWithBooks(42L))
+                .isInstanceOf(NotFoundException.class);
+
+        //then
+        assertThat(meterRegistry.get("ulab.facade.errors")
+                .tag("operation", "getUserWithBooks").tag("exception", "NotFoundException").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("ulab.facade.calls")
+                .tag("operation", "getUserWithBooks").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("ulab.backend.errors")
+                .tag("backend", "storage").tag("operation", "user.get").counter().count()).isEqualTo(1);
+    }
+}
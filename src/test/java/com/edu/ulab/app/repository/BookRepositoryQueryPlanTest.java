@@ -0,0 +1,116 @@
+package com.edu.ulab.app.repository;
+
+import com.edu.ulab.app.config.SystemJpaTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.Rollback;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.List;
+
+import static com.edu.ulab.app.config.QueryPlans.explain;
+import static com.edu.ulab.app.config.QueryPlans.explainQueryOf;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Планы запросов {@link BookRepository} на большом наборе данных: фильтры по person_id
+ * должны идти через индекс, а не через последовательное чтение таблицы.
+ * EXPLAIN выполняется для SQL, который сгенерировал Hibernate, с теми же параметрами.
+ */
+@SystemJpaTest
+@Sql({"classpath:sql/1_clear_schema.sql",
+        "classpath:sql/2_insert_person_data.sql",
+        "classpath:sql/3_insert_book_data.sql",
+        "classpath:sql/4_insert_large_dataset.sql"
+})
+public class BookRepositoryQueryPlanTest {
+    private static final String PERSON_ID_INDEX = "idx_ulab_edu_book_person_id";
+    private static final String PRIMARY_KEY_INDEX = "pk_ulab_edu_book_id";
+    private static final long PERSON_ID = 100500L;
+
+    @Autowired
+    BookRepository bookRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    TestEntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        // Запрос из кэша запросов не дошел бы до БД
+        entityManager.getEntityManager().getEntityManagerFactory().getCache()
+                .unwrap(org.hibernate.Cache.class).evictAllRegions();
+    }
+
+    @DisplayName("findByPersonId использует индекс по person_id")
+    @Test
+    @Rollback
+    void findByPersonId_thenAssertIndexScan() {
+        String plan = explainQueryOf(jdbcTemplate, () -> bookRepository.findByPersonId(PERSON_ID));
+
+        assertThat(plan).contains(PERSON_ID_INDEX).doesNotContain("Seq Scan");
+    }
+
+    @DisplayName("findBookDtosByPersonId (чтение /get/{userId}) использует индекс по person_id")
+    @Test
+    @Rollback
+    void findBookDtosByPersonId_thenAssertIndexScan() {
+        String plan = explainQueryOf(jdbcTemplate, () -> bookRepository.findBookDtosByPersonId(PERSON_ID));
+
+        assertThat(plan).contains(PERSON_ID_INDEX).doesNotContain("Seq Scan");
+    }
+
+    @DisplayName("findBookDtosByPersonIdIn (книги страницы пользователей) использует индекс по person_id")
+    @Test
+    @Rollback
+    void findBookDtosByPersonIdIn_thenAssertIndexScan() {
+        String plan = explainQueryOf(jdbcTemplate,
+                () -> bookRepository.findBookDtosByPersonIdIn(List.of(PERSON_ID, PERSON_ID + 1)));
+
+        assertThat(plan).contains(PERSON_ID_INDEX).doesNotContain("Seq Scan");
+    }
+
+    @DisplayName("findByIdAndPersonId использует первичный ключ")
+    @Test
+    @Rollback
+    void findByIdAndPersonId_thenAssertIndexScan() {
+        String plan = explainQueryOf(jdbcTemplate, () -> bookRepository.findByIdAndPersonId(200500L, PERSON_ID));
+
+        assertThat(plan).contains(PRIMARY_KEY_INDEX).doesNotContain("Seq Scan");
+    }
+
+    @DisplayName("deleteByPersonId использует индекс по person_id")
+    @Test
+    @Rollback
+    void deleteByPersonId_thenAssertIndexScan() {
+        String plan = explainQueryOf(jdbcTemplate, () -> bookRepository.deleteByPersonId(PERSON_ID));
+
+        assertThat(plan).contains(PERSON_ID_INDEX).doesNotContain("Seq Scan");
+    }
+
+    @DisplayName("Удаление пользователя проверяет внешний ключ книг через индекс")
+    @Test
+    @Rollback
+    void fkCheckOnPersonDelete_thenAssertIndexScan() {
+        // Проверку FK при удалении person выполняет сам PostgreSQL, не репозиторий: запрос такой же, как у триггера
+        String plan = explain(jdbcTemplate, "select 1 from ulab_edu.book b where b.person_id = ? for key share",
+                PERSON_ID);
+
+        assertThat(plan).contains(PERSON_ID_INDEX).doesNotContain("Seq Scan");
+    }
+
+    @DisplayName("findBookDtosByAuthorAfter читает диапазон индекса по (author, id) без сортировки")
+    @Test
+    @Rollback
+    void findBookDtosByAuthorAfter_thenAssertIndexScan() {
+        String plan = explainQueryOf(jdbcTemplate,
+                () -> bookRepository.findBookDtosByAuthorAfter("author 7", 250000L, PageRequest.of(0, 21)));
+
+        assertThat(plan).contains("idx_ulab_edu_book_author_id").doesNotContain("Seq Scan").doesNotContain("Sort");
+    }
+}
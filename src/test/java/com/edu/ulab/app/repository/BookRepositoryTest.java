@@ -8,10 +8,13 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.test.context.jdbc.Sql;
 
+import java.util.List;
+
 import static com.vladmihalcea.sql.SQLStatementCountValidator.*;
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -24,9 +27,14 @@ public class BookRepositoryTest {
     BookRepository bookRepository;
     @Autowired
     UserRepository userRepository;
+    @Autowired
+    TestEntityManager entityManager;
 
     @BeforeEach
     void setUp() {
+        // Кэш второго уровня общий для всех тестов контекста: данные @Sql и откат транзакции его не чистят
+        entityManager.getEntityManager().getEntityManagerFactory().getCache()
+                .unwrap(org.hibernate.Cache.class).evictAllRegions();
         SQLStatementCountValidator.reset();
     }
 
@@ -65,6 +73,25 @@ public class BookRepositoryTest {
         assertDeleteCount(0);
     }
 
+    @DisplayName("Получить книги юзера дважды. Второе чтение из кэша запросов, число select должно равняться 1")
+    @Test
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql",
+            "classpath:sql/3_insert_book_data.sql"
+    })
+    void findByPersonIdTwice_thenAssertQueryCache() {
+        //When
+        List<Book> first = bookRepository.findByPersonId(1001L);
+        entityManager.clear();
+        List<Book> second = bookRepository.findByPersonId(1001L);
+
+        //Then
+        assertThat(first).hasSize(2);
+        assertThat(second).hasSize(2);
+        assertSelectCount(1);
+    }
+
     // update
     // get
     // get all
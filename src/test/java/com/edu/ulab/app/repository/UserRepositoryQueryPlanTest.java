@@ -0,0 +1,66 @@
+package com.edu.ulab.app.repository;
+
+import com.edu.ulab.app.config.SystemJpaTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.Rollback;
+import org.springframework.test.context.jdbc.Sql;
+
+import static com.edu.ulab.app.config.QueryPlans.explainQueryOf;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Планы запросов {@link UserRepository} на большом наборе данных.
+ * EXPLAIN выполняется для SQL, который сгенерировал Hibernate, с теми же параметрами.
+ */
+@SystemJpaTest
+@Sql({"classpath:sql/1_clear_schema.sql",
+        "classpath:sql/2_insert_person_data.sql",
+        "classpath:sql/3_insert_book_data.sql",
+        "classpath:sql/4_insert_large_dataset.sql"
+})
+public class UserRepositoryQueryPlanTest {
+    private static final String PRIMARY_KEY_INDEX = "pk_ulab_edu_person_id";
+    private static final String TITLE_ID_INDEX = "idx_ulab_edu_person_title_id";
+
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    TestEntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        // Запрос из кэша запросов не дошел бы до БД
+        entityManager.getEntityManager().getEntityManagerFactory().getCache()
+                .unwrap(org.hibernate.Cache.class).evictAllRegions();
+    }
+
+    @DisplayName("findUserDtoById (чтение /get/{userId}) использует первичный ключ")
+    @Test
+    @Rollback
+    void findUserDtoById_thenAssertIndexScan() {
+        String plan = explainQueryOf(jdbcTemplate, () -> userRepository.findUserDtoById(100500L));
+
+        assertThat(plan).contains(PRIMARY_KEY_INDEX).doesNotContain("Seq Scan");
+    }
+
+    // В наборе у всех одна должность, поэтому планировщик вправе пройти и по первичному ключу:
+    // проверяем, что это один из двух индексов и нет полного чтения таблицы и сортировки
+    @DisplayName("findUserDtosByTitleAfter читает индекс без сортировки")
+    @Test
+    @Rollback
+    void findUserDtosByTitleAfter_thenAssertIndexScan() {
+        String plan = explainQueryOf(jdbcTemplate,
+                () -> userRepository.findUserDtosByTitleAfter("reader", 100500L, PageRequest.of(0, 21)));
+
+        assertThat(plan).containsAnyOf(TITLE_ID_INDEX, PRIMARY_KEY_INDEX)
+                .doesNotContain("Seq Scan").doesNotContain("Sort");
+    }
+}
@@ -1,12 +1,14 @@
 package com.edu.ulab.app.repository;
 
 import com.edu.ulab.app.config.SystemJpaTest;
+import com.edu.ulab.app.dto.UserDto;
 import com.edu.ulab.app.entity.Person;
 import com.vladmihalcea.sql.SQLStatementCountValidator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.test.context.jdbc.Sql;
 
@@ -20,9 +22,14 @@ import static org.assertj.core.api.Assertions.assertThat;
 public class UserRepositoryTest {
     @Autowired
     UserRepository userRepository;
+    @Autowired
+    TestEntityManager entityManager;
 
     @BeforeEach
     void setUp() {
+        // Кэш второго уровня общий для всех тестов контекста: данные @Sql и откат транзакции его не чистят
+        entityManager.getEntityManager().getEntityManagerFactory().getCache()
+                .unwrap(org.hibernate.Cache.class).evictAllRegions();
         SQLStatementCountValidator.reset();
     }
 
@@ -51,6 +58,43 @@ public class UserRepositoryTest {
         assertDeleteCount(0);
     }
 
+    @DisplayName("Получить юзера дважды. Второе чтение из кэша второго уровня, число select должно равняться 1")
+    @Test
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql",
+            "classpath:sql/3_insert_book_data.sql"
+    })
+    void getPersonTwice_thenAssertSecondLevelCache() {
+        //When
+        Person first = userRepository.findById(1001L).orElseThrow();
+        entityManager.clear();
+        Person second = userRepository.findById(1001L).orElseThrow();
+
+        //Then
+        assertThat(second.getFullName()).isEqualTo(first.getFullName());
+        assertSelectCount(1);
+    }
+
+    @DisplayName("Получить проекцию юзера дважды. Второе чтение из кэша запросов, число select должно равняться 1")
+    @Test
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql",
+            "classpath:sql/3_insert_book_data.sql"
+    })
+    void getUserDtoTwice_thenAssertQueryCache() {
+        //When
+        UserDto first = userRepository.findUserDtoById(1001L).orElseThrow();
+        entityManager.clear();
+        UserDto second = userRepository.findUserDtoById(1001L).orElseThrow();
+
+        //Then
+        assertThat(first.getId()).isEqualTo(1001L);
+        assertThat(second).isEqualTo(first);
+        assertSelectCount(1);
+    }
+
     // update
     // get
     // get all
@@ -0,0 +1,87 @@
+package com.edu.ulab.app.service;
+
+import com.edu.ulab.app.config.SystemJpaTest;
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.BookLoadResult;
+import com.edu.ulab.app.mapper.BookMapperImpl;
+import com.edu.ulab.app.mapper.UserMapperImpl;
+import com.edu.ulab.app.service.impl.BookCopyLoaderTemplate;
+import com.edu.ulab.app.service.impl.BookServiceImplTemplate;
+import com.edu.ulab.app.service.impl.SecondLevelCacheInvalidator;
+import com.edu.ulab.app.service.impl.ServiceBackends;
+import com.edu.ulab.app.service.impl.UserServiceImplTemplate;
+import com.vladmihalcea.sql.SQLStatementCountValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.Rollback;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Загрузка книг через COPY {@link BookCopyLoaderTemplate}. Сравнение скорости с batch insert - бенчмарк
+ * BookCopyLoaderBenchmark в профиле jmh.
+ */
+@SystemJpaTest
+@Import({BookCopyLoaderTemplate.class, BookServiceImplTemplate.class, UserServiceImplTemplate.class,
+        SecondLevelCacheInvalidator.class, ServiceBackends.class, SimpleMeterRegistry.class,
+        BookMapperImpl.class, UserMapperImpl.class})
+@TestPropertySource(properties = {"ulab.backend.read=template", "ulab.backend.write=template"})
+public class BookCopyLoaderTemplateTest {
+    private static final long USER_ID = 1001L;
+
+    @Autowired
+    BookCopyLoaderTemplate bookLoader;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        SQLStatementCountValidator.reset();
+    }
+
+    @DisplayName("Загрузка через COPY. Книги без владельца, пустые и не подходящие под колонки отброшены с причиной, "
+            + "строки с кавычками и запятыми целы")
+    @Test
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql"
+    })
+    void load_thenAssertRejected() {
+        //Given
+        List<BookDto> books = List.of(
+                new BookDto(null, USER_ID, "title, \"quoted\"", "author", 10),
+                new BookDto(null, 999L, "no owner", "author", 10),
+                new BookDto(null, USER_ID, null, null, 0),
+                new BookDto(null, USER_ID, "t".repeat(51), "author", 10),
+                new BookDto(null, USER_ID, "title", "a".repeat(51), 10),
+                new BookDto(null, USER_ID, "title", "author", Integer.MAX_VALUE + 1L));
+
+        //When
+        BookLoadResult result = bookLoader.load(books.iterator());
+
+        //Then
+        assertThat(result.getLoaded()).isEqualTo(1);
+        assertThat(result.getRejected()).isEqualTo(5);
+        assertThat(result.getWithoutOwner()).isEqualTo(1);
+        assertThat(result.getRejects()).containsExactlyInAnyOrder(
+                "book 2: user 999 not found",
+                "book 3: title and author are required",
+                "book 4: title is longer than 50",
+                "book 5: author is longer than 50",
+                "book 6: pageCount is out of integer range");
+        assertThat(jdbcTemplate.queryForList("select title from ulab_edu.book where person_id = ?", String.class, USER_ID))
+                .containsExactly("title, \"quoted\"");
+        // id из sequence колонки id, как у вставки через JdbcTemplate
+        assertThat(books.get(0).getId()).isEqualTo(jdbcTemplate.queryForObject(
+                "select currval(pg_get_serial_sequence('ulab_edu.book', 'id'))", Long.class));
+    }
+}
@@ -0,0 +1,191 @@
+package com.edu.ulab.app.service;
+
+import com.edu.ulab.app.config.SystemJpaTest;
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.mapper.BookMapperImpl;
+import com.edu.ulab.app.mapper.UserMapperImpl;
+import com.edu.ulab.app.service.impl.BookServiceImpl;
+import com.edu.ulab.app.service.impl.BookServiceImplStorage;
+import com.edu.ulab.app.service.impl.BookServiceImplTemplate;
+import com.edu.ulab.app.service.impl.SecondLevelCacheInvalidator;
+import com.edu.ulab.app.service.impl.ServiceBackend;
+import com.edu.ulab.app.service.impl.UserServiceImpl;
+import com.edu.ulab.app.service.impl.UserServiceImplStorage;
+import com.edu.ulab.app.service.impl.UserServiceImplTemplate;
+import com.edu.ulab.app.storage.Storage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.Rollback;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Одинаковое поведение {@link BookService} на всех реализациях: JPA, JdbcTemplate и хранилище в памяти.
+ */
+@SystemJpaTest
+@Import({UserServiceImpl.class, BookServiceImpl.class, UserServiceImplTemplate.class, BookServiceImplTemplate.class,
+        SecondLevelCacheInvalidator.class, UserMapperImpl.class, BookMapperImpl.class})
+public class BookServiceBackendsTest {
+    // id, которого нет ни в БД, ни в хранилище
+    private static final long MISSING_ID = Long.MAX_VALUE;
+
+    @Autowired
+    UserServiceImpl jpaUserService;
+    @Autowired
+    BookServiceImpl jpaBookService;
+    @Autowired
+    UserServiceImplTemplate templateUserService;
+    @Autowired
+    BookServiceImplTemplate templateBookService;
+    @Autowired
+    TestEntityManager entityManager;
+
+    BookService bookService;
+    UserDto owner;
+
+    @BeforeEach
+    void setUp() {
+        entityManager.getEntityManager().getEntityManagerFactory().getCache()
+                .unwrap(org.hibernate.Cache.class).evictAllRegions();
+    }
+
+    // Владелец создается той же реализацией, что и книги
+    private void given(ServiceBackend backend) {
+        UserService userService;
+        switch (backend) {
+            case JPA -> {
+                userService = jpaUserService;
+                bookService = jpaBookService;
+            }
+            case TEMPLATE -> {
+                userService = templateUserService;
+                bookService = templateBookService;
+            }
+            default -> {
+                Storage storage = new Storage();
+                userService = new UserServiceImplStorage(storage);
+                bookService = new BookServiceImplStorage(storage);
+            }
+        }
+        owner = userService.createUser(new UserDto(null, "test name", "test title", 11));
+    }
+
+    private BookDto bookDto(String title) {
+        BookDto bookDto = new BookDto();
+        bookDto.setUserId(owner.getId());
+        bookDto.setAuthor("test author");
+        bookDto.setTitle(title);
+        bookDto.setPageCount(1000);
+        return bookDto;
+    }
+
+    @DisplayName("Создание книги. Должно пройти успешно.")
+    @ParameterizedTest
+    @EnumSource(ServiceBackend.class)
+    @Rollback
+    void saveBook_Test(ServiceBackend backend) {
+        //given
+        given(backend);
+
+        //when
+        BookDto bookDtoResult = bookService.createBook(bookDto("test title"));
+
+        //then
+        assertNotNull(bookDtoResult.getId());
+        assertEquals(List.of(bookDtoResult), bookService.getBookById(owner.getId()));
+    }
+
+    @DisplayName("Создание книг для загруженного владельца. Пустые книги пропускаются.")
+    @ParameterizedTest
+    @EnumSource(ServiceBackend.class)
+    @Rollback
+    void saveBooksWithOwner_Test(ServiceBackend backend) {
+        //given
+        given(backend);
+        BookDto bookDto = bookDto("test title");
+        bookDto.setUserId(null);
+
+        //when
+        List<BookDto> bookDtoResult = bookService.createBooks(owner, List.of(bookDto, new BookDto()));
+
+        //then
+        assertEquals(1, bookDtoResult.size());
+        assertNotNull(bookDtoResult.get(0).getId());
+        assertEquals(owner.getId(), bookDto.getUserId());
+        assertEquals(bookDtoResult, bookService.getBookById(owner.getId()));
+    }
+
+    @DisplayName("Обновление полки книг: создание, изменение и удаление. Должно пройти успешно.")
+    @ParameterizedTest
+    @EnumSource(ServiceBackend.class)
+    @Rollback
+    void updateBooks_Test(ServiceBackend backend) {
+        //given
+        given(backend);
+        List<BookDto> books = bookService.createBooks(owner, List.of(bookDto("updated"), bookDto("deleted")));
+        BookDto updated = bookDto("new title");
+        updated.setId(books.get(0).getId());
+        BookDto deleted = new BookDto();
+        deleted.setId(books.get(1).getId());
+        BookDto created = bookDto("created");
+        created.setId(0L);
+        BookDto missing = bookDto("missing");
+        missing.setId(MISSING_ID);
+
+        //when
+        List<BookDto> result = bookService.updateBooks(owner,
+                new ArrayList<>(List.of(created, updated, deleted, missing)));
+
+        //then
+        assertEquals(List.of(created, updated), result);
+        assertTrue(created.getId() > books.get(1).getId());
+        assertEquals(List.of(updated, created), bookService.getBookById(owner.getId()));
+    }
+
+    @DisplayName("Обновление одной пустой книги удаляет ее.")
+    @ParameterizedTest
+    @EnumSource(ServiceBackend.class)
+    @Rollback
+    void updateEmptyBook_Test(ServiceBackend backend) {
+        //given
+        given(backend);
+        BookDto book = bookService.createBook(bookDto("test title"));
+        BookDto empty = new BookDto();
+        empty.setId(book.getId());
+
+        //when
+        BookDto result = bookService.updateBook(owner, empty);
+
+        //then
+        assertNull(result);
+        assertTrue(bookService.getBookById(owner.getId()).isEmpty());
+    }
+
+    @DisplayName("Удаление книг пользователя. Должно пройти успешно.")
+    @ParameterizedTest
+    @EnumSource(ServiceBackend.class)
+    @Rollback
+    void deleteBooks_Test(ServiceBackend backend) {
+        //given
+        given(backend);
+        bookService.createBooks(owner, List.of(bookDto("first"), bookDto("second")));
+
+        //when
+        bookService.deleteBookById(owner.getId());
+
+        //then
+        assertTrue(bookService.getBookById(owner.getId()).isEmpty());
+    }
+}
@@ -0,0 +1,199 @@
+package com.edu.ulab.app.service;
+
+import com.edu.ulab.app.config.SystemJpaTest;
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.mapper.BookMapperImpl;
+import com.edu.ulab.app.mapper.UserMapperImpl;
+import com.edu.ulab.app.service.impl.BookServiceImpl;
+import com.edu.ulab.app.service.impl.BookServiceImplTemplate;
+import com.edu.ulab.app.service.impl.SecondLevelCacheInvalidator;
+import com.edu.ulab.app.service.impl.UserServiceImplTemplate;
+import com.vladmihalcea.sql.SQLStatementCountValidator;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.Rollback;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static com.vladmihalcea.sql.SQLStatementCountValidator.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тесты пакетного создания {@link BookService#createBooks} и обновления {@link BookService#updateBooks} книг.
+ */
+@SystemJpaTest
+@Import({BookServiceImpl.class, BookServiceImplTemplate.class, UserServiceImplTemplate.class,
+        SecondLevelCacheInvalidator.class, BookMapperImpl.class, UserMapperImpl.class})
+public class BookServiceBatchTest {
+    @Autowired
+    BookServiceImpl bookService;
+    @Autowired
+    BookServiceImplTemplate bookServiceTemplate;
+    @Autowired
+    TestEntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        // Кэш второго уровня общий для всех тестов контекста, откат транзакции теста его не чистит
+        entityManager.getEntityManager().getEntityManagerFactory().getCache()
+                .unwrap(org.hibernate.Cache.class).evictAllRegions();
+        SQLStatementCountValidator.reset();
+    }
+
+    private List<BookDto> books(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> {
+                    BookDto bookDto = new BookDto();
+                    bookDto.setUserId(1001L);
+                    bookDto.setTitle("batch book " + i);
+                    bookDto.setAuthor("batch author");
+                    bookDto.setPageCount(100 + i);
+                    return bookDto;
+                })
+                .toList();
+    }
+
+    @DisplayName("Пакетное создание книг через JdbcTemplate. Число insert не зависит от числа книг")
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 100})
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql",
+            "classpath:sql/3_insert_book_data.sql"
+    })
+    void createBooksTemplate_thenAssertDmlCount(int count) {
+        //When
+        List<BookDto> result = bookServiceTemplate.createBooks(books(count));
+
+        //Then
+        assertThat(result).hasSize(count);
+        assertThat(result).allMatch(bookDto -> bookDto.getId() != null);
+        assertSelectCount(0);
+        assertInsertCount(1);
+        assertUpdateCount(0);
+        assertDeleteCount(0);
+    }
+
+    @DisplayName("Пакетное создание книг через JPA. Число insert не зависит от числа книг")
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 100})
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql",
+            "classpath:sql/3_insert_book_data.sql"
+    })
+    void createBooksJpa_thenAssertDmlCount(int count) {
+        //When
+        List<BookDto> result = bookService.createBooks(books(count));
+        entityManager.flush();
+
+        //Then
+        assertThat(result).hasSize(count);
+        assertThat(result).allMatch(bookDto -> bookDto.getId() != null);
+        assertInsertCount(1);
+        assertUpdateCount(0);
+        assertDeleteCount(0);
+    }
+
+    private UserDto owner() {
+        UserDto owner = new UserDto();
+        owner.setId(1001L);
+        return owner;
+    }
+
+    // Книга 2002 обновляется, 3003 удаляется, остальные создаются
+    private List<BookDto> shelf(int newBooksCount) {
+        BookDto updated = new BookDto();
+        updated.setId(2002L);
+        updated.setTitle("updated book");
+        updated.setAuthor("updated author");
+        updated.setPageCount(10);
+
+        BookDto deleted = new BookDto();
+        deleted.setId(3003L);
+
+        List<BookDto> created = books(newBooksCount);
+        created.forEach(bookDto -> bookDto.setId(0L));
+
+        List<BookDto> shelf = new ArrayList<>(created);
+        shelf.add(updated);
+        shelf.add(deleted);
+        return shelf;
+    }
+
+    @DisplayName("Обновление полки книг через JdbcTemplate. Число запросов не зависит от числа книг")
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 100})
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql",
+            "classpath:sql/3_insert_book_data.sql"
+    })
+    void updateBooksTemplate_thenAssertDmlCount(int count) {
+        //When
+        List<BookDto> result = bookServiceTemplate.updateBooks(owner(), shelf(count));
+
+        //Then
+        assertThat(result).hasSize(count + 1);
+        assertThat(result).allMatch(bookDto -> bookDto.getId() != 0);
+        assertSelectCount(1);
+        assertInsertCount(1);
+        assertUpdateCount(1);
+        assertDeleteCount(1);
+    }
+
+    @DisplayName("Обновление полки книг через JPA. Число запросов не зависит от числа книг")
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 100})
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql",
+            "classpath:sql/3_insert_book_data.sql"
+    })
+    void updateBooksJpa_thenAssertDmlCount(int count) {
+        //When
+        List<BookDto> result = bookService.updateBooks(owner(), shelf(count));
+        entityManager.flush();
+
+        //Then
+        assertThat(result).hasSize(count + 1);
+        assertThat(result).allMatch(bookDto -> bookDto.getId() != 0);
+        // Книги пользователя и не больше одного обращения к sequence
+        assertThat(QueryCountHolder.getGrandTotal().getSelect()).isLessThanOrEqualTo(2);
+        assertInsertCount(1);
+        assertUpdateCount(1);
+        assertDeleteCount(1);
+    }
+
+    @DisplayName("Чтение через JPA после обновления через JdbcTemplate. Кэш запросов не отдает старые книги")
+    @Test
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql",
+            "classpath:sql/3_insert_book_data.sql"
+    })
+    void updateBooksTemplate_thenJpaReadsUpdated() {
+        //Given
+        List<BookDto> cached = bookService.getBookById(1001L);
+
+        //When
+        bookServiceTemplate.updateBooks(owner(), shelf(1));
+        List<BookDto> result = bookService.getBookById(1001L);
+
+        //Then
+        assertThat(cached).extracting(BookDto::getId).containsExactly(2002L, 3003L);
+        assertThat(result).extracting(BookDto::getTitle).contains("updated book", "batch book 0");
+        assertThat(result).extracting(BookDto::getId).doesNotContain(3003L);
+    }
+}
@@ -0,0 +1,135 @@
+package com.edu.ulab.app.service;
+
+import com.edu.ulab.app.config.UnitTest;
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.service.impl.BookServiceImplStorage;
+import com.edu.ulab.app.storage.Storage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Тестирование функционала {@link com.edu.ulab.app.service.impl.BookServiceImplStorage}.
+ */
+@UnitTest
+@DisplayName("Testing book functionality on storage.")
+public class BookServiceImplStorageTest {
+    Storage storage = new Storage();
+    BookServiceImplStorage bookService = new BookServiceImplStorage(storage);
+    UserDto owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = storage.createPerson(new UserDto(null, "test name", "test title", 11));
+    }
+
+    private BookDto bookDto(String title) {
+        BookDto bookDto = new BookDto();
+        bookDto.setUserId(owner.getId());
+        bookDto.setAuthor("test author");
+        bookDto.setTitle(title);
+        bookDto.setPageCount(1000);
+        return bookDto;
+    }
+
+    @Test
+    @DisplayName("Создание книги. Должно пройти успешно.")
+    void saveBook_Test() {
+        //when
+        BookDto bookDtoResult = bookService.createBook(bookDto("test title"));
+
+        //then
+        assertEquals(1L, bookDtoResult.getId());
+        assertEquals(List.of(bookDtoResult), bookService.getBookById(owner.getId()));
+    }
+
+    @Test
+    @DisplayName("Создание книг для загруженного владельца. Пустые книги пропускаются.")
+    void saveBooksWithOwner_Test() {
+        //given
+        BookDto bookDto = bookDto("test title");
+        bookDto.setUserId(null);
+
+        //when
+        List<BookDto> bookDtoResult = bookService.createBooks(owner, List.of(bookDto, new BookDto()));
+
+        //then
+        assertEquals(1, bookDtoResult.size());
+        assertEquals(1L, bookDtoResult.get(0).getId());
+        assertEquals(owner.getId(), bookDto.getUserId());
+    }
+
+    @Test
+    @DisplayName("Создание книги несуществующего пользователя. Должно выбросить NotFoundException.")
+    void saveBookWithoutOwner_Test() {
+        //given
+        BookDto bookDto = bookDto("test title");
+        bookDto.setUserId(100L);
+
+        //then
+        assertThrows(NotFoundException.class, () -> bookService.createBook(bookDto));
+    }
+
+    @Test
+    @DisplayName("Обновление полки книг: создание, изменение и удаление. Должно пройти успешно.")
+    void updateBooks_Test() {
+        //given
+        List<BookDto> books = bookService.createBooks(owner, List.of(bookDto("updated"), bookDto("deleted")));
+        BookDto updated = bookDto("new title");
+        updated.setId(books.get(0).getId());
+        BookDto deleted = new BookDto();
+        deleted.setId(books.get(1).getId());
+        BookDto created = bookDto("created");
+        created.setId(0L);
+        BookDto missing = bookDto("missing");
+        missing.setId(100L);
+
+        //when
+        List<BookDto> result = bookService.updateBooks(owner,
+                new ArrayList<>(List.of(created, updated, deleted, missing)));
+
+        //then
+        assertEquals(List.of(created, updated), result);
+        assertTrue(created.getId() > books.get(1).getId());
+        assertEquals(List.of(updated, created), bookService.getBookById(owner.getId()));
+    }
+
+    @Test
+    @DisplayName("Обновление одной пустой книги удаляет ее.")
+    void updateEmptyBook_Test() {
+        //given
+        BookDto book = bookService.createBook(bookDto("test title"));
+        BookDto empty = new BookDto();
+        empty.setId(book.getId());
+
+        //when
+        BookDto result = bookService.updateBook(owner, empty);
+
+        //then
+        assertNull(result);
+        assertTrue(bookService.getBookById(owner.getId()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Удаление книг пользователя. Должно пройти успешно.")
+    void deleteBooks_Test() {
+        //given
+        bookService.createBooks(owner, List.of(bookDto("first"), bookDto("second")));
+
+        //when
+        bookService.deleteBookById(owner.getId());
+
+        //then
+        assertTrue(bookService.getBookById(owner.getId()).isEmpty());
+    }
+}
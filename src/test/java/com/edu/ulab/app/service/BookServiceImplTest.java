@@ -1,10 +1,12 @@
 package com.edu.ulab.app.service;
 
 import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
 import com.edu.ulab.app.entity.Book;
 import com.edu.ulab.app.entity.Person;
 import com.edu.ulab.app.mapper.BookMapper;
 import com.edu.ulab.app.repository.BookRepository;
+import com.edu.ulab.app.repository.UserRepository;
 import com.edu.ulab.app.service.impl.BookServiceImpl;
 import com.edu.ulab.app.service.impl.UserServiceImpl;
 import org.junit.jupiter.api.DisplayName;
@@ -16,7 +18,13 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.util.List;
+import java.util.Optional;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -32,6 +40,9 @@ public class BookServiceImplTest {
     @Mock
     BookRepository bookRepository;
 
+    @Mock
+    UserRepository userRepository;
+
     @Mock
     BookMapper bookMapper;
 
@@ -70,6 +81,7 @@ public class BookServiceImplTest {
 
         //when
 
+        when(userRepository.findById(1L)).thenReturn(Optional.of(person));
         when(bookMapper.bookDtoToBook(bookDto)).thenReturn(book);
         when(bookRepository.save(book)).thenReturn(savedBook);
         when(bookMapper.bookToBookDto(savedBook)).thenReturn(result);
@@ -80,6 +92,49 @@ public class BookServiceImplTest {
         assertEquals(1L, bookDtoResult.getId());
     }
 
+    @Test
+    @DisplayName("Создание книг для загруженного владельца. Владелец не загружается повторно.")
+    void saveBooksWithOwner_Test() {
+        //given
+        UserDto owner = new UserDto();
+        owner.setId(1L);
+
+        Person person  = new Person();
+        person.setId(1L);
+
+        BookDto bookDto = new BookDto();
+        bookDto.setAuthor("test author");
+        bookDto.setTitle("test title");
+        bookDto.setPageCount(1000);
+
+        Book book = new Book();
+        book.setPageCount(1000);
+        book.setTitle("test title");
+        book.setAuthor("test author");
+
+        Book savedBook = new Book();
+        savedBook.setId(1L);
+
+        BookDto result = new BookDto();
+        result.setId(1L);
+
+        //when
+
+        when(userRepository.getReferenceById(1L)).thenReturn(person);
+        when(bookMapper.bookDtoToBook(bookDto)).thenReturn(book);
+        when(bookRepository.saveAll(List.of(book))).thenReturn(List.of(savedBook));
+        when(bookMapper.bookToBookDto(savedBook)).thenReturn(result);
+
+
+        //then
+        List<BookDto> bookDtoResult = bookService.createBooks(owner, List.of(bookDto));
+        assertEquals(1, bookDtoResult.size());
+        assertEquals(1L, bookDtoResult.get(0).getId());
+        assertEquals(1L, bookDto.getUserId());
+        assertEquals(person, book.getPerson());
+        verify(userRepository, never()).findById(any());
+    }
+
 
     // update
     // get
@@ -0,0 +1,120 @@
+package com.edu.ulab.app.service;
+
+import com.edu.ulab.app.config.AllocationMeter;
+import com.edu.ulab.app.config.SystemJpaTest;
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.mapper.BookMapper;
+import com.edu.ulab.app.mapper.BookMapperImpl;
+import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.mapper.UserMapperImpl;
+import com.edu.ulab.app.repository.BookRepository;
+import com.edu.ulab.app.repository.UserRepository;
+import com.edu.ulab.app.service.impl.BookServiceImpl;
+import com.edu.ulab.app.service.impl.BookServiceImplTemplate;
+import com.edu.ulab.app.service.impl.SecondLevelCacheInvalidator;
+import com.edu.ulab.app.service.impl.UserServiceImpl;
+import com.edu.ulab.app.service.impl.UserServiceImplTemplate;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.Rollback;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Сравнение чтения пользователя с книгами: сущности + маппер против проекций JPQL сразу в DTO.
+ */
+@Slf4j
+@SystemJpaTest
+@Import({UserServiceImpl.class, BookServiceImpl.class, UserServiceImplTemplate.class, BookServiceImplTemplate.class,
+        SecondLevelCacheInvalidator.class, UserMapperImpl.class, BookMapperImpl.class})
+public class DtoProjectionBenchmarkTest {
+    private static final long USER_ID = 1001L;
+
+    @Autowired
+    UserServiceImpl userService;
+    @Autowired
+    BookServiceImpl bookService;
+    @Autowired
+    BookServiceImplTemplate bookServiceTemplate;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    BookRepository bookRepository;
+    @Autowired
+    UserMapper userMapper;
+    @Autowired
+    BookMapper bookMapper;
+    @Autowired
+    TestEntityManager entityManager;
+
+    // Прежний путь чтения: управляемые сущности и маппер
+    private List<BookDto> readEntities() {
+        entityManager.clear();
+        UserDto user = userMapper.personToUserDto(userRepository.findById(USER_ID).orElseThrow());
+        List<BookDto> books = bookRepository.findByPersonId(user.getId()).stream()
+                .map(bookMapper::bookToBookDto)
+                .toList();
+        entityManager.clear();
+        return books;
+    }
+
+    private List<BookDto> readProjections() {
+        entityManager.clear();
+        UserDto user = userService.getUserById(USER_ID);
+        List<BookDto> books = bookService.getBookById(user.getId());
+        entityManager.clear();
+        return books;
+    }
+
+    @DisplayName("Проекции в DTO возвращают те же данные и требуют меньше памяти")
+    @Test
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql",
+            "classpath:sql/3_insert_book_data.sql"
+    })
+    void readProjections_thenAssertAllocatedBytes() {
+        //Given
+        UserDto owner = new UserDto();
+        owner.setId(USER_ID);
+        bookServiceTemplate.createBooks(owner, IntStream.range(0, 100)
+                .mapToObj(i -> new BookDto(null, USER_ID, "book " + i, "author", 100 + i))
+                .toList());
+        // Оба пути читают из БД: без этого после прогрева замерялись бы попадания в кэш второго уровня и запросов
+        entityManager.getEntityManager().unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        //When
+        long entityBytes = AllocationMeter.bytesPerOperation(50, 200, this::readEntities);
+        long projectionBytes = AllocationMeter.bytesPerOperation(50, 200, this::readProjections);
+        long entityNanos = AllocationMeter.nanosPerOperation(50, 200, this::readEntities);
+        long projectionNanos = AllocationMeter.nanosPerOperation(50, 200, this::readProjections);
+        log.info("Allocated bytes per read: entities {}, projections {}", entityBytes, projectionBytes);
+        log.info("Nanos per read: entities {}, projections {}", entityNanos, projectionNanos);
+
+        //Then
+        // Маппер сущности не заполняет userId, проекция берет его из внешнего ключа
+        assertThat(readProjections()).allMatch(bookDto -> bookDto.getUserId() == USER_ID);
+        assertThat(readProjections())
+                .usingRecursiveFieldByFieldElementComparatorIgnoringFields("userId")
+                .containsExactlyInAnyOrderElementsOf(readEntities());
+        assertThat(projectionBytes).isLessThan(entityBytes);
+        assertThat(statistics.getSecondLevelCacheHitCount()).isZero();
+        assertThat(statistics.getQueryCacheHitCount()).isZero();
+    }
+}
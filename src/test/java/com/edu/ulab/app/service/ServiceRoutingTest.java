@@ -0,0 +1,105 @@
+package com.edu.ulab.app.service;
+
+import com.edu.ulab.app.config.UnitTest;
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.service.impl.BookServiceRouting;
+import com.edu.ulab.app.service.impl.ServiceBackends;
+import com.edu.ulab.app.service.impl.UserServiceRouting;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тестирование маршрутизации чтения и записи по реализациям {@link ServiceBackends}.
+ */
+@UnitTest
+@DisplayName("Testing service backend routing.")
+public class ServiceRoutingTest {
+    @Mock
+    UserService jpaUserService;
+    @Mock
+    BookService jpaBookService;
+    @Mock
+    UserService templateUserService;
+    @Mock
+    BookService templateBookService;
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ServiceBackends backends(String read, String write) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("userServiceImpl", jpaUserService);
+        beanFactory.addBean("bookServiceImpl", jpaBookService);
+        beanFactory.addBean("userServiceImplTemplate", templateUserService);
+        beanFactory.addBean("bookServiceImplTemplate", templateBookService);
+        return new ServiceBackends(read, write, beanFactory, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Запись через JPA, чтение через JdbcTemplate. Вызовы уходят в свои реализации и замеряются.")
+    void readTemplateWriteJpa_Test() {
+        //given
+        ServiceBackends backends = backends("template", "JPA");
+        UserServiceRouting userService = new UserServiceRouting(backends);
+        BookServiceRouting bookService = new BookServiceRouting(backends);
+        UserDto userDto = new UserDto(null, "test name", "test title", 11);
+        UserDto savedUser = new UserDto(1L, "test name", "test title", 11);
+        List<BookDto> books = List.of(new BookDto(1L, 1L, "title", "author", 10));
+
+        //when
+        when(jpaUserService.createUser(userDto)).thenReturn(savedUser);
+        when(templateUserService.getUserById(1L)).thenReturn(savedUser);
+        when(templateBookService.getBookById(1L)).thenReturn(books);
+
+        //then
+        assertEquals(savedUser, userService.createUser(userDto));
+        assertEquals(savedUser, userService.getUserById(1L));
+        assertEquals(books, bookService.getBookById(1L));
+        verify(templateUserService, never()).createUser(userDto);
+        verify(jpaUserService, never()).getUserById(1L);
+        assertEquals(1, meterRegistry.get("ulab.backend.calls")
+                .tag("backend", "jpa").tag("operation", "user.create").timer().count());
+        assertEquals(1, meterRegistry.get("ulab.backend.calls")
+                .tag("backend", "template").tag("operation", "book.getByUser").timer().count());
+    }
+
+    @Test
+    @DisplayName("Ошибка реализации. Пробрасывается и считается по backend, operation и exception.")
+    void writeFailed_Test() {
+        //given
+        ServiceBackends backends = backends("jpa", "template");
+        UserServiceRouting userService = new UserServiceRouting(backends);
+
+        //when
+        doThrow(new NotFoundException("User not found")).when(templateUserService).deleteUserById(1L);
+
+        //then
+        assertThrows(NotFoundException.class, () -> userService.deleteUserById(1L));
+        assertEquals(1, meterRegistry.get("ulab.backend.errors")
+                .tag("backend", "template").tag("operation", "user.delete")
+                .tag("exception", "NotFoundException").counter().count());
+        assertEquals(1, meterRegistry.get("ulab.backend.calls")
+                .tag("backend", "template").tag("operation", "user.delete").timer().count());
+    }
+
+    @Test
+    @DisplayName("Хранилище в памяти вместе с БД или недоступная реализация. Ошибка при старте.")
+    void invalidBackends_Test() {
+        assertThrows(IllegalStateException.class, () -> backends("storage", "jpa"));
+        assertThrows(IllegalStateException.class, () -> backends("storage", "storage"));
+        assertThrows(IllegalArgumentException.class, () -> backends("mongo", "jpa"));
+    }
+}
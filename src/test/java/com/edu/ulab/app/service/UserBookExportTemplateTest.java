@@ -0,0 +1,92 @@
+package com.edu.ulab.app.service;
+
+import com.edu.ulab.app.config.SystemJpaTest;
+import com.edu.ulab.app.service.impl.UserBookExportTemplate;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vladmihalcea.sql.SQLStatementCountValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.Rollback;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static com.vladmihalcea.sql.SQLStatementCountValidator.assertSelectCount;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тесты выгрузки всех пользователей с книгами {@link UserBookExportTemplate}.
+ */
+@SystemJpaTest
+@Import({UserBookExportTemplate.class, JacksonAutoConfiguration.class})
+public class UserBookExportTemplateTest {
+    @Autowired
+    UserBookExportTemplate userBookExport;
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        SQLStatementCountValidator.reset();
+    }
+
+    @DisplayName("Выгрузить всех пользователей. Строка на пользователя, книги под своим пользователем, один select")
+    @Test
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql",
+            "classpath:sql/3_insert_book_data.sql",
+            "classpath:sql/4_insert_large_dataset.sql"
+    })
+    void exportAllUsers_thenAssertLines() throws IOException {
+        //Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //When
+        long count = userBookExport.writeAllUsersWithBooks(out);
+
+        //Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(count).isEqualTo(1001);
+        assertThat(lines).hasSize(1001);
+        List<UserBookResponse> users = objectMapper.readerFor(UserBookResponse.class)
+                .<UserBookResponse>readValues(out.toByteArray())
+                .readAll();
+        assertThat(users).extracting(UserBookResponse::getUserId).isSorted().doesNotHaveDuplicates();
+        assertThat(users.get(0).getUserId()).isEqualTo(1001L);
+        assertThat(users.get(0).getBookList()).extracting("id").containsExactly(2002L, 3003L);
+        assertThat(users).allMatch(user -> user.getBookList().stream()
+                .allMatch(book -> book.getUserId().equals(user.getUserId())));
+        assertThat(users.stream().mapToInt(user -> user.getBookList().size()).sum()).isEqualTo(100002);
+        assertSelectCount(1);
+    }
+
+    @DisplayName("Выгрузить пользователя без книг. Пустой список книг")
+    @Test
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql"
+    })
+    void exportUserWithoutBooks_thenAssertEmptyBookList() throws IOException {
+        //Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //When
+        long count = userBookExport.writeAllUsersWithBooks(out);
+
+        //Then
+        assertThat(count).isEqualTo(1);
+        UserBookResponse user = objectMapper.readValue(out.toByteArray(), UserBookResponse.class);
+        assertThat(user.getUserId()).isEqualTo(1001L);
+        assertThat(user.getBookList()).isEmpty();
+        assertThat(out.toString(StandardCharsets.UTF_8)).endsWith("}\n");
+    }
+}
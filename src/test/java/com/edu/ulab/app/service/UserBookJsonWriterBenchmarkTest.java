@@ -0,0 +1,114 @@
+package com.edu.ulab.app.service;
+
+import com.edu.ulab.app.config.AllocationMeter;
+import com.edu.ulab.app.config.SystemJpaTest;
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.facade.UserBookResponseCache;
+import com.edu.ulab.app.facade.UserDataFacade;
+import com.edu.ulab.app.mapper.BookMapperImpl;
+import com.edu.ulab.app.mapper.UserMapperImpl;
+import com.edu.ulab.app.service.impl.BookServiceImpl;
+import com.edu.ulab.app.service.impl.BookServiceImplTemplate;
+import com.edu.ulab.app.service.impl.BookServiceRouting;
+import com.edu.ulab.app.service.impl.SecondLevelCacheInvalidator;
+import com.edu.ulab.app.service.impl.ServiceBackends;
+import com.edu.ulab.app.service.impl.UserBookJsonWriterTemplate;
+import com.edu.ulab.app.service.impl.UserServiceImpl;
+import com.edu.ulab.app.service.impl.UserServiceImplTemplate;
+import com.edu.ulab.app.service.impl.UserServiceRouting;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.Rollback;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Сравнение памяти на один GET пользователя с книгами: сборка {@code UserBookResponse} + Jackson
+ * против записи JSON из строк JDBC ({@link UserBookJsonWriterTemplate}).
+ */
+@Slf4j
+@SystemJpaTest
+@Import({UserDataFacade.class, UserBookResponseCache.class, UserServiceImpl.class, BookServiceImpl.class,
+        UserServiceImplTemplate.class, BookServiceImplTemplate.class, UserBookJsonWriterTemplate.class,
+        SecondLevelCacheInvalidator.class, ServiceBackends.class, UserServiceRouting.class, BookServiceRouting.class, SimpleMeterRegistry.class,
+        UserMapperImpl.class, BookMapperImpl.class, JacksonAutoConfiguration.class})
+public class UserBookJsonWriterBenchmarkTest {
+    private static final long USER_ID = 1001L;
+
+    @Autowired
+    UserDataFacade userDataFacade;
+    @Autowired
+    BookServiceImplTemplate bookServiceTemplate;
+    @Autowired
+    UserBookJsonWriterTemplate userBookJsonWriter;
+    @Autowired
+    ObjectMapper objectMapper;
+    @Autowired
+    TestEntityManager entityManager;
+
+    private byte[] facadeJson() {
+        // Новый контекст персистентности на каждый "запрос"
+        entityManager.clear();
+        try {
+            return objectMapper.writeValueAsBytes(userDataFacade.getUserWithBooks(USER_ID));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void rawJson(OutputStream out) {
+        try {
+            userBookJsonWriter.writeUserWithBooks(USER_ID, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DisplayName("JSON из строк JDBC совпадает с ответом фасада и требует меньше памяти")
+    @Test
+    @Rollback
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql",
+            "classpath:sql/3_insert_book_data.sql"
+    })
+    void rawJson_thenAssertAllocatedBytes() throws IOException {
+        //Given
+        UserDto owner = new UserDto();
+        owner.setId(USER_ID);
+        bookServiceTemplate.createBooks(owner, IntStream.range(0, 100)
+                .mapToObj(i -> {
+                    BookDto bookDto = new BookDto();
+                    bookDto.setTitle("book " + i);
+                    bookDto.setAuthor("author");
+                    bookDto.setPageCount(100 + i);
+                    return bookDto;
+                })
+                .toList());
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        rawJson(raw);
+
+        //When
+        long facadeBytes = AllocationMeter.bytesPerOperation(50, 200, this::facadeJson);
+        long rawBytes = AllocationMeter.bytesPerOperation(50, 200, () -> rawJson(OutputStream.nullOutputStream()));
+        log.info("Allocated bytes per request: facade + Jackson {}, raw JDBC JSON {}", facadeBytes, rawBytes);
+
+        //Then
+        assertThat(objectMapper.readTree(raw.toByteArray())).isEqualTo(objectMapper.readTree(facadeJson()));
+        assertThat(rawBytes).isLessThan(facadeBytes);
+    }
+}
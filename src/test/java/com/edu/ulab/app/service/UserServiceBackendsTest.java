@@ -0,0 +1,134 @@
+package com.edu.ulab.app.service;
+
+import com.edu.ulab.app.config.SystemJpaTest;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.exception.BadRequestExceptionUpdate;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.mapper.UserMapperImpl;
+import com.edu.ulab.app.service.impl.SecondLevelCacheInvalidator;
+import com.edu.ulab.app.service.impl.ServiceBackend;
+import com.edu.ulab.app.service.impl.UserServiceImpl;
+import com.edu.ulab.app.service.impl.UserServiceImplStorage;
+import com.edu.ulab.app.service.impl.UserServiceImplTemplate;
+import com.edu.ulab.app.storage.Storage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.Rollback;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Одинаковое поведение {@link UserService} на всех реализациях: JPA, JdbcTemplate и хранилище в памяти.
+ */
+@SystemJpaTest
+@Import({UserServiceImpl.class, UserServiceImplTemplate.class, SecondLevelCacheInvalidator.class,
+        UserMapperImpl.class})
+public class UserServiceBackendsTest {
+    // id, которого нет ни в БД, ни в хранилище
+    private static final long MISSING_ID = Long.MAX_VALUE;
+
+    @Autowired
+    UserServiceImpl jpaUserService;
+    @Autowired
+    UserServiceImplTemplate templateUserService;
+    @Autowired
+    TestEntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        entityManager.getEntityManager().getEntityManagerFactory().getCache()
+                .unwrap(org.hibernate.Cache.class).evictAllRegions();
+    }
+
+    private UserService userService(ServiceBackend backend) {
+        return switch (backend) {
+            case JPA -> jpaUserService;
+            case TEMPLATE -> templateUserService;
+            case STORAGE -> new UserServiceImplStorage(new Storage());
+        };
+    }
+
+    private static UserDto userDto() {
+        UserDto userDto = new UserDto();
+        userDto.setAge(11);
+        userDto.setFullName("test name");
+        userDto.setTitle("test title");
+        return userDto;
+    }
+
+    @DisplayName("Создание пользователя. Должно пройти успешно.")
+    @ParameterizedTest
+    @EnumSource(ServiceBackend.class)
+    @Rollback
+    void savePerson_Test(ServiceBackend backend) {
+        //given
+        UserService userService = userService(backend);
+
+        //when
+        UserDto userDtoResult = userService.createUser(userDto());
+
+        //then
+        assertNotNull(userDtoResult.getId());
+        assertEquals(userDtoResult, userService.getUserById(userDtoResult.getId()));
+    }
+
+    @DisplayName("Обновление пользователя. Должно пройти успешно.")
+    @ParameterizedTest
+    @EnumSource(ServiceBackend.class)
+    @Rollback
+    void updatePerson_Test(ServiceBackend backend) {
+        //given
+        UserService userService = userService(backend);
+        UserDto created = userService.createUser(userDto());
+        UserDto userDto = userDto();
+        userDto.setId(created.getId());
+        userDto.setAge(12);
+
+        //when
+        UserDto updated = userService.updateUser(userDto);
+
+        //then
+        assertEquals(12, updated.getAge());
+        assertEquals(12, userService.getUserById(created.getId()).getAge());
+    }
+
+    @DisplayName("Обновление, чтение и удаление несуществующего пользователя. Должно выбросить исключение.")
+    @ParameterizedTest
+    @EnumSource(ServiceBackend.class)
+    @Rollback
+    void updateDeleteMissingPerson_Test(ServiceBackend backend) {
+        //given
+        UserService userService = userService(backend);
+        UserDto userDto = userDto();
+
+        //then
+        assertThrows(BadRequestExceptionUpdate.class, () -> userService.updateUser(userDto));
+        userDto.setId(MISSING_ID);
+        assertThrows(NotFoundException.class, () -> userService.updateUser(userDto));
+        assertThrows(NotFoundException.class, () -> userService.getUserById(MISSING_ID));
+        assertThrows(NotFoundException.class, () -> userService.deleteUserById(MISSING_ID));
+    }
+
+    @DisplayName("Удаление пользователя. После удаления не находится.")
+    @ParameterizedTest
+    @EnumSource(ServiceBackend.class)
+    @Rollback
+    void deletePerson_Test(ServiceBackend backend) {
+        //given
+        UserService userService = userService(backend);
+        UserDto created = userService.createUser(userDto());
+
+        //when
+        userService.deleteUserById(created.getId());
+
+        //then
+        assertThrows(NotFoundException.class, () -> userService.getUserById(created.getId()));
+    }
+}
@@ -0,0 +1,72 @@
+package com.edu.ulab.app.service;
+
+import com.edu.ulab.app.config.UnitTest;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.exception.BadRequestExceptionUpdate;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.service.impl.UserServiceImplStorage;
+import com.edu.ulab.app.storage.Storage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Тестирование функционала {@link com.edu.ulab.app.service.impl.UserServiceImplStorage}.
+ */
+@UnitTest
+@DisplayName("Testing user functionality on storage.")
+public class UserServiceImplStorageTest {
+    UserServiceImplStorage userService = new UserServiceImplStorage(new Storage());
+
+    private static UserDto userDto() {
+        UserDto userDto = new UserDto();
+        userDto.setAge(11);
+        userDto.setFullName("test name");
+        userDto.setTitle("test title");
+        return userDto;
+    }
+
+    @Test
+    @DisplayName("Создание пользователя. Должно пройти успешно.")
+    void savePerson_Test() {
+        //when
+        UserDto userDtoResult = userService.createUser(userDto());
+
+        //then
+        assertEquals(1L, userDtoResult.getId());
+        assertEquals(userDtoResult, userService.getUserById(1L));
+    }
+
+    @Test
+    @DisplayName("Обновление пользователя. Должно пройти успешно.")
+    void updatePerson_Test() {
+        //given
+        UserDto created = userService.createUser(userDto());
+        UserDto userDto = userDto();
+        userDto.setId(created.getId());
+        userDto.setAge(12);
+
+        //when
+        UserDto updated = userService.updateUser(userDto);
+
+        //then
+        assertEquals(12, updated.getAge());
+        assertEquals(12, userService.getUserById(created.getId()).getAge());
+    }
+
+    @Test
+    @DisplayName("Обновление и удаление несуществующего пользователя. Должно выбросить исключение.")
+    void updateDeleteMissingPerson_Test() {
+        //given
+        UserDto userDto = userDto();
+
+        //then
+        assertThrows(BadRequestExceptionUpdate.class, () -> userService.updateUser(userDto));
+        userDto.setId(100L);
+        assertThrows(NotFoundException.class, () -> userService.updateUser(userDto));
+        assertThrows(NotFoundException.class, () -> userService.getUserById(100L));
+        assertThrows(NotFoundException.class, () -> userService.deleteUserById(100L));
+    }
+}
@@ -0,0 +1,69 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.exception.BadRequestExceptionUpdate;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Тестирование разбора запроса на обновление книг {@link BookUpdateDiff}.
+ */
+@DisplayName("Testing book update diff.")
+public class BookUpdateDiffTest {
+
+    private BookDto book(long id, String title) {
+        BookDto bookDto = new BookDto();
+        bookDto.setId(id);
+        bookDto.setTitle(title);
+        if (title != null) {
+            bookDto.setAuthor("author");
+            bookDto.setPageCount(10);
+        }
+        return bookDto;
+    }
+
+    private boolean bookIsEmpty(BookDto bookDto) {
+        return bookDto.getTitle() == null && bookDto.getAuthor() == null && bookDto.getPageCount() == 0;
+    }
+
+    @Test
+    @DisplayName("Разбор запроса на создание, обновление и удаление. Результат в порядке запроса.")
+    void diff_Test() {
+        //given
+        BookDto created = book(0, "new");
+        BookDto emptyNew = book(0, null);
+        BookDto updated = book(2002, "updated");
+        BookDto deleted = book(3003, null);
+        BookDto notFound = book(4004, "foreign");
+
+        //when
+        BookUpdateDiff diff = BookUpdateDiff.of(1001L,
+                List.of(updated, created, emptyNew, deleted, notFound),
+                Set.of(2002L, 3003L),
+                this::bookIsEmpty);
+
+        //then
+        assertEquals(List.of(created), diff.getToCreate());
+        assertEquals(List.of(updated), diff.getToUpdate());
+        assertEquals(List.of(deleted), diff.getToDelete());
+        assertEquals(List.of(updated, created), diff.getResult());
+        assertEquals(1001L, created.getUserId());
+    }
+
+    @Test
+    @DisplayName("Один id дважды в запросе: с данными и пустой. Должно выбросить исключение, а не обновить и удалить.")
+    void duplicateId_Test() {
+        //given
+        List<BookDto> bookDtos = List.of(book(2002, "updated"), book(0, "new"), book(0, "more new"), book(2002, null));
+
+        //then
+        assertThrows(BadRequestExceptionUpdate.class,
+                () -> BookUpdateDiff.of(1001L, bookDtos, Set.of(2002L), this::bookIsEmpty));
+    }
+}
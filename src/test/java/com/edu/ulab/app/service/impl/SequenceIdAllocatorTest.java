@@ -0,0 +1,105 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.config.UnitTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Тестирование выдачи id блоками из sequence {@link SequenceIdAllocator}.
+ */
+@UnitTest
+@DisplayName("Testing sequence id allocator.")
+public class SequenceIdAllocatorTest {
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Резерв под 150 id. Один запрос за двумя блоками, id как у hilo Hibernate.")
+    void reserve_Test() {
+        //given
+        SequenceIdAllocator allocator = new SequenceIdAllocator(jdbcTemplate);
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(2))).thenReturn(List.of(7L, 9L));
+
+        //when
+        allocator.reserve(150);
+        long[] ids = LongStream.range(0, 150).map(i -> allocator.next()).toArray();
+
+        //then
+        assertArrayEquals(LongStream.concat(LongStream.range(700, 800), LongStream.range(900, 950)).toArray(), ids);
+        verify(jdbcTemplate, times(1)).queryForList(anyString(), eq(Long.class), anyInt());
+    }
+
+    @Test
+    @DisplayName("Резерв, покрытый остатком блока. Новых запросов к sequence нет.")
+    void reserveFromRemainder_Test() {
+        //given
+        SequenceIdAllocator allocator = new SequenceIdAllocator(jdbcTemplate);
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(1))).thenReturn(List.of(3L));
+        allocator.reserve(10);
+        allocator.next();
+
+        //when
+        allocator.reserve(99);
+        long last = 0;
+        for (int i = 0; i < 99; i++) {
+            last = allocator.next();
+        }
+
+        //then
+        assertEquals(399, last);
+        verify(jdbcTemplate, times(1)).queryForList(anyString(), eq(Long.class), anyInt());
+    }
+
+    @Test
+    @DisplayName("Выдача без резерва. Блок запрашивается, когда закончился предыдущий.")
+    void nextWithoutReserve_Test() {
+        //given
+        SequenceIdAllocator allocator = new SequenceIdAllocator(jdbcTemplate);
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(1))).thenReturn(List.of(1L), List.of(5L));
+
+        //when
+        long[] ids = LongStream.range(0, 101).map(i -> allocator.next()).toArray();
+
+        //then
+        assertArrayEquals(new long[]{100, 199, 500}, new long[]{ids[0], ids[99], ids[100]});
+        verify(jdbcTemplate, times(2)).queryForList(anyString(), eq(Long.class), eq(1));
+    }
+
+    @Test
+    @DisplayName("Запись через JdbcTemplate. Id из sequence колонки id (bigserial) своей таблицы, без блоков.")
+    void reserveSerial_Test() {
+        //given
+        SequenceIdAllocator allocator =
+                SequenceIdAllocator.of(jdbcTemplate, ServiceBackend.TEMPLATE, SequenceIdAllocator.BOOK_TABLE);
+        when(jdbcTemplate.queryForList(contains("PG_GET_SERIAL_SEQUENCE"), eq(Long.class),
+                eq(SequenceIdAllocator.BOOK_TABLE), eq(3))).thenReturn(List.of(41L, 42L, 45L));
+        when(jdbcTemplate.queryForList(contains("PG_GET_SERIAL_SEQUENCE"), eq(Long.class),
+                eq(SequenceIdAllocator.BOOK_TABLE), eq(1))).thenReturn(List.of(46L));
+
+        //when
+        allocator.reserve(3);
+        long[] ids = LongStream.range(0, 4).map(i -> allocator.next()).toArray();
+
+        //then
+        assertArrayEquals(new long[]{41, 42, 45, 46}, ids);
+    }
+
+    @Test
+    @DisplayName("Реализация storage. Sequence в БД нет, ошибка.")
+    void storageBackend_Test() {
+        assertThrows(IllegalArgumentException.class,
+                () -> SequenceIdAllocator.of(jdbcTemplate, ServiceBackend.STORAGE, SequenceIdAllocator.PERSON_TABLE));
+    }
+}
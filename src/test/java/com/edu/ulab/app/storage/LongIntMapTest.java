@@ -0,0 +1,60 @@
+package com.edu.ulab.app.storage;
+
+import com.edu.ulab.app.config.UnitTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Тестирование {@link LongIntMap}.
+ */
+@UnitTest
+@DisplayName("Testing long to int map.")
+public class LongIntMapTest {
+
+    @Test
+    @DisplayName("Случайные вставки и удаления. Содержимое совпадает с HashMap.")
+    void randomPutRemove_Test() {
+        //given
+        LongIntMap map = new LongIntMap();
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        //when
+        for (int i = 1; i <= 100_000; i++) {
+            long key = 1 + random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.getOrDefault(key, LongIntMap.NO_VALUE), map.remove(key));
+                expected.remove(key);
+            } else {
+                assertEquals(expected.getOrDefault(key, LongIntMap.NO_VALUE), map.put(key, i));
+                expected.put(key, i);
+            }
+        }
+
+        //then
+        assertEquals(expected.size(), map.size());
+        for (long key = 1; key <= 5_000; key++) {
+            assertEquals(expected.getOrDefault(key, LongIntMap.NO_VALUE), map.get(key));
+        }
+    }
+
+    @Test
+    @DisplayName("Ключ 0 и значение 0 зарезервированы. Вставка падает.")
+    void reserved_Test() {
+        //given
+        LongIntMap map = new LongIntMap();
+
+        //then
+        assertThrows(IllegalArgumentException.class, () -> map.put(0L, 1));
+        assertThrows(IllegalArgumentException.class, () -> map.put(1L, LongIntMap.NO_VALUE));
+        assertEquals(LongIntMap.NO_VALUE, map.get(0L));
+        assertEquals(LongIntMap.NO_VALUE, map.remove(0L));
+    }
+}
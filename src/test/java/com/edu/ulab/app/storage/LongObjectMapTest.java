@@ -0,0 +1,60 @@
+package com.edu.ulab.app.storage;
+
+import com.edu.ulab.app.config.UnitTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Тестирование {@link LongObjectMap}.
+ */
+@UnitTest
+@DisplayName("Testing long keyed map.")
+public class LongObjectMapTest {
+
+    @Test
+    @DisplayName("Случайные вставки и удаления. Содержимое совпадает с HashMap.")
+    void randomPutRemove_Test() {
+        //given
+        LongObjectMap<String> map = new LongObjectMap<>();
+        Map<Long, String> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        //when
+        for (int i = 0; i < 100_000; i++) {
+            long key = 1 + random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, "v" + i), map.put(key, "v" + i));
+            }
+        }
+
+        //then
+        assertEquals(expected.size(), map.size());
+        for (long key = 1; key <= 5_000; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+    }
+
+    @Test
+    @DisplayName("Ключ 0 зарезервирован. Вставка падает, поиск ничего не находит.")
+    void zeroKey_Test() {
+        //given
+        LongObjectMap<String> map = new LongObjectMap<>();
+
+        //then
+        assertThrows(IllegalArgumentException.class, () -> map.put(0L, "zero"));
+        assertNull(map.get(0L));
+        assertFalse(map.containsKey(0L));
+        assertNull(map.remove(0L));
+    }
+}
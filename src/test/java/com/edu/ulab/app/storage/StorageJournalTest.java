@@ -0,0 +1,186 @@
+package com.edu.ulab.app.storage;
+
+import com.edu.ulab.app.config.UnitTest;
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Тестирование файлов хранилища {@link Storage}: ячейки {@link RecordSegments} и журнал {@link StorageJournal}.
+ * Перезапуск, оборванная запись, контрольная точка.
+ */
+@UnitTest
+@DisplayName("Testing storage files.")
+public class StorageJournalTest {
+    // Маленькие сегменты, чтобы записи и ячейки переходили через границу сегмента
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    private Storage open() throws IOException {
+        return new Storage(directory, SEGMENT_SIZE, false, Duration.ofHours(1));
+    }
+
+    private static BookDto book(String title) {
+        return new BookDto(null, null, title, "автор", 100);
+    }
+
+    @Test
+    @DisplayName("Перезапуск. Данные восстанавливаются из ячеек и журнала, id продолжают расти.")
+    void replay_Test() throws IOException {
+        //given
+        UserDto user;
+        List<BookDto> books;
+        try (Storage storage = open()) {
+            user = storage.createPerson(new UserDto(null, "Иван Иванов", "reader", 30));
+            UserDto deleted = storage.createPerson(new UserDto(null, "deleted", null, 1));
+            books = storage.createBooks(user.getId(), IntStream.range(0, 100).mapToObj(i -> book("book " + i)).toList());
+            storage.updatePerson(new UserDto(user.getId(), "Иван Петров", "writer", 31));
+            storage.updateBook(user.getId(), new BookDto(books.get(0).getId(), user.getId(), "updated", null, 1));
+            storage.deleteBook(user.getId(), books.get(1).getId());
+            storage.createBooks(deleted.getId(), List.of(book("orphan")));
+            storage.deletePerson(deleted.getId());
+        }
+
+        //when
+        try (Storage storage = open()) {
+            //then
+            assertEquals(new UserDto(user.getId(), "Иван Петров", "writer", 31),
+                    storage.findPerson(user.getId()).orElseThrow());
+            List<BookDto> restored = storage.findBooks(user.getId());
+            assertEquals(99, restored.size());
+            assertEquals(new BookDto(books.get(0).getId(), user.getId(), "updated", null, 1), restored.get(0));
+            assertEquals(books.subList(2, 100), restored.subList(1, 99));
+            assertTrue(storage.createPerson(new UserDto()).getId() > user.getId() + 1);
+        }
+    }
+
+    @Test
+    @DisplayName("Оборванная последняя запись журнала. Отбрасывается, следующие записи пишутся на ее место.")
+    void tornTail_Test() throws IOException {
+        //given
+        Path path = directory.resolve(Storage.JOURNAL_FILE);
+        UserDto user;
+        UserDto torn;
+        try (Storage storage = open()) {
+            user = storage.createPerson(new UserDto(null, "kept", null, 1));
+            torn = storage.createPerson(new UserDto(null, "torn", null, 2));
+        }
+        // Портим последний байт второй записи
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+            channel.read(length, 0);
+            int second = length.flip().getInt();
+            length.clear();
+            channel.read(length, second);
+            channel.write(ByteBuffer.wrap(new byte[]{42}), second + length.flip().getInt() - 1);
+        }
+
+        //when
+        UserDto after;
+        try (Storage storage = open()) {
+            //then
+            assertEquals(1, storage.journalRecords());
+            assertEquals("kept", storage.findPerson(user.getId()).orElseThrow().getFullName());
+            // Новая запись пишется на место оборванной и переживает следующий перезапуск
+            after = storage.createPerson(new UserDto(null, "after", null, 3));
+            assertTrue(after.getId() > torn.getId());
+        }
+        try (Storage storage = open()) {
+            assertEquals(2, storage.journalRecords());
+            assertEquals("after", storage.findPerson(after.getId()).orElseThrow().getFullName());
+        }
+    }
+
+    @Test
+    @DisplayName("Недописанная при падении ячейка. Восстанавливается из журнала.")
+    void tornSlot_Test() throws IOException {
+        //given
+        UserDto user;
+        try (Storage storage = open()) {
+            user = storage.createPerson(new UserDto(null, "Иван Иванов", "reader", 30));
+        }
+        // Ячейка 1 - первая после заголовка: снимаем признак занятости и портим имя
+        try (FileChannel channel = FileChannel.open(directory.resolve(Storage.PERSONS_FILE),
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[24]), PersonRecord.SLOT_SIZE);
+        }
+
+        //when
+        try (Storage storage = open()) {
+            //then
+            assertEquals(user, storage.findPerson(user.getId()).orElseThrow());
+        }
+    }
+
+    @Test
+    @DisplayName("Контрольная точка. Журнал очищается, данные читаются из ячеек.")
+    void checkpoint_Test() throws IOException {
+        //given
+        UserDto user;
+        try (Storage storage = open()) {
+            user = storage.createPerson(new UserDto(null, "user", null, 1));
+            List<BookDto> books = storage.createBooks(user.getId(),
+                    IntStream.range(0, 200).mapToObj(i -> book("book " + i)).toList());
+            for (BookDto bookDto : books.subList(0, 150)) {
+                storage.deleteBook(user.getId(), bookDto.getId());
+            }
+
+            //when
+            storage.checkpoint();
+            assertEquals(0, storage.journalRecords());
+            storage.createBooks(user.getId(), List.of(book("after checkpoint")));
+        }
+
+        //then
+        try (Storage storage = open()) {
+            assertEquals(1, storage.journalRecords());
+            List<BookDto> books = storage.findBooks(user.getId());
+            assertEquals(51, books.size());
+            assertEquals("book 150", books.get(0).getTitle());
+            assertEquals("after checkpoint", books.get(50).getTitle());
+        }
+    }
+
+    @Test
+    @DisplayName("Перезапуск после контрольной точки. id удаленных последних записей не выдаются повторно.")
+    void sequenceAfterCheckpoint_Test() throws IOException {
+        //given
+        UserDto deletedUser;
+        BookDto deletedBook;
+        try (Storage storage = open()) {
+            UserDto user = storage.createPerson(new UserDto(null, "user", null, 1));
+            deletedUser = storage.createPerson(new UserDto(null, "deleted", null, 2));
+            deletedBook = storage.createBooks(user.getId(), List.of(book("kept"), book("deleted"))).get(1);
+            storage.deleteBook(user.getId(), deletedBook.getId());
+            storage.deletePerson(deletedUser.getId());
+            storage.checkpoint();
+        }
+
+        //when
+        try (Storage storage = open()) {
+            UserDto user = storage.createPerson(new UserDto(null, "new", null, 3));
+            BookDto book = storage.createBooks(user.getId(), List.of(book("new"))).get(0);
+
+            //then
+            assertEquals(2, storage.journalRecords());
+            assertTrue(user.getId() > deletedUser.getId());
+            assertTrue(book.getId() > deletedBook.getId());
+        }
+    }
+}
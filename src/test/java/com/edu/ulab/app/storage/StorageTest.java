@@ -0,0 +1,167 @@
+package com.edu.ulab.app.storage;
+
+import com.edu.ulab.app.config.UnitTest;
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.exception.NotFoundException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Тестирование хранилища в памяти {@link Storage}.
+ */
+@UnitTest
+@DisplayName("Testing in-memory storage.")
+public class StorageTest {
+    private final Storage storage = new Storage();
+
+    private static UserDto user(String name) {
+        return new UserDto(null, name, "reader", 30);
+    }
+
+    private static BookDto book(String title) {
+        return new BookDto(null, null, title, "author", 100);
+    }
+
+    @Test
+    @DisplayName("Создание, обновление и удаление пользователя с книгами.")
+    void personLifecycle_Test() {
+        //given
+        UserDto user = storage.createPerson(user("test name"));
+        List<BookDto> books = storage.createBooks(user.getId(), List.of(book("first"), book("second")));
+
+        //when
+        UserDto updated = new UserDto(user.getId(), "new name", "writer", 31);
+        boolean isUpdated = storage.updatePerson(updated);
+
+        //then
+        assertTrue(isUpdated);
+        assertEquals(updated, storage.findPerson(user.getId()).orElseThrow());
+        assertEquals(books, storage.findBooks(user.getId()));
+        assertTrue(storage.deletePerson(user.getId()));
+        assertTrue(storage.findPerson(user.getId()).isEmpty());
+        assertTrue(storage.findBooks(user.getId()).isEmpty());
+        assertFalse(storage.containsBook(user.getId(), books.get(0).getId()));
+        assertFalse(storage.deletePerson(user.getId()));
+    }
+
+    @Test
+    @DisplayName("Книги чужого пользователя не обновляются и не удаляются.")
+    void foreignBook_Test() {
+        //given
+        UserDto owner = storage.createPerson(user("owner"));
+        UserDto other = storage.createPerson(user("other"));
+        BookDto book = storage.createBooks(owner.getId(), List.of(book("owned"))).get(0);
+
+        //when
+        BookDto changed = new BookDto(book.getId(), other.getId(), "changed", "changed", 1);
+
+        //then
+        assertFalse(storage.updateBook(other.getId(), changed));
+        assertFalse(storage.deleteBook(other.getId(), book.getId()));
+        assertEquals(List.of(book), storage.findBooks(owner.getId()));
+    }
+
+    @Test
+    @DisplayName("Изменения полки книг применяются вместе, id новых книг проставляются в DTO.")
+    void applyBooks_Test() {
+        //given
+        UserDto owner = storage.createPerson(user("owner"));
+        List<BookDto> books = storage.createBooks(owner.getId(), List.of(book("updated"), book("deleted")));
+        BookDto updated = new BookDto(books.get(0).getId(), owner.getId(), "new title", "new author", 10);
+        BookDto created = book("created");
+
+        //when
+        storage.applyBooks(owner.getId(), List.of(created), List.of(updated), List.of(books.get(1)));
+
+        //then
+        assertEquals(List.of(updated, created), storage.findBooks(owner.getId()));
+        assertEquals(owner.getId(), created.getUserId());
+    }
+
+    @Test
+    @DisplayName("Книги несуществующего пользователя. Должно выбросить NotFoundException.")
+    void createBooksWithoutPerson_Test() {
+        assertThrows(NotFoundException.class, () -> storage.createBooks(1L, List.of(book("orphan"))));
+    }
+
+    @Test
+    @DisplayName("Параллельное создание пользователей и книг. Id уникальны, данные не теряются.")
+    void concurrentCreate_Test() throws Exception {
+        //given
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        Set<Long> bookIds = ConcurrentHashMap.newKeySet();
+
+        //when
+        try {
+            List<Future<Long>> users = IntStream.range(0, 1_000)
+                    .mapToObj(i -> executor.submit(() -> {
+                        UserDto user = storage.createPerson(user("user " + i));
+                        storage.createBooks(user.getId(), List.of(book("a"), book("b")))
+                                .forEach(bookDto -> bookIds.add(bookDto.getId()));
+                        return user.getId();
+                    }))
+                    .toList();
+            for (Future<Long> user : users) {
+                //then
+                assertEquals(2, storage.findBooks(user.get()).size());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(2_000, bookIds.size());
+    }
+
+    @Test
+    @DisplayName("Удаленные ячейки переиспользуются, записи переходят через границу сегмента.")
+    void slotReuse_Test() {
+        //given
+        UserDto owner = storage.createPerson(user("owner"));
+        List<BookDto> books = storage.createBooks(owner.getId(),
+                IntStream.range(0, 5_000).mapToObj(i -> book("book " + i)).toList());
+
+        //when
+        storage.deleteBooks(owner.getId());
+        List<BookDto> created = storage.createBooks(owner.getId(),
+                IntStream.range(0, 5_000).mapToObj(i -> book("new " + i)).toList());
+
+        //then
+        assertEquals(created, storage.findBooks(owner.getId()));
+        assertTrue(created.get(0).getId() > books.get(4_999).getId());
+        assertEquals("new 4999", storage.findBooks(owner.getId()).get(4_999).getTitle());
+    }
+
+    @Test
+    @DisplayName("Строка длиннее 50 символов, как varchar(50) в БД. Должно выбросить исключение, запись не меняется.")
+    void tooLongString_Test() {
+        //given
+        UserDto owner = storage.createPerson(user("owner"));
+        String tooLong = "я".repeat(51);
+
+        //then
+        assertThrows(IllegalArgumentException.class, () -> storage.createPerson(user(tooLong)));
+        assertThrows(IllegalArgumentException.class,
+                () -> storage.updatePerson(new UserDto(owner.getId(), tooLong, null, 1)));
+        assertThrows(IllegalArgumentException.class, () -> storage.createBooks(owner.getId(), List.of(book(tooLong))));
+        assertEquals("owner", storage.findPerson(owner.getId()).orElseThrow().getFullName());
+        assertTrue(storage.findBooks(owner.getId()).isEmpty());
+        // 50 символов по 3 байта UTF-8 помещаются в ячейку
+        String longest = "\u20AC".repeat(50);
+        BookDto book = storage.createBooks(owner.getId(), List.of(book(longest))).get(0);
+        assertEquals(longest, storage.findBooks(owner.getId()).get(0).getTitle());
+        assertEquals(book, storage.findBooks(owner.getId()).get(0));
+    }
+}
@@ -0,0 +1,96 @@
+package com.edu.ulab.app.web;
+
+import com.edu.ulab.app.config.PostgreSqlContainerConfig;
+import com.edu.ulab.app.service.impl.UserBookReaderR2dbc;
+import com.edu.ulab.app.web.constant.WebConstant;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlMergeMode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Системные тесты эндпоинта чтения через R2DBC {@link ReactiveUserController} в профиле reactive.
+ * Приложение поднимается целиком, запрос идет по HTTP. Тестовой транзакции нет: данные @Sql коммитятся,
+ * иначе соединение R2DBC их не увидит, поэтому после каждого теста таблицы чистятся явно.
+ */
+@ActiveProfiles({"test", UserBookReaderR2dbc.PROFILE})
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(PostgreSqlContainerConfig.class)
+@SqlMergeMode(SqlMergeMode.MergeMode.MERGE)
+@Sql(scripts = "classpath:sql/1_clear_schema.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class ReactiveUserControllerTest {
+    private static final String GET_URL = WebConstant.VERSION_URL + "/user/reactive/get/{userId}";
+
+    @Autowired
+    TestRestTemplate restTemplate;
+
+    @DynamicPropertySource
+    static void r2dbcProperties(DynamicPropertyRegistry registry) {
+        PostgreSqlContainerConfig.r2dbcProperties(registry);
+    }
+
+    @DisplayName("Получить пользователя с книгами через R2DBC. Ответ такой же, как у /get/{userId}")
+    @Test
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql",
+            "classpath:sql/3_insert_book_data.sql"
+    })
+    void getUserWithBooks_thenAssertResponse() {
+        //When
+        ResponseEntity<UserBookResponse> response = restTemplate.getForEntity(GET_URL, UserBookResponse.class, 1001L);
+
+        //Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        UserBookResponse userBookResponse = response.getBody();
+        assertThat(userBookResponse).isNotNull();
+        assertThat(userBookResponse.getUserId()).isEqualTo(1001L);
+        assertThat(userBookResponse.getFullName()).isEqualTo("default uer");
+        assertThat(userBookResponse.getTitle()).isEqualTo("reader");
+        assertThat(userBookResponse.getAge()).isEqualTo(55);
+        assertThat(userBookResponse.getBookList())
+                .extracting("id", "userId", "title", "author", "pageCount")
+                .containsExactly(
+                        tuple(2002L, 1001L, "default book", "author", 5500L),
+                        tuple(3003L, 1001L, "more default book", "on more author", 6655L));
+    }
+
+    @DisplayName("Получить пользователя без книг через R2DBC. Список книг пуст")
+    @Test
+    @Sql({"classpath:sql/1_clear_schema.sql",
+            "classpath:sql/2_insert_person_data.sql"
+    })
+    void getUserWithoutBooks_thenAssertEmptyBookList() {
+        //When
+        ResponseEntity<UserBookResponse> response = restTemplate.getForEntity(GET_URL, UserBookResponse.class, 1001L);
+
+        //Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getBookList()).isEmpty();
+    }
+
+    @DisplayName("Получить несуществующего пользователя через R2DBC. Ответ 400, как у NotFoundException в /get/{userId}")
+    @Test
+    @Sql({"classpath:sql/1_clear_schema.sql"})
+    void getMissingUser_thenBadRequest() {
+        //When
+        ResponseEntity<String> response = restTemplate.getForEntity(GET_URL, String.class, 1001L);
+
+        //Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).contains("User not found");
+    }
+}
@@ -0,0 +1,99 @@
+package com.edu.ulab.app.web;
+
+import com.edu.ulab.app.config.UnitTest;
+import com.edu.ulab.app.service.impl.UserBookExportTemplate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.Mock;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тестирование выгрузки {@link UserController#exportUsersWithBooks}: выбор gzip по Accept-Encoding.
+ */
+@UnitTest
+@DisplayName("Testing export encoding.")
+public class UserControllerExportTest {
+    private static final String BODY = "{\"userId\":1}\n{\"userId\":2}\n";
+
+    @Mock
+    ObjectProvider<UserBookExportTemplate> userBookExportProvider;
+    @Mock
+    UserBookExportTemplate userBookExport;
+
+    UserController controller;
+
+    @BeforeEach
+    void setUp() {
+        controller = new UserController(null, null, null, null, userBookExportProvider, null);
+    }
+
+    private void givenExport() throws IOException {
+        when(userBookExportProvider.getIfAvailable()).thenReturn(userBookExport);
+        when(userBookExport.writeAllUsersWithBooks(any(OutputStream.class))).thenAnswer(invocation -> {
+            invocation.getArgument(0, OutputStream.class).write(BODY.getBytes(StandardCharsets.UTF_8));
+            return 2L;
+        });
+    }
+
+    @Test
+    @DisplayName("Клиент принимает gzip. Тело сжато, Content-Encoding: gzip, Vary: Accept-Encoding.")
+    void exportGzip_Test() throws IOException {
+        //given
+        givenExport();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //when
+        controller.exportUsersWithBooks("deflate, gzip;q=0.5", response);
+
+        //then
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(response.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            assertThat(new String(gzip.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(BODY);
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource(value = {"gzip;q=0", "'*;q=0.5, gzip;q=0'", "identity", "NULL"}, nullValues = "NULL")
+    @DisplayName("Клиент не принимает gzip. Тело без сжатия, Vary: Accept-Encoding.")
+    void exportIdentity_Test(String acceptEncoding) throws IOException {
+        //given
+        givenExport();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //when
+        controller.exportUsersWithBooks(acceptEncoding, response);
+
+        //then
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(response.getContentAsString(StandardCharsets.UTF_8)).isEqualTo(BODY);
+    }
+
+    @Test
+    @DisplayName("Разбор Accept-Encoding. Учитываются q-значения, * и регистр.")
+    void acceptsGzip_Test() {
+        assertThat(UserController.acceptsGzip("GZIP")).isTrue();
+        assertThat(UserController.acceptsGzip("br;q=1.0, *;q=0.1")).isTrue();
+        assertThat(UserController.acceptsGzip("gzip; q=0.001")).isTrue();
+        assertThat(UserController.acceptsGzip("gzip;q=0.000")).isFalse();
+        assertThat(UserController.acceptsGzip("gzip;q=abc")).isFalse();
+        assertThat(UserController.acceptsGzip("br")).isFalse();
+        assertThat(UserController.acceptsGzip("")).isFalse();
+    }
+}
@@ -0,0 +1,161 @@
+package com.edu.ulab.app.web.filter;
+
+import com.edu.ulab.app.config.UnitTest;
+import com.edu.ulab.app.exception.SqlBudgetExceededException;
+import com.edu.ulab.app.metrics.ConnectionCountingDataSource;
+import com.edu.ulab.app.metrics.RequestDbStats;
+import com.edu.ulab.app.metrics.SqlBudgetProperties;
+import com.edu.ulab.app.metrics.StatementCountingListener;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тестирование метрик обращений к БД на HTTP запрос {@link HttpRequestFilter}.
+ */
+@UnitTest
+@DisplayName("Testing HTTP request filter.")
+public class HttpRequestFilterTest {
+    private static final String PATTERN = "/api/v1/user/get/{userId}";
+
+    @Mock
+    DataSource pool;
+    @Mock
+    Connection connection;
+    @Mock
+    Statement statement;
+
+    SimpleMeterRegistry registry;
+    SqlBudgetProperties budget;
+    HttpRequestFilter filter;
+    MockHttpServletRequest request;
+    DataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        budget = new SqlBudgetProperties();
+        budget.setEndpoints(Map.of("GET " + PATTERN, 1));
+        filter = new HttpRequestFilter(registry, budget);
+        request = new MockHttpServletRequest("GET", "/app/api/v1/user/get/1");
+        request.addHeader("rqid", "request-1");
+        dataSource = new ConnectionCountingDataSource(ProxyDataSourceBuilder.create(pool)
+                .listener(new StatementCountingListener())
+                .build());
+    }
+
+    // Контроллер: шаблон пути выбран, бюджет выставлен, два запроса на одном соединении
+    private FilterChain controller() throws SQLException {
+        when(pool.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        return (servletRequest, servletResponse) -> {
+            servletRequest.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, PATTERN);
+            new SqlBudgetInterceptor(budget).preHandle(request, (HttpServletResponse) servletResponse, new Object());
+            assertThat(MDC.get("requestId")).isEqualTo("request-1");
+            try (Connection proxyConnection = dataSource.getConnection()) {
+                proxyConnection.createStatement().execute("select 1");
+                proxyConnection.createStatement().execute("select 2");
+            } catch (SQLException e) {
+                throw new ServletException(e);
+            }
+        };
+    }
+
+    private DistributionSummary summary(String name) {
+        return registry.get(name).tag("method", "GET").tag("uri", PATTERN).summary();
+    }
+
+    @Test
+    @DisplayName("Запрос с обращениями к БД. Соединения, запросы и их время записаны с шаблоном пути.")
+    void recordDbStats_Test() throws ServletException, IOException, SQLException {
+        //when
+        filter.doFilter(request, new MockHttpServletResponse(), controller());
+
+        //then
+        assertThat(summary("http.server.requests.db.connections").totalAmount()).isEqualTo(1);
+        assertThat(summary("http.server.requests.db.statements").totalAmount()).isEqualTo(2);
+        assertThat(registry.get("http.server.requests.db.time").tag("uri", PATTERN).timer()
+                .totalTime(TimeUnit.NANOSECONDS)).isPositive();
+        assertThat(RequestDbStats.current()).isNull();
+        assertThat(MDC.get("requestId")).isNull();
+    }
+
+    @Test
+    @DisplayName("Режим reject. Запрос сверх бюджета падает, статистика запроса все равно закрывается.")
+    void rejectOverBudget_Test() throws SQLException {
+        //given
+        budget.setMode(SqlBudgetProperties.Mode.REJECT);
+        FilterChain chain = controller();
+
+        //then
+        assertThatThrownBy(() -> filter.doFilter(request, new MockHttpServletResponse(), chain))
+                .isInstanceOf(SqlBudgetExceededException.class);
+        assertThat(summary("http.server.requests.db.statements").totalAmount()).isEqualTo(1);
+        assertThat(RequestDbStats.current()).isNull();
+    }
+
+    @Test
+    @DisplayName("Асинхронный запрос. Один итог на async dispatch, запросы к БД потока пула фасада учтены.")
+    void asyncRequest_Test() throws ServletException, IOException, SQLException {
+        //given
+        when(pool.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        ExecutorService facadePool = Executors.newSingleThreadExecutor();
+        AtomicReference<CompletableFuture<Boolean>> task = new AtomicReference<>();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //when
+        filter.doFilter(request, response, (servletRequest, servletResponse) -> {
+            servletRequest.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, PATTERN);
+            ((MockHttpServletRequest) servletRequest).setAsyncStarted(true);
+            task.set(CompletableFuture.supplyAsync(RequestDbStats.propagate(() -> {
+                try (Connection proxyConnection = dataSource.getConnection()) {
+                    return proxyConnection.createStatement().execute("select 1");
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }), facadePool));
+        });
+        assertThat(registry.find("http.server.requests.db.statements").summary()).isNull();
+        task.get().join();
+        facadePool.shutdown();
+        request.setAsyncStarted(false);
+        request.setDispatcherType(DispatcherType.ASYNC);
+        filter.doFilter(request, response, (servletRequest, servletResponse) -> {
+        });
+
+        //then
+        assertThat(summary("http.server.requests.db.statements").count()).isEqualTo(1);
+        assertThat(summary("http.server.requests.db.statements").totalAmount()).isEqualTo(1);
+        assertThat(summary("http.server.requests.db.connections").totalAmount()).isEqualTo(1);
+        assertThat(RequestDbStats.current()).isNull();
+    }
+}
@@ -0,0 +1,144 @@
+package com.edu.ulab.app.web.filter;
+
+import com.edu.ulab.app.config.UnitTest;
+import com.edu.ulab.app.exception.SqlBudgetExceededException;
+import com.edu.ulab.app.metrics.RequestDbStats;
+import com.edu.ulab.app.metrics.SqlBudgetProperties;
+import com.edu.ulab.app.metrics.StatementCountingListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тестирование выбора бюджета SQL запросов по эндпоинту {@link SqlBudgetInterceptor}.
+ */
+@UnitTest
+@DisplayName("Testing SQL budget interceptor.")
+public class SqlBudgetInterceptorTest {
+    private static final String PATTERN = "/api/v1/user/get/{userId}";
+
+    @Mock
+    DataSource dataSource;
+    @Mock
+    Connection connection;
+    @Mock
+    Statement statement;
+
+    SqlBudgetProperties budget;
+    MockHttpServletRequest request;
+
+    @BeforeEach
+    void setUp() {
+        budget = new SqlBudgetProperties();
+        budget.setDefaultStatements(10);
+        budget.setEndpoints(Map.of("GET " + PATTERN, 3));
+        request = new MockHttpServletRequest("GET", "/app/api/v1/user/get/1");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, PATTERN);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestDbStats.finish();
+    }
+
+    private RequestDbStats preHandle() {
+        RequestDbStats stats = RequestDbStats.start();
+        boolean proceed = new SqlBudgetInterceptor(budget).preHandle(request, new MockHttpServletResponse(), new Object());
+        assertThat(proceed).isTrue();
+        return stats;
+    }
+
+    @Test
+    @DisplayName("Эндпоинт со своим бюджетом. Бюджет по методу и шаблону пути.")
+    void endpointBudget_Test() {
+        //when
+        RequestDbStats stats = preHandle();
+
+        //then
+        assertThat(stats.getEndpoint()).isEqualTo("GET " + PATTERN);
+        assertThat(stats.getStatementBudget()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Эндпоинт без своей настройки. Бюджет по умолчанию.")
+    void defaultBudget_Test() {
+        //given
+        request.setMethod("DELETE");
+
+        //when
+        RequestDbStats stats = preHandle();
+
+        //then
+        assertThat(stats.getEndpoint()).isEqualTo("DELETE " + PATTERN);
+        assertThat(stats.getStatementBudget()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Режим reject. Запрос сверх бюджета эндпоинта не уходит в БД.")
+    void modeReject_Test() throws SQLException {
+        //given
+        budget.setMode(SqlBudgetProperties.Mode.REJECT);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        Statement proxyStatement = ProxyDataSourceBuilder.create(dataSource)
+                .listener(new StatementCountingListener())
+                .build()
+                .getConnection()
+                .createStatement();
+
+        //when
+        RequestDbStats stats = preHandle();
+        for (int i = 0; i < 3; i++) {
+            proxyStatement.execute("select 1");
+        }
+
+        //then
+        assertThatThrownBy(() -> proxyStatement.execute("select 1"))
+                .isInstanceOf(SqlBudgetExceededException.class)
+                .hasMessageContaining("GET " + PATTERN);
+        verify(statement, times(3)).execute(anyString());
+        assertThat(stats.getStatements()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Режим off. Бюджет не выставляется.")
+    void modeOff_Test() {
+        //given
+        budget.setMode(SqlBudgetProperties.Mode.OFF);
+
+        //when
+        RequestDbStats stats = preHandle();
+
+        //then
+        assertThat(stats.getEndpoint()).isNull();
+        assertThat(stats.getStatementBudget()).isZero();
+    }
+
+    @Test
+    @DisplayName("Вне фильтра статистики нет. Запрос пропускается.")
+    void noStats_Test() {
+        //then
+        assertThat(new SqlBudgetInterceptor(budget).preHandle(request, new MockHttpServletResponse(), new Object()))
+                .isTrue();
+        assertThat(RequestDbStats.current()).isNull();
+    }
+}
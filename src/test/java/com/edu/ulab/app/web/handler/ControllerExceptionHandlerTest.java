@@ -0,0 +1,66 @@
+package com.edu.ulab.app.web.handler;
+
+import com.edu.ulab.app.exception.SqlBudgetExceededException;
+import com.edu.ulab.app.web.response.BaseWebResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionSystemException;
+
+import javax.persistence.RollbackException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тестирование ответа на превышение бюджета SQL запросов в {@link ControllerExceptionHandler}.
+ */
+@DisplayName("Testing SQL budget error responses.")
+public class ControllerExceptionHandlerTest {
+    private final ControllerExceptionHandler handler = new ControllerExceptionHandler();
+    private final SqlBudgetExceededException overBudget =
+            new SqlBudgetExceededException("PUT /api/v1/user/update", 8);
+
+    @Test
+    @DisplayName("Превышение бюджета при выполнении запроса. Ответ 500 с сообщением о бюджете.")
+    void sqlBudgetExceeded_Test() {
+        //when
+        ResponseEntity<BaseWebResponse> response = handler.handleSqlBudgetExceededException(overBudget);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getErrorMessage()).isEqualTo(overBudget.getMessage());
+    }
+
+    @Test
+    @DisplayName("Превышение бюджета при flush на commit. Причина достается из TransactionSystemException.")
+    void sqlBudgetExceededOnCommit_Test() {
+        //given
+        TransactionSystemException exc = new TransactionSystemException("Could not commit JPA transaction",
+                new RollbackException("Error while committing the transaction", overBudget));
+
+        //when
+        ResponseEntity<BaseWebResponse> response = handler.handleTransactionSystemException(exc);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getErrorMessage()).isEqualTo(overBudget.getMessage());
+    }
+
+    @Test
+    @DisplayName("Другая ошибка commit. Ответ 500 с сообщением самой ошибки.")
+    void otherCommitFailure_Test() {
+        //given
+        TransactionSystemException exc = new TransactionSystemException("Could not commit JPA transaction");
+
+        //when
+        ResponseEntity<BaseWebResponse> response = handler.handleTransactionSystemException(exc);
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getErrorMessage()).isEqualTo("Could not commit JPA transaction");
+    }
+}
@@ -0,0 +1,86 @@
+package com.edu.ulab.app.web.handler;
+
+import com.edu.ulab.app.config.UnitTest;
+import com.edu.ulab.app.metrics.RequestDbStats;
+import com.edu.ulab.app.metrics.StatementCountingListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тестирование заголовков ответа с обращениями к БД {@link DbStatsResponseBodyAdvice}.
+ */
+@UnitTest
+@DisplayName("Testing db stats response headers.")
+public class DbStatsResponseBodyAdviceTest {
+    private final DbStatsResponseBodyAdvice advice = new DbStatsResponseBodyAdvice();
+
+    @Mock
+    DataSource dataSource;
+    @Mock
+    Connection connection;
+    @Mock
+    Statement statement;
+
+    @AfterEach
+    void tearDown() {
+        RequestDbStats.finish();
+    }
+
+    private ServletServerHttpResponse writeBody(Object body) {
+        ServletServerHttpResponse response = new ServletServerHttpResponse(new MockHttpServletResponse());
+        Object written = advice.beforeBodyWrite(body, null, MediaType.APPLICATION_JSON, null,
+                new ServletServerHttpRequest(new MockHttpServletRequest()), response);
+        assertThat(written).isSameAs(body);
+        return response;
+    }
+
+    @Test
+    @DisplayName("Запрос с обращениями к БД. Число запросов и время в миллисекундах в заголовках.")
+    void headers_Test() throws SQLException {
+        //given
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        Statement proxyStatement = ProxyDataSourceBuilder.create(dataSource)
+                .listener(new StatementCountingListener())
+                .build()
+                .getConnection()
+                .createStatement();
+        RequestDbStats.start();
+        proxyStatement.execute("select 1");
+        proxyStatement.execute("select 2");
+
+        //when
+        ServletServerHttpResponse response = writeBody("body");
+
+        //then
+        assertThat(response.getHeaders().getFirst(DbStatsResponseBodyAdvice.STATEMENTS_HEADER)).isEqualTo("2");
+        assertThat(response.getHeaders().getFirst(DbStatsResponseBodyAdvice.TIME_HEADER)).matches("\\d+\\.\\d{3}");
+    }
+
+    @Test
+    @DisplayName("Вне HTTP фильтра статистики нет. Заголовки не ставятся.")
+    void noStats_Test() {
+        //when
+        ServletServerHttpResponse response = writeBody("body");
+
+        //then
+        assertThat(response.getHeaders().containsKey(DbStatsResponseBodyAdvice.STATEMENTS_HEADER)).isFalse();
+        assertThat(response.getHeaders().containsKey(DbStatsResponseBodyAdvice.TIME_HEADER)).isFalse();
+    }
+}
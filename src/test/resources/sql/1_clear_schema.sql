@@ -1,4 +1,4 @@
 DELETE
-FROM ulab_edu.person;
-DELETE
 FROM ulab_edu.book;
+DELETE
+FROM ulab_edu.person;
@@ -0,0 +1,10 @@
+insert into ulab_edu.person (ID, FULL_NAME, TITLE, AGE)
+select id, 'person ' || id, 'reader', 30
+from generate_series(100000, 100999) id;
+
+insert into ulab_edu.book (ID, PERSON_ID, TITLE, AUTHOR, PAGE_COUNT)
+select id, 100000 + id % 1000, 'book ' || id, 'author ' || id % 500, 100
+from generate_series(200000, 299999) id;
+
+analyze ulab_edu.person;
+analyze ulab_edu.book;